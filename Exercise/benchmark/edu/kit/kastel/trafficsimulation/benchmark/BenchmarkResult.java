@@ -0,0 +1,108 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+/**
+ * The result of one benchmark on one scenario: the average and the fastest time of one operation over all measured
+ * iterations.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class BenchmarkResult {
+
+    /**
+     * The separator of the values of a result line.
+     */
+    static final String SEPARATOR = ";";
+
+    private static final int BENCHMARK = 0;
+    private static final int SCENARIO = 1;
+    private static final int AVERAGE = 2;
+    private static final int FASTEST = 3;
+    private static final int VALUES = 4;
+
+    private final String benchmark;
+    private final String scenario;
+    private final double averageNanos;
+    private final double fastestNanos;
+
+    /**
+     * Creates a new result.
+     * @param benchmark the name of the benchmark
+     * @param scenario the name of the scenario
+     * @param averageNanos the average time of one operation in nanoseconds
+     * @param fastestNanos the time of one operation in the fastest iteration in nanoseconds
+     */
+    BenchmarkResult(String benchmark, String scenario, double averageNanos, double fastestNanos) {
+        this.benchmark = benchmark;
+        this.scenario = scenario;
+        this.averageNanos = averageNanos;
+        this.fastestNanos = fastestNanos;
+    }
+
+    /**
+     * Parses a result from a line that was written by {@link #toLine()}.
+     * @param line the line to parse
+     * @return the result, or null if the line isn't a result
+     */
+    static BenchmarkResult fromLine(String line) {
+        String[] values = line.split(SEPARATOR);
+        if (values.length != VALUES) {
+            return null;
+        }
+        try {
+            return new BenchmarkResult(values[BENCHMARK], values[SCENARIO], Double.parseDouble(values[AVERAGE]),
+                    Double.parseDouble(values[FASTEST]));
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the result as one line of a results file.
+     * @return the benchmark, the scenario, the average and the fastest time separated by {@value SEPARATOR}
+     */
+    String toLine() {
+        return String.join(SEPARATOR, benchmark, scenario, String.valueOf(averageNanos),
+                String.valueOf(fastestNanos));
+    }
+
+    /**
+     * Returns the key that identifies the result in a results file.
+     * @return the benchmark and the scenario
+     */
+    String getKey() {
+        return benchmark + SEPARATOR + scenario;
+    }
+
+    /**
+     * Returns the name of the benchmark.
+     * @return the name of the benchmark
+     */
+    String getBenchmark() {
+        return benchmark;
+    }
+
+    /**
+     * Returns the name of the scenario.
+     * @return the name of the scenario
+     */
+    String getScenario() {
+        return scenario;
+    }
+
+    /**
+     * Returns the average time of one operation.
+     * @return the average time in nanoseconds
+     */
+    double getAverageNanos() {
+        return averageNanos;
+    }
+
+    /**
+     * Returns the time of one operation in the fastest iteration.
+     * @return the fastest time in nanoseconds
+     */
+    double getFastestNanos() {
+        return fastestNanos;
+    }
+}
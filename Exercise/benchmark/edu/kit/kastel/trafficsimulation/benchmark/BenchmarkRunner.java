@@ -0,0 +1,93 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs benchmarks in the style of JMH without depending on it: every benchmark is first run for some warmup
+ * iterations, so the JIT compiler optimizes it, and afterwards for the measured iterations. Every iteration gets a
+ * fresh setup that isn't measured. The values computed by the benchmarks are summed up in a sink, so the JIT compiler
+ * can't remove the measured code.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class BenchmarkRunner {
+
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final List<BenchmarkResult> results;
+    private long sink;
+
+    /**
+     * Creates a new runner.
+     * @param warmupIterations the number of iterations that are run before measuring
+     * @param iterations the number of measured iterations
+     */
+    BenchmarkRunner(int warmupIterations, int iterations) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.results = new ArrayList<>();
+        this.sink = 0;
+    }
+
+    /**
+     * Runs a benchmark and prints its result.
+     * @param benchmark the name of the benchmark
+     * @param scenario the name of the scenario
+     * @param operations the number of operations of one iteration
+     * @param setup creates the measured iteration, its result is added to the sink
+     */
+    void run(String benchmark, String scenario, int operations, Supplier<Iteration> setup) {
+        for (int i = 0; i < warmupIterations; i++) {
+            sink += setup.get().run();
+        }
+        long totalNanos = 0;
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            Iteration iteration = setup.get();
+            long start = System.nanoTime();
+            sink += iteration.run();
+            long nanos = System.nanoTime() - start;
+            totalNanos += nanos;
+            fastestNanos = Math.min(fastestNanos, nanos);
+        }
+        BenchmarkResult result = new BenchmarkResult(benchmark, scenario,
+                (double) totalNanos / iterations / operations, (double) fastestNanos / operations);
+        results.add(result);
+        System.out.printf("%-28s %-28s %14.3f us/op %14.3f us/op (fastest)%n", benchmark, scenario,
+                result.getAverageNanos() / NANOS_PER_MICRO, result.getFastestNanos() / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Returns the results of all benchmarks that were run so far.
+     * @return the results in the order the benchmarks were run
+     */
+    List<BenchmarkResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Returns the sum of the values that were computed by the benchmarks.
+     * @return the sink
+     */
+    long getSink() {
+        return sink;
+    }
+
+    /**
+     * One measured iteration of a benchmark.
+     */
+    @FunctionalInterface
+    interface Iteration {
+
+        /**
+         * Runs the iteration.
+         * @return a value that depends on the work of the iteration
+         */
+        long run();
+    }
+}
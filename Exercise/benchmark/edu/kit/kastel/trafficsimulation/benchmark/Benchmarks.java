@@ -0,0 +1,222 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.io.TextParsing;
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Benchmarks of the simulation core. They measure parsing the scenario files, initializing a street network, updating
+ * it tick by tick and getting the position of single cars, on the given scenarios and on a generated grid.
+ * Normal streets and fast track streets are compared on rings of different car densities.
+ * The results can be written to a file and compared with the results of an earlier run, so a change that makes the
+ * simulation slower is noticed.
+ * Usage: {@code Benchmarks [-warmup n] [-iterations n] [-cars n] [-out file] [-baseline file] [scenario folder ...]}.
+ * Without scenario folders, the scenarios in the folder {@value Scenarios#SHIPPED_SCENARIOS} are used.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class Benchmarks {
+
+    private static final String WARMUP_OPTION = "-warmup";
+    private static final String ITERATIONS_OPTION = "-iterations";
+    private static final String CARS_OPTION = "-cars";
+    private static final String OUT_OPTION = "-out";
+    private static final String BASELINE_OPTION = "-baseline";
+    private static final String TEMPORARY_DIRECTORY = "trafficsimulation-benchmark";
+    private static final int DEFAULT_WARMUP_ITERATIONS = 5;
+    private static final int DEFAULT_ITERATIONS = 10;
+    private static final int DEFAULT_CARS = 100000;
+    private static final int DENSITY_CARS = 10000;
+    private static final int[] DENSITIES_PERCENT = {10, 50, 90};
+    private static final int LARGE_DENSITY_PERCENT = 50;
+    private static final int ALL_PERCENT = 100;
+    private static final int TICKS_PER_ITERATION = 20;
+    private static final int LOOKUPS_PER_ITERATION = 1000;
+    private static final int ID = 0;
+    private static final long SEED = 42;
+    private static final double REGRESSION_FACTOR = 1.1;
+
+    private int warmupIterations;
+    private int iterations;
+    private int numberOfCars;
+    private Path outFile;
+    private Path baselineFile;
+    private final List<Path> scenarios;
+
+    private Benchmarks() {
+        this.warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+        this.iterations = DEFAULT_ITERATIONS;
+        this.numberOfCars = DEFAULT_CARS;
+        this.outFile = null;
+        this.baselineFile = null;
+        this.scenarios = new ArrayList<>();
+    }
+
+    /**
+     * Runs all benchmarks.
+     * @param args the options and scenario folders
+     * @throws IOException if a scenario or results file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Benchmarks benchmarks = new Benchmarks();
+        benchmarks.parseArguments(args);
+        benchmarks.run();
+    }
+
+    private void parseArguments(String[] args) throws IOException {
+        int i = 0;
+        while (i < args.length) {
+            String option = args[i];
+            if (i + 1 < args.length && option.equals(WARMUP_OPTION)) {
+                warmupIterations = Integer.parseInt(args[++i]);
+            } else if (i + 1 < args.length && option.equals(ITERATIONS_OPTION)) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (i + 1 < args.length && option.equals(CARS_OPTION)) {
+                numberOfCars = Integer.parseInt(args[++i]);
+            } else if (i + 1 < args.length && option.equals(OUT_OPTION)) {
+                outFile = Path.of(args[++i]);
+            } else if (i + 1 < args.length && option.equals(BASELINE_OPTION)) {
+                baselineFile = Path.of(args[++i]);
+            } else {
+                scenarios.add(Path.of(option));
+            }
+            i++;
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(Scenarios.listShipped());
+        }
+    }
+
+    private void run() throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, iterations);
+        Path directory = Files.createTempDirectory(TEMPORARY_DIRECTORY);
+        List<Path> allScenarios = new ArrayList<>(scenarios);
+        ScenarioGenerator grid = new ScenarioGenerator(Topology.GRID);
+        grid.setDensityPercent(LARGE_DENSITY_PERCENT);
+        grid.setNumberOfCars(numberOfCars);
+        grid.setSeed(SEED);
+        Path gridScenario = directory.resolve("grid-c" + numberOfCars);
+        grid.write(gridScenario);
+        allScenarios.add(gridScenario);
+        for (Path scenario : allScenarios) {
+            runScenario(runner, scenario);
+        }
+        for (int density : DENSITIES_PERCENT) {
+            runStreetUpdate(runner, "Street.update", writeRing(directory, density, 0));
+            runStreetUpdate(runner, "FastTrackStreet.update", writeRing(directory, density, ALL_PERCENT));
+        }
+        System.out.println("sink " + runner.getSink());
+        if (baselineFile != null) {
+            compareWithBaseline(runner.getResults());
+        }
+        if (outFile != null) {
+            List<String> lines = new ArrayList<>();
+            runner.getResults().forEach(result -> lines.add(result.toLine()));
+            Files.write(outFile, lines);
+        }
+        Scenarios.deleteDirectory(directory);
+    }
+
+    private static void runScenario(BenchmarkRunner runner, Path scenario) {
+        String folder = scenario.toString();
+        String name = scenario.getFileName().toString();
+        runParsing(runner, "TextParsing.validateStreets", folder, TextParsing::validateStreets);
+        runParsing(runner, "TextParsing.validateCrossings", folder, TextParsing::validateCrossings);
+        runParsing(runner, "TextParsing.validateCars", folder, TextParsing::validateCars);
+        runner.run("StreetNetwork.init", name, 1, () -> {
+            StreetNetwork network = new StreetNetwork();
+            network.readFiles(folder);
+            return () -> {
+                network.init();
+                return network.getNumberOfCars();
+            };
+        });
+        StreetNetwork updatedNetwork = loadNetwork(folder);
+        runner.run("StreetNetwork.update", name, TICKS_PER_ITERATION, () -> () -> update(updatedNetwork));
+        int[] carIDs = new TextParsing(folder).validateCars().stream().mapToInt(car -> car[ID]).toArray();
+        if (carIDs.length > 0) {
+            Random random = new Random(SEED);
+            runner.run("StreetNetwork.getCurrentCar", name, LOOKUPS_PER_ITERATION, () -> () -> {
+                long length = 0;
+                for (int i = 0; i < LOOKUPS_PER_ITERATION; i++) {
+                    length += updatedNetwork.getCurrentCar(carIDs[random.nextInt(carIDs.length)]).length();
+                }
+                return length;
+            });
+        }
+    }
+
+    private static void runParsing(BenchmarkRunner runner, String benchmark, String folder,
+                                   Function<TextParsing, List<int[]>> validation) {
+        runner.run(benchmark, Path.of(folder).getFileName().toString(), 1, () -> {
+            TextParsing textParsing = new TextParsing(folder);
+            return () -> validation.apply(textParsing).size();
+        });
+    }
+
+    /**
+     * Writes a ring of roundabouts whose streets are all normal streets or all fast track streets.
+     */
+    private static Path writeRing(Path directory, int densityPercent, int fastTrackPercent) throws IOException {
+        ScenarioGenerator ring = new ScenarioGenerator(Topology.RING);
+        ring.setRoundaboutPercent(ALL_PERCENT);
+        ring.setFastTrackPercent(fastTrackPercent);
+        ring.setDensityPercent(densityPercent);
+        ring.setNumberOfCars(DENSITY_CARS);
+        ring.setSeed(SEED);
+        Path scenario = directory.resolve("ring-d" + densityPercent + "-f" + fastTrackPercent);
+        ring.write(scenario);
+        return scenario;
+    }
+
+    /**
+     * Measures the updates of a ring of streets of one type. The ring has no traffic lights to wait for, so the
+     * updates of the streets take almost all of the time.
+     */
+    private static void runStreetUpdate(BenchmarkRunner runner, String benchmark, Path scenario) {
+        StreetNetwork network = loadNetwork(scenario.toString());
+        runner.run(benchmark, scenario.getFileName().toString(), TICKS_PER_ITERATION, () -> () -> update(network));
+    }
+
+    private static StreetNetwork loadNetwork(String folder) {
+        StreetNetwork network = new StreetNetwork();
+        network.readFiles(folder);
+        network.init();
+        return network;
+    }
+
+    private static long update(StreetNetwork network) {
+        for (int i = 0; i < TICKS_PER_ITERATION; i++) {
+            network.update();
+        }
+        return network.getNumberOfCars();
+    }
+
+    private void compareWithBaseline(List<BenchmarkResult> results) throws IOException {
+        Map<String, BenchmarkResult> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(baselineFile)) {
+            BenchmarkResult result = BenchmarkResult.fromLine(line);
+            if (result != null) {
+                baseline.put(result.getKey(), result);
+            }
+        }
+        for (BenchmarkResult result : results) {
+            BenchmarkResult baselineResult = baseline.get(result.getKey());
+            if (baselineResult != null) {
+                double factor = result.getAverageNanos() / baselineResult.getAverageNanos();
+                System.out.printf("%-28s %-28s %8.3fx baseline%s%n", result.getBenchmark(), result.getScenario(),
+                        factor, factor > REGRESSION_FACTOR ? " REGRESSION" : "");
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.io.TextParsing;
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.model.TickMode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checks that the parallel tick mode computes exactly the same ticks as the sequential one. Every scenario is loaded
+ * twice, simulated for the same number of ticks in both modes, and the positions of all cars are compared.
+ * The parallel streets run on the common fork join pool. It's given at least {@value MINIMUM_THREADS} threads, so the
+ * streets really run at the same time on machines with few processors too.
+ * Usage: {@code DeterminismCheck [-ticks n] [-cars n] [scenario folder ...]}, see {@link ScenarioCheck}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class DeterminismCheck extends ScenarioCheck {
+
+    private static final String TEMPORARY_DIRECTORY = "trafficsimulation-determinism";
+    private static final String PARALLELISM_PROPERTY = "java.util.concurrent.ForkJoinPool.common.parallelism";
+    private static final int MINIMUM_THREADS = 4;
+    private static final int ID = 0;
+    private static final String SEQUENTIAL = "sequential";
+    private static final String PARALLEL = "parallel";
+
+    private DeterminismCheck() {
+        super(TEMPORARY_DIRECTORY);
+    }
+
+    /**
+     * Runs the check on all scenarios.
+     * @param args the options and scenario folders
+     * @throws IOException if a scenario can't be read or generated
+     */
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty(PARALLELISM_PROPERTY) == null) {
+            int threads = Math.max(MINIMUM_THREADS, Runtime.getRuntime().availableProcessors());
+            System.setProperty(PARALLELISM_PROPERTY, String.valueOf(threads));
+        }
+        new DeterminismCheck().checkAll(args);
+    }
+
+    /**
+     * Simulates the scenario in both modes and prints whether the cars are at the same positions.
+     */
+    @Override
+    protected boolean check(String name, Path scenario, Path directory) {
+        String folder = scenario.toString();
+        int[] carIDs = new TextParsing(folder).validateCars().stream().mapToInt(car -> car[ID]).toArray();
+        List<String> sequential = simulate(folder, TickMode.SEQUENTIAL, carIDs);
+        List<String> parallel = simulate(folder, TickMode.PARALLEL, carIDs);
+        if (!compare(name, sequential, SEQUENTIAL, parallel, PARALLEL)) {
+            return false;
+        }
+        printIdentical(name, carIDs.length, "");
+        return true;
+    }
+
+    private List<String> simulate(String folder, TickMode tickMode, int[] carIDs) {
+        StreetNetwork network = new StreetNetwork();
+        network.readFiles(folder);
+        network.init();
+        network.setTickMode(tickMode);
+        network.update(getTicks());
+        if (carIDs.length == 0) {
+            return List.of();
+        }
+        return toLines(network.getCurrentCars(carIDs));
+    }
+}
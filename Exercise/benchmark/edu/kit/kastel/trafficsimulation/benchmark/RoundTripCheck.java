@@ -0,0 +1,83 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.io.Session;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Checks that a street network loaded from a network file behaves exactly like the one loaded from the text files it
+ * was converted from. Every scenario folder is converted with the {@code convert} command, and the network file and
+ * the folder are loaded in two sessions. Both are simulated for the same number of ticks and the output of
+ * {@code positions all} is compared. A scenario that can't be converted fails the check.
+ * Usage: {@code RoundTripCheck [-ticks n] [-cars n] [scenario folder ...]}, see {@link ScenarioCheck}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class RoundTripCheck extends ScenarioCheck {
+
+    private static final String TEMPORARY_DIRECTORY = "trafficsimulation-round-trip";
+    private static final String NETWORK_FILE_EXTENSION = ".net";
+    private static final String TEXT_SESSION = "text files";
+    private static final String NETWORK_FILE_SESSION = "network file";
+    private static final String CONVERT = "convert ";
+    private static final String LOAD = "load ";
+    private static final String SIMULATE = "simulate ";
+    private static final String POSITIONS = "positions all";
+    private static final String QUIT = "quit";
+    private static final String SEPARATOR = " ";
+
+    private RoundTripCheck() {
+        super(TEMPORARY_DIRECTORY);
+    }
+
+    /**
+     * Runs the check on all scenarios.
+     * @param args the options and scenario folders
+     * @throws IOException if a scenario can't be generated or the network files can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        new RoundTripCheck().checkAll(args);
+    }
+
+    /**
+     * Converts the scenario into a network file, simulates both and prints whether the cars are at the same
+     * positions.
+     */
+    @Override
+    protected boolean check(String name, Path scenario, Path directory) throws IOException {
+        Path networkFile = directory.resolve(name + NETWORK_FILE_EXTENSION);
+        Session networkFileSession = new Session(NETWORK_FILE_SESSION);
+        networkFileSession.executeCommand(CONVERT + scenario + SEPARATOR + networkFile);
+        List<String> fromNetworkFile = simulate(networkFileSession, networkFile);
+        List<String> fromText = simulate(new Session(TEXT_SESSION), scenario);
+        if (!compare(name, fromText, TEXT_SESSION, fromNetworkFile, NETWORK_FILE_SESSION)) {
+            return false;
+        }
+        printIdentical(name, fromText.size(), String.format("network file %d bytes, text files %d bytes",
+                Files.size(networkFile), getTextSize(scenario)));
+        return true;
+    }
+
+    private List<String> simulate(Session session, Path network) {
+        session.executeCommand(LOAD + network);
+        session.executeCommand(SIMULATE + getTicks());
+        String positions = session.executeCommand(POSITIONS);
+        session.executeCommand(QUIT);
+        return toLines(positions);
+    }
+
+    private static long getTextSize(Path scenario) throws IOException {
+        long size = 0;
+        try (Stream<Path> files = Files.list(scenario)) {
+            for (Path file : files.toList()) {
+                size += Files.size(file);
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,176 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The driver the checks share: a check simulates every scenario in two ways and compares the positions of all cars.
+ * The driver parses the options {@value TICKS_OPTION} and {@value CARS_OPTION} and the scenario folders, generates the
+ * scenarios into a temporary directory, runs the check on every scenario and exits with status {@value FAILED} if a
+ * scenario differs. Without scenario folders, the scenarios in the folder {@value Scenarios#SHIPPED_SCENARIOS} and
+ * one generated scenario of every topology are checked. A check only supplies its two simulations and compares them
+ * with {@link #compare(String, List, String, List, String)}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+abstract class ScenarioCheck {
+
+    private static final String TICKS_OPTION = "-ticks";
+    private static final String CARS_OPTION = "-cars";
+    private static final int DEFAULT_TICKS = 500;
+    private static final int DEFAULT_CARS = 20000;
+    private static final int FAILED = 1;
+
+    private final String temporaryDirectory;
+    private int ticks;
+    private int numberOfCars;
+    private final List<Path> scenarios;
+
+    /**
+     * Creates a check with the default options.
+     * @param temporaryDirectory the prefix of the name of the temporary directory of the check
+     */
+    protected ScenarioCheck(String temporaryDirectory) {
+        this.temporaryDirectory = temporaryDirectory;
+        this.ticks = DEFAULT_TICKS;
+        this.numberOfCars = DEFAULT_CARS;
+        this.scenarios = new ArrayList<>();
+    }
+
+    /**
+     * Parses the arguments, runs the check on all scenarios and exits with status {@value FAILED} if a scenario
+     * differs.
+     * @param args the options and scenario folders
+     * @throws IOException if a scenario can't be generated or the check can't write its files
+     */
+    protected final void checkAll(String[] args) throws IOException {
+        parseArguments(args);
+        if (!run()) {
+            System.exit(FAILED);
+        }
+    }
+
+    /**
+     * Parses an option of the check besides {@value TICKS_OPTION} and {@value CARS_OPTION}. By default a check has
+     * no other options.
+     * @param option the option
+     * @param value the argument after the option
+     * @return true if the option belongs to the check, otherwise false and the option is taken as a scenario folder
+     */
+    protected boolean parseOption(String option, String value) {
+        return false;
+    }
+
+    /**
+     * Simulates the scenario in the two ways of the check and compares the positions of the cars.
+     * @param name the name of the scenario
+     * @param scenario the scenario folder
+     * @param directory the temporary directory the check can write files to
+     * @return true if both simulations are identical, otherwise false
+     * @throws IOException if the check can't write or read its files
+     */
+    protected abstract boolean check(String name, Path scenario, Path directory) throws IOException;
+
+    /**
+     * Returns the number of ticks the scenarios are simulated.
+     * @return the number of ticks
+     */
+    protected int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Compares the positions of the cars of two simulations line by line and prints the first difference.
+     * @param name the name of the scenario
+     * @param expected the positions of the first simulation
+     * @param expectedName the name of the first simulation
+     * @param actual the positions of the second simulation
+     * @param actualName the name of the second simulation
+     * @return true if the positions are identical, otherwise false
+     */
+    protected boolean compare(String name, List<String> expected, String expectedName, List<String> actual,
+                              String actualName) {
+        for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+            String expectedLine = i < expected.size() ? expected.get(i) : null;
+            String actualLine = i < actual.size() ? actual.get(i) : null;
+            if (expectedLine == null || !expectedLine.equals(actualLine)) {
+                System.out.printf("%-28s DIFFERENT after %d ticks: %s %s, %s %s%n", name, ticks, expectedLine,
+                        expectedName, actualLine, actualName);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints that a scenario is identical.
+     * @param name the name of the scenario
+     * @param numberOfCars the number of cars of the scenario
+     * @param details what else the check tells about the scenario, empty if nothing
+     */
+    protected void printIdentical(String name, int numberOfCars, String details) {
+        System.out.printf("%-28s identical after %d ticks, %d cars%s%n", name, ticks, numberOfCars,
+                details.isEmpty() ? details : ", " + details);
+    }
+
+    /**
+     * Splits the output of the {@code positions} command into its lines.
+     * @param positions the positions of the cars, one car per line
+     * @return the lines, empty if there are no cars
+     */
+    protected static List<String> toLines(String positions) {
+        return positions.isBlank() ? List.of() : List.of(positions.strip().split(System.lineSeparator()));
+    }
+
+    private void parseArguments(String[] args) {
+        int i = 0;
+        while (i < args.length) {
+            String option = args[i];
+            if (i + 1 < args.length && option.equals(TICKS_OPTION)) {
+                ticks = Integer.parseInt(args[++i]);
+            } else if (i + 1 < args.length && option.equals(CARS_OPTION)) {
+                numberOfCars = Integer.parseInt(args[++i]);
+            } else if (i + 1 < args.length && parseOption(option, args[i + 1])) {
+                i++;
+            } else {
+                scenarios.add(Path.of(option));
+            }
+            i++;
+        }
+    }
+
+    private boolean run() throws IOException {
+        Path directory = Files.createTempDirectory(temporaryDirectory);
+        List<Path> allScenarios = new ArrayList<>(scenarios);
+        if (scenarios.isEmpty()) {
+            allScenarios.addAll(Scenarios.listShipped());
+            allScenarios.addAll(Scenarios.generate(directory, numberOfCars));
+        }
+        boolean identical = true;
+        for (Path scenario : allScenarios) {
+            identical &= checkScenario(scenario, directory);
+        }
+        Scenarios.deleteDirectory(directory);
+        System.out.println(identical ? "All scenarios are identical" : "Some scenarios differ");
+        return identical;
+    }
+
+    /**
+     * Runs the check on one scenario. A scenario that can't be loaded fails the check.
+     */
+    private boolean checkScenario(Path scenario, Path directory) throws IOException {
+        String name = scenario.getFileName().toString();
+        try {
+            return check(name, scenario, directory);
+        } catch (SimulationException exception) {
+            System.out.printf("%-28s FAILED: %s%n", name, exception.getMessage());
+            return false;
+        }
+    }
+}
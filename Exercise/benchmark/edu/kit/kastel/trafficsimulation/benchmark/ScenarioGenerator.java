@@ -0,0 +1,455 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates valid scenarios of any size for benchmarks and soak tests. A scenario is a folder with the files
+ * {@value SimulationFileLoader#FILENAME_STREETS}, {@value SimulationFileLoader#FILENAME_CROSSINGS} and
+ * {@value SimulationFileLoader#FILENAME_CARS} in the format of the simulation. The shape of the network is one of the
+ * {@link Topology topologies}; the share of roundabouts, the share of fast track streets and the share of the places
+ * on the streets that are taken by cars can be chosen. The same settings and seed always generate the same scenario.
+ * Every value is within the limits of the simulation files, every node has between one and four incoming and
+ * outgoing streets and no street has more cars than fit on it, so the simulation loads every generated scenario.
+ * Usage: {@code ScenarioGenerator [-topology name] [-nodes n | -cars n] [-roundabouts percent]
+ * [-fasttracks percent] [-density percent] [-length meters] [-seed n] folder}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class ScenarioGenerator {
+
+    private static final int MINIMUM_LENGTH = 10;
+    private static final int MAXIMUM_LENGTH = 10000;
+    private static final int MINIMUM_SPEED_LIMIT = 5;
+    private static final int MAXIMUM_SPEED_LIMIT = 40;
+    private static final int MINIMUM_CAR_SPEED = 20;
+    private static final int MAXIMUM_CAR_SPEED = 40;
+    private static final int MINIMUM_ACCELERATION = 1;
+    private static final int MAXIMUM_ACCELERATION = 10;
+    private static final int MINIMUM_GREEN_TIME = 3;
+    private static final int MAXIMUM_GREEN_TIME = 10;
+    private static final int ROUNDABOUT = 0;
+    private static final int NORMAL_STREET = 1;
+    private static final int FAST_TRACK_STREET = 2;
+    private static final int CAR_DISTANCE = 10;
+    private static final int MAXIMUM_CONNECTIONS = 4;
+    private static final int STAR_ARMS = 4;
+    private static final int MINIMUM_RING_NODES = 3;
+    private static final int MINIMUM_GRID_SIDE = 2;
+    private static final double MINIMUM_LENGTH_FACTOR = 0.5;
+    private static final double LENGTH_FACTOR_RANGE = 1.0;
+    private static final double PLANAR_JITTER = 0.3;
+    private static final double PLANAR_EXTRA_CONNECTION = 0.5;
+    private static final double PLANAR_DIAGONAL = 0.3;
+    private static final int PERCENT = 100;
+    private static final int DEFAULT_NODES = 100;
+    private static final int DEFAULT_ROUNDABOUT_PERCENT = 30;
+    private static final int DEFAULT_FAST_TRACK_PERCENT = 30;
+    private static final int DEFAULT_DENSITY_PERCENT = 30;
+    private static final int DEFAULT_STREET_LENGTH = 200;
+    private static final long DEFAULT_SEED = 1;
+    private static final String TOPOLOGY_OPTION = "-topology";
+    private static final String NODES_OPTION = "-nodes";
+    private static final String CARS_OPTION = "-cars";
+    private static final String ROUNDABOUTS_OPTION = "-roundabouts";
+    private static final String FAST_TRACKS_OPTION = "-fasttracks";
+    private static final String DENSITY_OPTION = "-density";
+    private static final String LENGTH_OPTION = "-length";
+    private static final String SEED_OPTION = "-seed";
+    private static final String USAGE = "Usage: ScenarioGenerator [-topology grid|star|ring|random-planar] "
+            + "[-nodes n | -cars n] [-roundabouts percent] [-fasttracks percent] [-density percent] "
+            + "[-length meters] [-seed n] folder";
+
+    private final Topology topology;
+    private int numberOfNodes;
+    private int roundaboutPercent;
+    private int fastTrackPercent;
+    private int densityPercent;
+    private int streetLength;
+    private long seed;
+    private double[][] positions;
+    private int[] connections;
+    private List<int[]> connectedNodes;
+    private Random random;
+
+    /**
+     * Creates a new generator for the given topology with the default settings.
+     * @param topology the shape of the generated networks
+     */
+    ScenarioGenerator(Topology topology) {
+        this.topology = topology;
+        this.numberOfNodes = DEFAULT_NODES;
+        this.roundaboutPercent = DEFAULT_ROUNDABOUT_PERCENT;
+        this.fastTrackPercent = DEFAULT_FAST_TRACK_PERCENT;
+        this.densityPercent = DEFAULT_DENSITY_PERCENT;
+        this.streetLength = DEFAULT_STREET_LENGTH;
+        this.seed = DEFAULT_SEED;
+    }
+
+    /**
+     * Generates a scenario with the options that are given as arguments into the folder that is given as last
+     * argument.
+     * @param args the options and the folder
+     * @throws IOException if the files can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        try {
+            ScenarioGenerator generator = fromArguments(args);
+            Path folder = Path.of(args[args.length - 1]);
+            long cars = generator.write(folder);
+            System.out.println("Wrote " + generator.numberOfNodes + " nodes, " + 2 * generator.connectedNodes.size()
+                    + " streets and " + cars + " cars to " + folder);
+        } catch (IllegalArgumentException exception) {
+            System.err.println("Error, " + exception.getMessage());
+            System.err.println(USAGE);
+        }
+    }
+
+    private static ScenarioGenerator fromArguments(String[] args) {
+        if (args.length == 0 || args.length % 2 == 0) {
+            throw new IllegalArgumentException("expected options in pairs followed by a folder.");
+        }
+        Topology topology = Topology.GRID;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            if (args[i].equals(TOPOLOGY_OPTION)) {
+                topology = Topology.fromName(args[i + 1]);
+            }
+        }
+        ScenarioGenerator generator = new ScenarioGenerator(topology);
+        int numberOfCars = 0;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            String option = args[i];
+            String value = args[i + 1];
+            if (option.equals(NODES_OPTION)) {
+                generator.setNumberOfNodes(Integer.parseInt(value));
+            } else if (option.equals(CARS_OPTION)) {
+                numberOfCars = Integer.parseInt(value);
+            } else if (option.equals(ROUNDABOUTS_OPTION)) {
+                generator.setRoundaboutPercent(Integer.parseInt(value));
+            } else if (option.equals(FAST_TRACKS_OPTION)) {
+                generator.setFastTrackPercent(Integer.parseInt(value));
+            } else if (option.equals(DENSITY_OPTION)) {
+                generator.setDensityPercent(Integer.parseInt(value));
+            } else if (option.equals(LENGTH_OPTION)) {
+                generator.setStreetLength(Integer.parseInt(value));
+            } else if (option.equals(SEED_OPTION)) {
+                generator.setSeed(Long.parseLong(value));
+            } else if (!option.equals(TOPOLOGY_OPTION)) {
+                throw new IllegalArgumentException("unknown option " + option + ".");
+            }
+        }
+        if (numberOfCars > 0) {
+            generator.setNumberOfCars(numberOfCars);
+        }
+        return generator;
+    }
+
+    /**
+     * Sets the number of nodes. Grids, stars and rings are rounded to the next complete shape.
+     * @param numberOfNodes the number of nodes, at least one
+     */
+    void setNumberOfNodes(int numberOfNodes) {
+        if (numberOfNodes < 1) {
+            throw new IllegalArgumentException("the number of nodes must be positive.");
+        }
+        this.numberOfNodes = numberOfNodes;
+    }
+
+    /**
+     * Sets the number of nodes so the scenario has about the given number of cars with the current density and
+     * street length. Change them before calling this method.
+     * @param numberOfCars the number of cars
+     */
+    void setNumberOfCars(int numberOfCars) {
+        double carsPerStreet = Math.max(1.0, (double) getPlaces(streetLength) * densityPercent / PERCENT);
+        setNumberOfNodes(Math.max(1, (int) (numberOfCars / carsPerStreet / topology.getStreetsPerNode())));
+    }
+
+    /**
+     * Sets the share of the nodes that are roundabouts, all other nodes are intersections with traffic lights.
+     * @param roundaboutPercent the share of roundabouts in percent
+     */
+    void setRoundaboutPercent(int roundaboutPercent) {
+        this.roundaboutPercent = checkPercent(roundaboutPercent);
+    }
+
+    /**
+     * Sets the share of the streets that are fast track streets.
+     * @param fastTrackPercent the share of fast track streets in percent
+     */
+    void setFastTrackPercent(int fastTrackPercent) {
+        this.fastTrackPercent = checkPercent(fastTrackPercent);
+    }
+
+    /**
+     * Sets the share of the places on every street that are taken by cars. A place is the save distance of a car.
+     * @param densityPercent the share of taken places in percent
+     */
+    void setDensityPercent(int densityPercent) {
+        this.densityPercent = checkPercent(densityPercent);
+    }
+
+    /**
+     * Sets the average length of the streets. The streets are between half and one and a half times as long, longer
+     * in the random planar topology when the nodes are further apart.
+     * @param streetLength the average length of the streets in meters
+     */
+    void setStreetLength(int streetLength) {
+        if (streetLength < MINIMUM_LENGTH || streetLength > MAXIMUM_LENGTH) {
+            throw new IllegalArgumentException("the street length must be between " + MINIMUM_LENGTH + " and "
+                    + MAXIMUM_LENGTH + ".");
+        }
+        this.streetLength = streetLength;
+    }
+
+    /**
+     * Sets the seed of all random decisions.
+     * @param seed the seed
+     */
+    void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the scenario and writes its files into the given folder, which is created if necessary. The files
+     * are written line by line, so scenarios with millions of cars don't have to fit into memory as text.
+     * @param folder the folder of the scenario
+     * @return the number of generated cars
+     * @throws IOException if the files can't be written
+     */
+    long write(Path folder) throws IOException {
+        random = new Random(seed);
+        generateNetwork();
+        Files.createDirectories(folder);
+        try (BufferedWriter writer = Files.newBufferedWriter(folder.resolve(SimulationFileLoader.FILENAME_CROSSINGS))) {
+            writeCrossings(writer);
+        }
+        List<Integer> lengths = new ArrayList<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(folder.resolve(SimulationFileLoader.FILENAME_STREETS))) {
+            writeStreets(writer, lengths);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(folder.resolve(SimulationFileLoader.FILENAME_CARS))) {
+            return writeCars(writer, lengths);
+        }
+    }
+
+    private void generateNetwork() {
+        connectedNodes = new ArrayList<>();
+        if (topology == Topology.RING) {
+            generateRing();
+        } else if (topology == Topology.STAR) {
+            generateStar();
+        } else {
+            generateGrid();
+        }
+    }
+
+    private void generateRing() {
+        numberOfNodes = Math.max(numberOfNodes, MINIMUM_RING_NODES);
+        initNodes();
+        double radius = numberOfNodes / (2 * Math.PI);
+        for (int i = 0; i < numberOfNodes; i++) {
+            double angle = 2 * Math.PI * i / numberOfNodes;
+            positions[i] = new double[] {radius * Math.cos(angle), radius * Math.sin(angle)};
+            connect(i, (i + 1) % numberOfNodes);
+        }
+    }
+
+    private void generateStar() {
+        int armLength = Math.max(1, (numberOfNodes - 1) / STAR_ARMS);
+        numberOfNodes = 1 + STAR_ARMS * armLength;
+        initNodes();
+        positions[0] = new double[] {0, 0};
+        int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+        for (int arm = 0; arm < STAR_ARMS; arm++) {
+            int previous = 0;
+            for (int k = 1; k <= armLength; k++) {
+                int node = 1 + arm * armLength + k - 1;
+                positions[node] = new double[] {directions[arm][0] * k, directions[arm][1] * k};
+                connect(previous, node);
+                previous = node;
+            }
+        }
+    }
+
+    /**
+     * Generates a grid, or a random planar network on the points of a grid. The random planar network starts with a
+     * random spanning tree of the grid, so every node is connected.
+     */
+    private void generateGrid() {
+        int width = Math.max(MINIMUM_GRID_SIDE, (int) Math.round(Math.sqrt(numberOfNodes)));
+        int height = Math.max(MINIMUM_GRID_SIDE, (numberOfNodes + width - 1) / width);
+        numberOfNodes = width * height;
+        initNodes();
+        boolean planar = topology == Topology.RANDOM_PLANAR;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double jitterX = planar ? (random.nextDouble() * 2 - 1) * PLANAR_JITTER : 0;
+                double jitterY = planar ? (random.nextDouble() * 2 - 1) * PLANAR_JITTER : 0;
+                positions[y * width + x] = new double[] {x + jitterX, y + jitterY};
+            }
+        }
+        List<int[]> gridConnections = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x + 1 < width) {
+                    gridConnections.add(new int[] {y * width + x, y * width + x + 1});
+                }
+                if (y + 1 < height) {
+                    gridConnections.add(new int[] {y * width + x, (y + 1) * width + x});
+                }
+            }
+        }
+        if (!planar) {
+            gridConnections.forEach(pair -> connect(pair[0], pair[1]));
+            return;
+        }
+        Collections.shuffle(gridConnections, random);
+        int[] components = new int[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            components[i] = i;
+        }
+        List<int[]> extraConnections = new ArrayList<>();
+        for (int[] pair : gridConnections) {
+            int first = findComponent(components, pair[0]);
+            int second = findComponent(components, pair[1]);
+            if (first != second) {
+                components[first] = second;
+                connect(pair[0], pair[1]);
+            } else {
+                extraConnections.add(pair);
+            }
+        }
+        for (int[] pair : extraConnections) {
+            if (random.nextDouble() < PLANAR_EXTRA_CONNECTION) {
+                connectIfPossible(pair[0], pair[1]);
+            }
+        }
+        for (int y = 0; y + 1 < height; y++) {
+            for (int x = 0; x + 1 < width; x++) {
+                if (random.nextDouble() < PLANAR_DIAGONAL) {
+                    if (random.nextBoolean()) {
+                        connectIfPossible(y * width + x, (y + 1) * width + x + 1);
+                    } else {
+                        connectIfPossible(y * width + x + 1, (y + 1) * width + x);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int findComponent(int[] components, int node) {
+        int root = node;
+        while (components[root] != root) {
+            root = components[root];
+        }
+        int current = node;
+        while (components[current] != root) {
+            int next = components[current];
+            components[current] = root;
+            current = next;
+        }
+        return root;
+    }
+
+    private void initNodes() {
+        positions = new double[numberOfNodes][];
+        connections = new int[numberOfNodes];
+    }
+
+    private void connect(int first, int second) {
+        connectedNodes.add(new int[] {first, second});
+        connections[first]++;
+        connections[second]++;
+    }
+
+    private void connectIfPossible(int first, int second) {
+        if (connections[first] < MAXIMUM_CONNECTIONS && connections[second] < MAXIMUM_CONNECTIONS) {
+            connect(first, second);
+        }
+    }
+
+    private void writeCrossings(BufferedWriter writer) throws IOException {
+        for (int i = 0; i < numberOfNodes; i++) {
+            int greenTime = ROUNDABOUT;
+            if (random.nextInt(PERCENT) >= roundaboutPercent) {
+                greenTime = randomBetween(MINIMUM_GREEN_TIME, MAXIMUM_GREEN_TIME);
+            }
+            writer.write(i + ":" + greenTime + "t");
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Writes a street in both directions for every pair of connected nodes. Both streets have the same length.
+     */
+    private void writeStreets(BufferedWriter writer, List<Integer> lengths) throws IOException {
+        for (int[] pair : connectedNodes) {
+            double[] first = positions[pair[0]];
+            double[] second = positions[pair[1]];
+            double distance = Math.hypot(first[0] - second[0], first[1] - second[1]);
+            double factor = MINIMUM_LENGTH_FACTOR + random.nextDouble() * LENGTH_FACTOR_RANGE;
+            int length = (int) Math.round(distance * streetLength * factor);
+            length = Math.min(Math.max(length, MINIMUM_LENGTH), MAXIMUM_LENGTH);
+            writeStreet(writer, pair[0], pair[1], length);
+            writeStreet(writer, pair[1], pair[0], length);
+            lengths.add(length);
+            lengths.add(length);
+        }
+    }
+
+    private void writeStreet(BufferedWriter writer, int startNode, int endNode, int length) throws IOException {
+        int type = random.nextInt(PERCENT) < fastTrackPercent ? FAST_TRACK_STREET : NORMAL_STREET;
+        int speedLimit = randomBetween(MINIMUM_SPEED_LIMIT, MAXIMUM_SPEED_LIMIT);
+        writer.write(startNode + "-->" + endNode + ":" + length + "m," + type + "x," + speedLimit + "max");
+        writer.newLine();
+    }
+
+    /**
+     * Writes the cars of every street. The expected number of cars on a street is its number of places times the
+     * density, the fraction is rounded randomly.
+     */
+    private long writeCars(BufferedWriter writer, List<Integer> lengths) throws IOException {
+        long carID = 0;
+        for (int street = 0; street < lengths.size(); street++) {
+            int places = getPlaces(lengths.get(street));
+            double expectedCars = (double) places * densityPercent / PERCENT;
+            int cars = (int) expectedCars;
+            if (random.nextDouble() < expectedCars - cars) {
+                cars++;
+            }
+            for (int i = 0; i < Math.min(cars, places); i++) {
+                int speed = randomBetween(MINIMUM_CAR_SPEED, MAXIMUM_CAR_SPEED);
+                int acceleration = randomBetween(MINIMUM_ACCELERATION, MAXIMUM_ACCELERATION);
+                writer.write(carID + "," + street + "," + speed + "," + acceleration);
+                writer.newLine();
+                carID++;
+            }
+        }
+        return carID;
+    }
+
+    private static int getPlaces(int length) {
+        return length / CAR_DISTANCE + 1;
+    }
+
+    private int randomBetween(int minimum, int maximum) {
+        return minimum + random.nextInt(maximum - minimum + 1);
+    }
+
+    private static int checkPercent(int percent) {
+        if (percent < 0 || percent > PERCENT) {
+            throw new IllegalArgumentException("a share must be between 0 and " + PERCENT + " percent.");
+        }
+        return percent;
+    }
+}
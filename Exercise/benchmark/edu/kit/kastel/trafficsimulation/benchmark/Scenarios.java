@@ -0,0 +1,84 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.io.ExceptionMessages;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * The scenario folders the checks run on: the shipped scenarios and one generated scenario of every {@link Topology}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class Scenarios {
+
+    /**
+     * The folder of the shipped scenarios, relative to the {@code Exercise} folder.
+     */
+    static final String SHIPPED_SCENARIOS = "files";
+
+    private static final long SEED = 42;
+
+    private Scenarios() {
+        throw new IllegalStateException(ExceptionMessages.UTILITY_CLASS_INSTANTIATION.format());
+    }
+
+    /**
+     * Returns the scenario folders in the folder of the shipped scenarios, sorted by their names.
+     * @return the shipped scenario folders
+     * @throws IOException if the folder can't be listed
+     */
+    static List<Path> listShipped() throws IOException {
+        List<Path> scenarios = new ArrayList<>();
+        try (Stream<Path> folders = Files.list(Path.of(SHIPPED_SCENARIOS))) {
+            folders.filter(Files::isDirectory).sorted().forEach(scenarios::add);
+        }
+        return scenarios;
+    }
+
+    /**
+     * Generates one scenario of every topology with the given number of cars into the given directory. The
+     * scenarios are always the same for the same number of cars.
+     * @param directory the directory to write the scenario folders to
+     * @param numberOfCars the number of cars of every scenario, roughly
+     * @return the generated scenario folders
+     * @throws IOException if a scenario can't be written
+     */
+    static List<Path> generate(Path directory, int numberOfCars) throws IOException {
+        List<Path> scenarios = new ArrayList<>();
+        for (Topology topology : Topology.values()) {
+            ScenarioGenerator generator = new ScenarioGenerator(topology);
+            generator.setNumberOfCars(numberOfCars);
+            generator.setSeed(SEED);
+            String name = topology.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            Path scenario = directory.resolve(name + "-c" + numberOfCars);
+            generator.write(scenario);
+            scenarios.add(scenario);
+        }
+        return scenarios;
+    }
+
+    /**
+     * Deletes the given directory with all its content.
+     * @param directory the directory to delete
+     * @throws IOException if the directory can't be listed
+     */
+    static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+    }
+}
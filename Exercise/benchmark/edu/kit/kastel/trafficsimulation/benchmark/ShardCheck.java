@@ -0,0 +1,86 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import edu.kit.kastel.trafficsimulation.io.ShardRunner;
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.model.TickMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checks that a street network split into shards by the {@link ShardRunner} computes the same ticks as one network in
+ * one process. The shards always compute the ticks in two phases, so the network in one process runs in the two phase
+ * tick mode; the sequential mode gives different results by design. Every scenario is run by the shard runner with
+ * every number of shards from one to the given number and simulated in one process, and the positions of all cars are
+ * compared.
+ * Usage: {@code ShardCheck [-ticks n] [-cars n] [-shards n] [scenario folder ...]}, see {@link ScenarioCheck}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class ShardCheck extends ScenarioCheck {
+
+    private static final String SHARDS_OPTION = "-shards";
+    private static final String TEMPORARY_DIRECTORY = "trafficsimulation-shards";
+    private static final String OUTPUT_FILE = "positions.txt";
+    private static final String TWO_PHASE = "two phase";
+    private static final String SHARDS = " shards";
+    private static final int DEFAULT_SHARDS = 4;
+
+    private int maximumShards;
+
+    private ShardCheck() {
+        super(TEMPORARY_DIRECTORY);
+        this.maximumShards = DEFAULT_SHARDS;
+    }
+
+    /**
+     * Runs the check on all scenarios.
+     * @param args the options and scenario folders
+     * @throws IOException if a scenario can't be generated or the positions of the shards can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        new ShardCheck().checkAll(args);
+    }
+
+    @Override
+    protected boolean parseOption(String option, String value) {
+        if (!option.equals(SHARDS_OPTION)) {
+            return false;
+        }
+        maximumShards = Integer.parseInt(value);
+        return true;
+    }
+
+    /**
+     * Simulates the scenario in one process in the two phase tick mode and with every number of shards and prints
+     * whether the cars are at the same positions.
+     */
+    @Override
+    protected boolean check(String name, Path scenario, Path directory) throws IOException {
+        Path outputFile = directory.resolve(OUTPUT_FILE);
+        List<String> twoPhase = simulate(scenario.toString());
+        for (int shards = 1; shards <= maximumShards; shards++) {
+            Files.deleteIfExists(outputFile);
+            ShardRunner.main(new String[] {SHARDS_OPTION, String.valueOf(shards), scenario.toString(),
+                String.valueOf(getTicks()), outputFile.toString()});
+            List<String> sharded = Files.exists(outputFile) ? toLines(Files.readString(outputFile)) : List.of();
+            if (!compare(name, twoPhase, TWO_PHASE, sharded, shards + SHARDS)) {
+                return false;
+            }
+        }
+        printIdentical(name, twoPhase.size(), String.format("1 to %d shards", maximumShards));
+        return true;
+    }
+
+    private List<String> simulate(String folder) {
+        StreetNetwork network = new StreetNetwork();
+        network.readFiles(folder);
+        network.init();
+        network.setTickMode(TickMode.TWO_PHASE);
+        network.update(getTicks());
+        return toLines(network.getAllCurrentCars());
+    }
+}
@@ -0,0 +1,56 @@
+package edu.kit.kastel.trafficsimulation.benchmark;
+
+import java.util.Locale;
+
+/**
+ * The shapes of the street networks that the {@link ScenarioGenerator} can generate. Every connection between two
+ * nodes is a pair of streets in both directions, and no node has more than four connections, so every node has as
+ * many incoming as outgoing streets and at most four of each.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+enum Topology {
+    /**
+     * The nodes form a rectangular grid, every node is connected to its neighbors to the left, right, top and bottom.
+     */
+    GRID(4),
+    /**
+     * A center node with four arms, every arm is a chain of nodes.
+     */
+    STAR(2),
+    /**
+     * The nodes form a ring, every node is connected to the previous and the next one.
+     */
+    RING(2),
+    /**
+     * The nodes are randomly moved points of a grid. They are connected by a random spanning tree of the grid,
+     * random further grid connections and random diagonals of the grid cells, at most one per cell, so no two streets
+     * cross each other.
+     */
+    RANDOM_PLANAR(3);
+
+    private final int streetsPerNode;
+
+    Topology(int streetsPerNode) {
+        this.streetsPerNode = streetsPerNode;
+    }
+
+    /**
+     * Returns the average number of outgoing streets of a node, roughly.
+     * @return the number of streets per node
+     */
+    int getStreetsPerNode() {
+        return streetsPerNode;
+    }
+
+    /**
+     * Returns the topology with the given name, like {@code grid} or {@code random-planar}.
+     * @param name the name of the topology
+     * @return the topology
+     * @throws IllegalArgumentException if there's no topology with the name
+     */
+    static Topology fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,158 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entry point that runs scripts of commands without a user. It executes the commands of a script line by line
+ * like the {@link Shell} and writes their output to a file, which has the same content as the console output of the
+ * shell. The script is read and the output is written through large buffers, so scripts with millions of commands
+ * aren't slowed down by flushing the output after every line. A script ends with the {@code quit} command or at the
+ * end of the file.
+ * Several scripts, usually one per scenario folder, run at the same time on a pool of worker threads. Every script
+ * has its own {@link Session}, so the scripts don't affect each other. The errors of a single script are printed to
+ * the error output like in the shell; with several scripts the errors of every script are written next to its output
+ * file, with the extension {@value ERROR_EXTENSION} appended.
+ * Usage: {@code BatchRunner [-threads n] <script file> <output file> [<script file> <output file> ...]}, by default
+ * there's one thread per processor.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class BatchRunner {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int ERROR_BUFFER_SIZE = 1 << 13;
+    private static final String THREADS_OPTION = "-threads";
+    private static final String ERROR_EXTENSION = ".err";
+    private static final int FILES_PER_SCRIPT = 2;
+    private static final String SESSION_SEPARATOR = "#";
+    /**
+     * the number of sessions started so far, it makes the names of sessions of the same script unique
+     */
+    private static final AtomicInteger SESSIONS = new AtomicInteger();
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private BatchRunner() {
+        throw new IllegalStateException(ExceptionMessages.UTILITY_CLASS_INSTANTIATION.format());
+    }
+
+    /**
+     * Entry point to the batch runner.
+     * @param args the number of threads, if given, and pairs of a script file and an output file
+     */
+    public static void main(String[] args) {
+        try {
+            int threads = RunnerSupport.parseOption(args, THREADS_OPTION, ExceptionMessages.BATCH_USAGE);
+            int first = RunnerSupport.skipOption(args, THREADS_OPTION);
+            int files = args.length - first;
+            if (files == 0 || files % FILES_PER_SCRIPT != 0) {
+                throw new SimulationException(ExceptionMessages.BATCH_USAGE.format());
+            }
+            if (files == FILES_PER_SCRIPT) {
+                run(args[first], args[first + 1], System.err);
+            } else {
+                runAll(args, first, threads);
+            }
+        } catch (SimulationException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    /**
+     * Executes the commands of the given script in a new session and writes their output to the given file. The
+     * session is named after the script and the number of the run, and its statistics are unpublished at the end.
+     * @param scriptPath the path of the script with one command per line
+     * @param outputPath the path of the output file, it's created or replaced
+     * @param errors the output the error messages of the commands are printed to
+     * @throws SimulationException if the script can't be read or the output file can't be written
+     */
+    public static void run(String scriptPath, String outputPath, PrintStream errors) {
+        Session session = new Session(scriptPath + SESSION_SEPARATOR + SESSIONS.incrementAndGet());
+        Charset charset = Charset.defaultCharset();
+        try (BufferedReader reader = openScript(scriptPath, charset);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     Files.newOutputStream(RunnerSupport.toPath(outputPath)), charset), BUFFER_SIZE)) {
+            String input = readLine(reader, scriptPath);
+            while (input != null && session.isRunning()) {
+                execute(session, input, writer, errors);
+                input = session.isRunning() ? readLine(reader, scriptPath) : null;
+            }
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(outputPath));
+        } finally {
+            session.closeEventWriter();
+            StatisticsBean.unregister(session);
+        }
+    }
+
+    /**
+     * Runs the scripts of the given pairs of script and output files on a pool of the given number of threads and
+     * waits until all of them are finished. A script that can't be run doesn't stop the others.
+     */
+    private static void runAll(String[] args, int first, int threads) {
+        List<Runnable> scripts = new ArrayList<>();
+        for (int i = first; i < args.length; i += FILES_PER_SCRIPT) {
+            String scriptPath = args[i];
+            String outputPath = args[i + 1];
+            scripts.add(() -> runWithErrorFile(scriptPath, outputPath));
+        }
+        RunnerSupport.runAll(scripts, threads);
+    }
+
+    private static void runWithErrorFile(String scriptPath, String outputPath) {
+        String errorPath = outputPath + ERROR_EXTENSION;
+        try (PrintStream errors = new PrintStream(new BufferedOutputStream(Files.newOutputStream(
+                RunnerSupport.toPath(errorPath)), ERROR_BUFFER_SIZE), false, Charset.defaultCharset())) {
+            run(scriptPath, outputPath, errors);
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(errorPath));
+        }
+    }
+
+    private static BufferedReader openScript(String scriptPath, Charset charset) {
+        try {
+            return new BufferedReader(new InputStreamReader(Files.newInputStream(RunnerSupport.toPath(scriptPath)),
+                    charset), BUFFER_SIZE);
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(scriptPath));
+        }
+    }
+
+    private static String readLine(BufferedReader reader, String scriptPath) {
+        try {
+            return reader.readLine();
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(scriptPath));
+        }
+    }
+
+    private static void execute(Session session, String input, Writer writer, PrintStream errors)
+            throws IOException {
+        try {
+            final String output = session.executeCommand(input);
+            if (output != null) {
+                writer.write(output);
+                writer.write(System.lineSeparator());
+            }
+        } catch (final SimulationException exception) {
+            errors.println(exception.getMessage());
+        }
+    }
+
+}
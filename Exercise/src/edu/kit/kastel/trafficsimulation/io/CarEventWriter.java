@@ -0,0 +1,301 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.model.CarEvent;
+import edu.kit.kastel.trafficsimulation.model.CarEventSink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the changes of the cars as binary records to a file or a named pipe.
+ * Every thread that reports events collects its records in its own batch of a fixed size, so the threads of the
+ * parallel tick modes never wait for each other. A full batch, and the last batches of a tick while the file keeps
+ * up, is handed to a background thread that writes it, so the simulation never waits for the file. There's only a
+ * fixed number of batches: if all of them wait to be written because the consumer of a pipe is too slow, new records
+ * are dropped and counted instead.
+ * A regular file is opened right away. Opening a named pipe waits until the pipe is opened for reading, so a pipe is
+ * opened by the background thread and the records are collected meanwhile.
+ * All values are big-endian. The file starts with the magic number {@value MAGIC_NUMBER} and the version
+ * {@value VERSION} of the format. Every record has {@value RECORD_BYTES} bytes: the tick as long, the ordinal of the
+ * {@link CarEvent}, the ID of the car, the ID of its street, its position and its speed as ints.
+ * In the parallel tick modes the records of one tick are in no particular order.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class CarEventWriter implements CarEventSink, AutoCloseable {
+
+    /**
+     * The first int of every event file.
+     */
+    public static final int MAGIC_NUMBER = 0x54524556;
+
+    /**
+     * The version of the format that is written.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The number of bytes of a record.
+     */
+    public static final int RECORD_BYTES = Long.BYTES + CarEventWriter.RECORD_INTS * Integer.BYTES;
+
+    private static final int RECORD_INTS = 5;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int BATCH_RECORDS = 4096;
+    /**
+     * the number of batches that can wait to be written, every thread can hold one more batch it collects records in
+     */
+    private static final int NUMBER_OF_BATCHES = 16;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final String THREAD_NAME = "car-event-writer";
+    /**
+     * The batch that tells the background thread that no more batches follow.
+     */
+    private static final ByteBuffer END_OF_EVENTS = ByteBuffer.allocate(0);
+
+    private final String filePath;
+    private final BlockingQueue<ByteBuffer> freeBatches;
+    private final BlockingQueue<ByteBuffer> fullBatches;
+    /**
+     * the batches of the threads that reported events, so they can be handed off at the end of a tick
+     */
+    private final List<ThreadBatch> threadBatches;
+    private final ThreadLocal<ThreadBatch> threadBatch;
+    private final Thread thread;
+    private final AtomicLong writtenRecords;
+    private final AtomicLong droppedRecords;
+    /**
+     * the open file, or null while a named pipe isn't opened by the background thread yet
+     */
+    private volatile FileChannel channel;
+    private volatile long tick;
+    private volatile boolean closed;
+
+    /**
+     * Opens the given file, creates it if it doesn't exist yet and replaces its content, and starts the background
+     * thread that writes the records. A named pipe is opened by the background thread, so the command doesn't wait
+     * for the reader of the pipe; if the pipe can't be opened, all records are dropped.
+     * @param filePath the path of the file or named pipe
+     * @throws SimulationException if the file can't be opened
+     */
+    public CarEventWriter(String filePath) {
+        this.filePath = filePath;
+        Path path = RunnerSupport.toPath(filePath);
+        this.channel = isPipe(path) ? null : open(path);
+        int numberOfBatches = NUMBER_OF_BATCHES + Runtime.getRuntime().availableProcessors();
+        this.freeBatches = new ArrayBlockingQueue<>(numberOfBatches);
+        this.fullBatches = new ArrayBlockingQueue<>(numberOfBatches + 1);
+        for (int i = 0; i < numberOfBatches; i++) {
+            freeBatches.add(ByteBuffer.allocateDirect(BATCH_RECORDS * RECORD_BYTES));
+        }
+        this.threadBatches = new CopyOnWriteArrayList<>();
+        this.threadBatch = ThreadLocal.withInitial(this::addThreadBatch);
+        this.writtenRecords = new AtomicLong();
+        this.droppedRecords = new AtomicLong();
+        this.tick = 0;
+        this.closed = false;
+        this.thread = new Thread(() -> writeBatches(path), THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void startTick(long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Adds the record to the batch of the current thread. Only a full batch is handed off, so the threads only
+     * synchronize once per batch.
+     */
+    @Override
+    public void accept(CarEvent event, int carID, int streetID, int position, int speed) {
+        ThreadBatch current = threadBatch.get();
+        if (current.batch == null) {
+            current.batch = closed ? null : freeBatches.poll();
+            if (current.batch == null) {
+                droppedRecords.incrementAndGet();
+                return;
+            }
+        }
+        current.batch.putLong(tick).putInt(event.ordinal()).putInt(carID).putInt(streetID).putInt(position)
+                .putInt(speed);
+        if (current.batch.remaining() < RECORD_BYTES) {
+            handOffBatch(current);
+        }
+    }
+
+    /**
+     * Hands off the records of the tick of all threads right away, if the background thread waits for records.
+     * Otherwise the batches are only handed off when they're full, so a slow consumer gets few large batches instead
+     * of one per tick. It's called after all events of the tick are reported, so no thread adds records meanwhile.
+     */
+    @Override
+    public void endTick() {
+        if (fullBatches.isEmpty()) {
+            handOffAllBatches();
+        }
+    }
+
+    /**
+     * Returns the number of records that were written so far.
+     * @return the number of written records
+     */
+    public long getWrittenRecords() {
+        return writtenRecords.get();
+    }
+
+    /**
+     * Returns the number of records that were dropped, because all batches waited to be written.
+     * @return the number of dropped records
+     */
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    /**
+     * Hands off the collected records, waits until the background thread wrote them and closes the file. If the
+     * records can't be written in time, because nobody reads the pipe, they are dropped. A background thread that
+     * still waits for the reader of a named pipe is left behind, it closes the pipe without writing once it's opened.
+     * It must only be called while no events are reported.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        handOffAllBatches();
+        fullBatches.add(END_OF_EVENTS);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+            if (thread.isAlive()) {
+                thread.interrupt();
+                thread.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            for (ByteBuffer fullBatch : fullBatches) {
+                droppedRecords.addAndGet(fullBatch.remaining() / RECORD_BYTES);
+            }
+        }
+    }
+
+    private ThreadBatch addThreadBatch() {
+        ThreadBatch batch = new ThreadBatch();
+        threadBatches.add(batch);
+        return batch;
+    }
+
+    private void handOffAllBatches() {
+        for (ThreadBatch batch : threadBatches) {
+            if (batch.batch != null && batch.batch.position() > 0) {
+                handOffBatch(batch);
+            }
+        }
+    }
+
+    private void handOffBatch(ThreadBatch batch) {
+        fullBatches.add(batch.batch.flip());
+        batch.batch = null;
+    }
+
+    /**
+     * Opens a named pipe if needed, writes the header and the full batches until the end of the events, runs in the
+     * background thread. If the file can't be written any more, the following batches are dropped. The file is
+     * closed at the end.
+     */
+    private void writeBatches(Path path) {
+        if (channel == null) {
+            channel = openPipe(path);
+        }
+        boolean writable = channel != null
+                && write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC_NUMBER).putInt(VERSION).flip());
+        try {
+            ByteBuffer fullBatch = fullBatches.take();
+            while (fullBatch != END_OF_EVENTS) {
+                int records = fullBatch.remaining() / RECORD_BYTES;
+                writable = writable && write(fullBatch);
+                if (writable) {
+                    writtenRecords.addAndGet(records);
+                } else {
+                    droppedRecords.addAndGet(records);
+                }
+                fullBatch.clear();
+                freeBatches.add(fullBatch);
+                fullBatch = fullBatches.take();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private boolean write(ByteBuffer fullBatch) {
+        try {
+            while (fullBatch.hasRemaining()) {
+                channel.write(fullBatch);
+            }
+            return true;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException exception) {
+                // the records are written or counted as dropped anyway
+            }
+        }
+    }
+
+    private static boolean isPipe(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).isOther();
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private static FileChannel openPipe(Path path) {
+        try {
+            return FileChannel.open(path, StandardOpenOption.WRITE);
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    private FileChannel open(Path path) {
+        try {
+            return FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(filePath));
+        }
+    }
+
+    /**
+     * The batch a thread collects its records in, null if the thread has no batch at the moment.
+     */
+    private static final class ThreadBatch {
+        private ByteBuffer batch;
+    }
+}
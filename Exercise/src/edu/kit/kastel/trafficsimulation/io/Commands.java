@@ -3,6 +3,9 @@ package edu.kit.kastel.trafficsimulation.io;
 import edu.kit.kastel.trafficsimulation.exception.SimulationException;
 import edu.kit.kastel.trafficsimulation.model.simulation.Simulation;
 import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.model.TickMode;
+
+import java.util.Locale;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,9 +25,30 @@ public enum Commands {
     CAR_POSITION("^position " + Commands.ALL_INPUT) {
 
         @Override
-        String execute(String input) {
-            int inputID = Commands.validateCommand(input, CAR_POSITION);
-            return simulation2.showCar(inputID);
+        String execute(String input, Session session) {
+            int inputID = Commands.validateCommand(input, CAR_POSITION, session);
+            return session.getSimulation().showCar(inputID);
+        }
+    },
+
+    /**
+     * return information position, speed of several given cars, separated by commas, or of all cars
+     */
+    CAR_POSITIONS("^positions " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            String carIDs = Commands.validateArgument(input, CAR_POSITIONS, session);
+            if (carIDs.equals(Commands.ALL_CARS)) {
+                return session.getSimulation().showAllCars();
+            }
+            String[] inputIDs = carIDs.split(Commands.ID_SEPERATOR);
+            int[] inputNumbers = new int[inputIDs.length];
+            for (int i = 0; i < inputIDs.length; i++) {
+                inputNumbers[i] = Commands.validateNumeric(inputIDs[i]);
+                Commands.legalNumber(inputNumbers[i]);
+            }
+            return session.getSimulation().showCars(inputNumbers);
         }
     },
 
@@ -34,31 +58,162 @@ public enum Commands {
     SIMULATE("^simulate " + Commands.ALL_INPUT) {
 
         @Override
-        String execute(String input) {
-            int inputNumber = Commands.validateCommand(input, SIMULATE);
-            return simulation2.simulate(inputNumber);
+        String execute(String input, Session session) {
+            int inputNumber = Commands.validateCommand(input, SIMULATE, session);
+            return session.getSimulation().simulate(inputNumber);
         }
     },
 
     /**
-     * command to read in the given files
+     * command to read in the given files, the current simulation is only replaced if the new one is built successfully
      */
     LOAD("^load " + Commands.ALL_INPUT) {
 
         @Override
-        String execute(String input) {
+        String execute(String input, Session session) {
             Commands.validateSpaceAtEnd(input);
             String[] inputList = Commands.getSplitString(Commands.replaceAllInput(this, input));
             Commands.validateArgumentsLength(inputList);
             String filePath = inputList[0];
-            try {
-                Simulation testSimulation = new Simulation(new StreetNetwork());
-                testSimulation.readFiles(filePath);
-            } catch (final SimulationException exception) {
-                throw new SimulationException(exception.getMessage());
+            Simulation simulation = session.getSimulation();
+            Simulation loadedSimulation = new Simulation(new StreetNetwork());
+            loadedSimulation.setTickMode(simulation.getTickMode());
+            loadedSimulation.setStatisticsTimed(simulation.getTickStatistics().isTimed());
+            loadedSimulation.setEventSink(simulation.getEventSink());
+            String message = loadedSimulation.readFiles(filePath);
+            session.setSimulation(loadedSimulation);
+            return message;
+        }
+    },
+
+    /**
+     * command to save the current state of the simulation to a snapshot file
+     */
+    SAVE("^save " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            return session.getSimulation().saveState(Commands.validateArgument(input, this, session));
+        }
+    },
+
+    /**
+     * command to restore the state of the simulation from a snapshot file of the same street network
+     */
+    RESTORE("^restore " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            return session.getSimulation().restoreState(Commands.validateArgument(input, this, session));
+        }
+    },
+
+    /**
+     * command to save the changes of the simulation since the last snapshot or delta to a delta snapshot file
+     */
+    SAVE_DELTA("^savedelta " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            return session.getSimulation().saveDelta(Commands.validateArgument(input, this, session));
+        }
+    },
+
+    /**
+     * command to apply the changes of a delta snapshot file to the simulation, the deltas have to be restored in the
+     * order they were saved after the full snapshot they are based on
+     */
+    RESTORE_DELTA("^restoredelta " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            return session.getSimulation().restoreDelta(Commands.validateArgument(input, this, session));
+        }
+    },
+
+    /**
+     * command to convert the simulation files of a folder into a network file, that can be loaded faster
+     */
+    CONVERT("^convert " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            Commands.validateSpaceAtEnd(input);
+            String[] inputList = Commands.getSplitString(Commands.replaceAllInput(this, input));
+            if (inputList.length != Commands.CONVERT_ARGUMENTS) {
+                throw new SimulationException(ExceptionMessages.TWO_EXPECTED_ARGUMENTS.format());
             }
-            simulation2 = new Simulation(new StreetNetwork());
-            return simulation2.readFiles(filePath);
+            StreetNetwork streetNetwork = new StreetNetwork();
+            streetNetwork.readFiles(inputList[0]);
+            streetNetwork.init();
+            streetNetwork.toNetworkFile().write(inputList[1]);
+            return Messages.READY.format();
+        }
+    },
+
+    /**
+     * command to choose the mode the ticks of the simulation are computed in, the mode is kept for later loads
+     */
+    MODE("^mode " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            Commands.validateSpaceAtEnd(input);
+            String[] inputList = Commands.getSplitString(Commands.replaceAllInput(this, input));
+            Commands.validateArgumentsLength(inputList);
+            return session.getSimulation().setTickMode(Commands.validateTickMode(inputList[0]));
+        }
+    },
+
+    /**
+     * command to show the statistics of the simulation
+     */
+    STATISTICS("stats") {
+
+        @Override
+        String execute(String input, Session session) {
+            Commands.validateActiveSimulation(session);
+            return session.getSimulation().showStatistics();
+        }
+    },
+
+    /**
+     * command to enable timing the ticks and publishing the statistics over JMX, to disable it again or to reset
+     * the statistics, timing is kept for later loads
+     */
+    STATISTICS_OPTION("^stats " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            String option = Commands.validateArgument(input, this, session);
+            if (option.equals(Commands.STATISTICS_ON)) {
+                StatisticsBean.register(session);
+                return session.getSimulation().setStatisticsTimed(true);
+            } else if (option.equals(Commands.STATISTICS_OFF)) {
+                StatisticsBean.unregister(session);
+                return session.getSimulation().setStatisticsTimed(false);
+            } else if (option.equals(Commands.STATISTICS_RESET)) {
+                return session.getSimulation().resetStatistics();
+            }
+            throw new SimulationException(ExceptionMessages.UNKNOWN_STATISTICS_OPTION.format(option));
+        }
+    },
+
+    /**
+     * command to write the changes of the cars to a file or named pipe from the next tick on, or to stop writing
+     * them, the file is kept for later loads; a named pipe is opened in the background, so the command doesn't wait
+     * for the reader of the pipe
+     */
+    EVENTS("^events " + Commands.ALL_INPUT) {
+
+        @Override
+        String execute(String input, Session session) {
+            String filePath = Commands.validateArgument(input, this, session);
+            String message = session.closeEventWriter();
+            if (filePath.equals(Commands.EVENTS_OFF)) {
+                return message == null ? Messages.READY.format() : message;
+            }
+            return session.openEventWriter(filePath);
         }
     },
 
@@ -68,8 +223,8 @@ public enum Commands {
     QUIT("quit") {
 
         @Override
-        String execute(String input) {
-            simulation2.quit();
+        String execute(String input, Session session) {
+            session.quit();
             return null;
         }
     };
@@ -80,8 +235,14 @@ public enum Commands {
     public static final String ALL_INPUT = ".*";
     private static final String EMPTY_STRING = "";
     private static final String COMMAND_SEPERATOR = " ";
+    private static final String ID_SEPERATOR = ",";
+    private static final String ALL_CARS = "all";
+    private static final int CONVERT_ARGUMENTS = 2;
+    private static final String STATISTICS_ON = "on";
+    private static final String STATISTICS_OFF = "off";
+    private static final String STATISTICS_RESET = "reset";
+    private static final String EVENTS_OFF = "off";
 
-    private static Simulation simulation2 = new Simulation(new StreetNetwork());
     /**
      * The pattern of this command.
      */
@@ -108,39 +269,33 @@ public enum Commands {
     /**
      * Executes the command contained in the input if there is any, returns an error
      * message otherwise. If a command is found in the input, returns the result of
-     * this input performed on the given playlist.
+     * this input performed on the simulation of the given session.
      *
      * @param input the line of input
+     * @param session the session with the simulation the command is executed on
      *
      * @return the result of the command execution, may contain error messages or be
      *         null if there is no output
      */
-    public static String executeCommand(final String input) {
+    public static String executeCommand(final String input, final Session session) {
         for (final Commands command : Commands.values()) {
             final Matcher matcher = command.pattern.matcher(input);
             if (matcher.matches()) {
-                return command.execute(input);
+                return command.execute(input, session);
             }
         }
         return ExceptionMessages.COMMAND_NOT_FOUND.format();
     }
 
     /**
-     * Executes the given input on the given scrabble.
+     * Executes the given input on the simulation of the given session.
      *
      * @param input     the line of input
+     * @param session   the session with the simulation the command is executed on
      * @return the result of the command execution, may contain error messages or be
      * null if there is no output
      */
-    abstract String execute(String input);
-
-    /**
-     * gets the current simulation with its street network
-     * @return the current simulation
-     */
-    public static Simulation getSimulation2() {
-        return simulation2;
-    }
+    abstract String execute(String input, Session session);
 
     private static String replaceAllInput(Commands command, String input) {
         return input.replaceAll(command.uiCommand.replace(ALL_INPUT, EMPTY_STRING), EMPTY_STRING);
@@ -168,8 +323,8 @@ public enum Commands {
         }
     }
 
-    private static void validateActiveSimulation(Simulation simulation) {
-        if (!simulation.isActive()) {
+    private static void validateActiveSimulation(Session session) {
+        if (session.getSimulation() == null || !session.getSimulation().isActive()) {
             throw new SimulationException(ExceptionMessages.NO_LOADED_STREET_NETWORK.format());
         }
     }
@@ -188,15 +343,24 @@ public enum Commands {
         }
     }
 
-    private static void validateSimulationActive() {
-        if (simulation2 == null) {
-            throw new SimulationException(ExceptionMessages.NO_LOADED_STREET_NETWORK.format());
+    private static TickMode validateTickMode(String inputMode) {
+        try {
+            return TickMode.valueOf(inputMode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new SimulationException(ExceptionMessages.UNKNOWN_TICK_MODE.format(inputMode));
         }
     }
 
-    private static int validateCommand(String input, Commands command) {
-        Commands.validateSimulationActive();
-        Commands.validateActiveSimulation(simulation2);
+    private static String validateArgument(String input, Commands command, Session session) {
+        Commands.validateActiveSimulation(session);
+        Commands.validateSpaceAtEnd(input);
+        String[] inputList = Commands.getSplitString(Commands.replaceAllInput(command, input));
+        Commands.validateArgumentsLength(inputList);
+        return inputList[0];
+    }
+
+    private static int validateCommand(String input, Commands command, Session session) {
+        Commands.validateActiveSimulation(session);
         Commands.validateSpaceAtEnd(input);
         String[] inputList = Commands.getSplitString(Commands.replaceAllInput(command, input));
         Commands.validateArgumentsLength(inputList);
@@ -0,0 +1,136 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.model.NetworkTopology;
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point that runs an ensemble of simulations, which share the streets and crossings and only differ in their
+ * cars. The streets and crossings are read and validated once into a {@link NetworkTopology}, and every member of
+ * the ensemble builds its street network on this topology, so a member only needs memory for its own cars, lanes and
+ * traffic lights. The members run at the same time on a pool of worker threads.
+ * Every member is a folder with a car file. After the given number of ticks, the positions of all cars of a member
+ * are written to the output folder, to a file named like the member folder with the extension
+ * {@value OUTPUT_EXTENSION}, in the format of the {@code positions all} command. If the cars of a member are
+ * invalid, the error is written to a file with the extension {@value ERROR_EXTENSION} instead.
+ * Usage: {@code EnsembleRunner [-threads n] <network> <ticks> <output folder> <member folder> ...}, the network is a
+ * folder with a street and a crossing file or a network file, by default there's one thread per processor.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class EnsembleRunner {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String THREADS_OPTION = "-threads";
+    private static final String OUTPUT_EXTENSION = ".out";
+    private static final String ERROR_EXTENSION = ".err";
+    private static final int NETWORK = 0;
+    private static final int TICKS = 1;
+    private static final int OUTPUT_FOLDER = 2;
+    private static final int FIRST_MEMBER = 3;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private EnsembleRunner() {
+        throw new IllegalStateException(ExceptionMessages.UTILITY_CLASS_INSTANTIATION.format());
+    }
+
+    /**
+     * Entry point to the ensemble runner.
+     * @param args the number of threads, if given, the network, the number of ticks, the output folder and the
+     *     member folders
+     */
+    public static void main(String[] args) {
+        try {
+            int threads = RunnerSupport.parseOption(args, THREADS_OPTION, ExceptionMessages.ENSEMBLE_USAGE);
+            int first = RunnerSupport.skipOption(args, THREADS_OPTION);
+            if (args.length - first <= FIRST_MEMBER) {
+                throw new SimulationException(ExceptionMessages.ENSEMBLE_USAGE.format());
+            }
+            NetworkTopology topology = readTopology(args[first + NETWORK]);
+            int ticks = RunnerSupport.parseNumber(args[first + TICKS], 0, ExceptionMessages.ENSEMBLE_USAGE);
+            Path outputFolder = RunnerSupport.toPath(args[first + OUTPUT_FOLDER]);
+            List<String> members = new ArrayList<>();
+            for (int i = first + FIRST_MEMBER; i < args.length; i++) {
+                members.add(args[i]);
+            }
+            runAll(topology, ticks, outputFolder, members, threads);
+        } catch (SimulationException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    /**
+     * Reads and validates the streets and crossings of the given folder or network file.
+     * @param filePath the path of the folder or network file
+     * @return the topology of the streets and crossings
+     * @throws SimulationException if the files can't be read or are invalid
+     */
+    public static NetworkTopology readTopology(String filePath) {
+        if (NetworkFile.isNetworkFile(filePath)) {
+            NetworkFile networkFile = NetworkFile.read(filePath);
+            return new NetworkTopology(networkFile.getStreetParameters(), networkFile.getCrossingParameters());
+        }
+        TextParsing textParsing = new TextParsing(filePath);
+        List<int[]> streetParameters = textParsing.validateStreets();
+        return new NetworkTopology(streetParameters, textParsing.validateCrossings());
+    }
+
+    /**
+     * Builds a street network with the cars of the given member folder on the shared topology and updates it for
+     * the given number of ticks.
+     * @param topology the shared topology of the ensemble
+     * @param memberPath the path of the folder with the car file of the member
+     * @param ticks the number of ticks to update the network
+     * @return the updated street network
+     * @throws SimulationException if the car file can't be read or the cars are invalid
+     */
+    public static StreetNetwork runMember(NetworkTopology topology, String memberPath, int ticks) {
+        StreetNetwork streetNetwork = new StreetNetwork();
+        streetNetwork.init(topology, new TextParsing(memberPath).validateCars());
+        streetNetwork.update(ticks);
+        return streetNetwork;
+    }
+
+    private static void runAll(NetworkTopology topology, int ticks, Path outputFolder, List<String> members,
+                               int threads) {
+        List<Runnable> runs = new ArrayList<>();
+        for (String member : members) {
+            runs.add(() -> writeMember(topology, member, ticks, outputFolder));
+        }
+        RunnerSupport.runAll(runs, threads);
+    }
+
+    private static void writeMember(NetworkTopology topology, String memberPath, int ticks, Path outputFolder) {
+        String name = RunnerSupport.toPath(memberPath).getFileName().toString();
+        String output;
+        Path outputPath;
+        try {
+            output = runMember(topology, memberPath, ticks).getAllCurrentCars();
+            outputPath = outputFolder.resolve(name + OUTPUT_EXTENSION);
+        } catch (SimulationException exception) {
+            output = exception.getMessage();
+            outputPath = outputFolder.resolve(name + ERROR_EXTENSION);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputPath),
+                Charset.defaultCharset()), BUFFER_SIZE)) {
+            writer.write(output);
+            writer.write(System.lineSeparator());
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(outputPath));
+        }
+    }
+
+}
@@ -28,6 +28,10 @@ public enum ExceptionMessages {
      * Error message if the player tries to enter not the expected amount of three arguments.
      */
     ONE_EXPECTED_ARGUMENTS("Error: Only one argument is expected."),
+    /**
+     * Error message if the player tries to enter not the expected amount of two arguments.
+     */
+    TWO_EXPECTED_ARGUMENTS("Error: Exactly two arguments are expected."),
     /**
      * Error message if the seed to shuffle the tiles is not in the range of a long.
      */
@@ -72,6 +76,62 @@ public enum ExceptionMessages {
      * Error message if the car is located on a street that is not part of the simulation
      */
     CAR_WITH_ILLEGAL_STREET("Error: The car %d is located on a street that is not part of the simulation."),
+    /**
+     * Error message if the tick mode of a simulation doesn't exist
+     */
+    UNKNOWN_TICK_MODE("Error: The tick mode %s does not exist."),
+    /**
+     * Error message if a file is not a valid network file
+     */
+    INVALID_NETWORK_FILE("Error: The file %s is not a valid network file."),
+    /**
+     * Error message if a file can't be read or written
+     */
+    FILE_NOT_ACCESSIBLE("Error: The file %s can't be accessed."),
+    /**
+     * Error message if a file is not a valid snapshot of the current street network
+     */
+    INVALID_SNAPSHOT_FILE("Error: The file %s is not a valid snapshot of the current street network."),
+    /**
+     * Error message if a delta snapshot is saved before a full snapshot is saved or restored
+     */
+    NO_CHECKPOINT("Error: A full snapshot has to be saved or restored before a delta."),
+    /**
+     * Error message if a delta snapshot is not based on the current state of the street network
+     */
+    DELTA_NOT_AT_CHECKPOINT("Error: The delta %s is not based on the current state of the street network."),
+    /**
+     * Error message if the option of the statistics command doesn't exist
+     */
+    UNKNOWN_STATISTICS_OPTION("Error: The statistics option %s does not exist."),
+    /**
+     * Error message if the statistics can't be registered or unregistered as MBean
+     */
+    STATISTICS_NOT_PUBLISHED("Error: The statistics can't be published over JMX."),
+    /**
+     * Error message if the arguments of the batch runner are wrong
+     */
+    BATCH_USAGE("Error: Expected [-threads n] and pairs of a script file and an output file."),
+    /**
+     * Error message if the arguments of the ensemble runner are wrong
+     */
+    ENSEMBLE_USAGE("Error: Expected [-threads n], a network, a number of ticks, an output folder and member folders."),
+    /**
+     * Error message if the arguments of the shard runner are wrong
+     */
+    SHARD_USAGE("Error: Expected [-shards n], a network, a number of ticks and an output file."),
+    /**
+     * Error message if the processes of the shards can't be started or don't connect in time
+     */
+    SHARDS_NOT_STARTED("Error: The processes of the shards can't be started."),
+    /**
+     * Error message if processes of shards don't exit in time and are stopped
+     */
+    SHARDS_NOT_FINISHED("Error: %d processes of shards didn't exit in time and were stopped."),
+    /**
+     * Error message if the connection to another shard is lost
+     */
+    SHARD_CONNECTION_LOST("Error: The connection to shard %d was lost."),
     /**
      * Error message if the command is not found
      */
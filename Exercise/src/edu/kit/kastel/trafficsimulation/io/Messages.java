@@ -18,11 +18,49 @@ public enum Messages {
      *
      */
     CAR_POSITION("Car %s on street %s with speed %s and position %s"),
+    /**
+     * The message printed for the number of ticks in the statistics of the simulation
+     * <p>
+     * Expects format argument, in the following order:
+     * number of updated ticks (long)
+     * number of skipped ticks (long)
+     */
+    STATISTICS_TICKS("Ticks: %s updated, %s skipped"),
+    /**
+     * The message printed for what happened to the cars in the statistics of the simulation
+     * <p>
+     * Expects format argument, in the following order:
+     * number of car moves (long)
+     * number of turns (long)
+     * number of overtakes (long)
+     * number of stopped cars (long)
+     * number of cars blocked at red lights (long)
+     */
+    STATISTICS_CARS("Cars: %s moved, %s turned, %s overtaken, %s stopped, %s blocked at red lights"),
+    /**
+     * The message printed for the average wall time of the phases of an updated tick, if they are timed
+     * <p>
+     * Expects format argument, in the following order:
+     * street phase in nanoseconds (long)
+     * node phase in nanoseconds (long)
+     * reset phase in nanoseconds (long)
+     */
+    STATISTICS_TIMES("Time per tick: %s ns streets, %s ns nodes, %s ns reset"),
+    /**
+     * The message printed when the event stream of the cars is stopped
+     * <p>
+     * Expects format argument, in the following order:
+     * number of written records (long)
+     * number of dropped records (long)
+     */
+    EVENTS_STOPPED("Events: %s written, %s dropped"),
     /**
      * The Message printed when the input files are read correctly or the simulation is done correctly
      */
     READY("READY");
 
+    private static final String PLACEHOLDER = "%s";
+
     private final String message;
 
     /**
@@ -45,4 +83,26 @@ public enum Messages {
     public String format(Object... args) {
         return String.format(this.message, args);
     }
+
+    /**
+     * Appends this message to the given builder and replaces the format specifiers {@code %s} in the order of their
+     * occurrence with the specified numbers. Gives the same text as {@link #format(Object...)} for these numbers,
+     * but doesn't parse the format string and doesn't create intermediate strings.
+     *
+     * @param builder the builder to append this message to
+     * @param args numbers referenced by the format specifiers in the format string
+     * @return the given builder
+     */
+    public StringBuilder append(StringBuilder builder, int... args) {
+        int argument = 0;
+        int start = 0;
+        int placeholder = message.indexOf(PLACEHOLDER);
+        while (placeholder >= 0) {
+            builder.append(message, start, placeholder).append(args[argument]);
+            argument++;
+            start = placeholder + PLACEHOLDER.length();
+            placeholder = message.indexOf(PLACEHOLDER, start);
+        }
+        return builder.append(message, start, message.length());
+    }
 }
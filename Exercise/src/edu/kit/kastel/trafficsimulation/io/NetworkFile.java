@@ -0,0 +1,232 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A street network in a compact binary format. The file holds the already validated parameters of the streets,
+ * crossings and cars, so loading it doesn't have to parse the text of the simulation files again.
+ * The file starts with two big-endian ints. All other values are variable-length ints: the value is zigzag encoded,
+ * so small negative values stay small, and written in groups of seven bits, lowest first, where the highest bit of
+ * every byte tells whether another byte follows. Every value of a street, crossing or car is stored as the
+ * difference to the same value of the previous one, so sorted IDs and cars on the same street take one byte each.
+ * The file is laid out as follows:
+ * <ol>
+ *     <li>the magic number {@value MAGIC_NUMBER} and the version {@value VERSION} of the format</li>
+ *     <li>the number of streets, the number of values per street and the values of every street: start node, end
+ *     node, length, number of lanes and speed limit</li>
+ *     <li>the number of crossings, the number of values per crossing and the values of every crossing sorted by
+ *     their ID: ID and green phase duration</li>
+ *     <li>the number of cars, the number of values per car and the values of every car: ID, street, preferred speed
+ *     and acceleration</li>
+ * </ol>
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class NetworkFile {
+
+    /**
+     * The first int of every network file.
+     */
+    public static final int MAGIC_NUMBER = 0x54524E46;
+
+    /**
+     * The version of the format that is written.
+     */
+    public static final int VERSION = 2;
+
+    private static final int STREET_VALUES = 5;
+    private static final int CROSSING_VALUES = 2;
+    private static final int CAR_VALUES = 4;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    /**
+     * the number of value bits in every byte of a variable-length int
+     */
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_VALUE_MASK = 0x7F;
+    /**
+     * the bit of a byte of a variable-length int that tells whether another byte follows
+     */
+    private static final int VARINT_CONTINUE = 0x80;
+    /**
+     * the highest number of bytes of a variable-length int, enough for the 32 bits of an int
+     */
+    private static final int MAXIMUM_VARINT_BYTES = 5;
+
+    private final List<int[]> streetParameters;
+    private final List<int[]> crossingParameters;
+    private final List<int[]> carParameters;
+
+    /**
+     * Creates a new network file with the given parameters.
+     * @param streetParameters the parameters of the streets
+     * @param crossingParameters the parameters of the crossings sorted by their ID
+     * @param carParameters the parameters of the cars
+     */
+    public NetworkFile(List<int[]> streetParameters, List<int[]> crossingParameters, List<int[]> carParameters) {
+        this.streetParameters = streetParameters;
+        this.crossingParameters = crossingParameters;
+        this.carParameters = carParameters;
+    }
+
+    /**
+     * Returns whether the given path points to a normal file that starts with the magic number of network files. Any
+     * other path is loaded like a folder of simulation files, which reports it if it isn't one.
+     * @param filePath the path to check
+     * @return true if the path points to a network file, otherwise false
+     */
+    public static boolean isNetworkFile(String filePath) {
+        Path path = Path.of(filePath);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (InputStream input = Files.newInputStream(path)) {
+            byte[] magicNumber = input.readNBytes(Integer.BYTES);
+            return magicNumber.length == Integer.BYTES && ByteBuffer.wrap(magicNumber).getInt() == MAGIC_NUMBER;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a network file. The file is mapped into memory and its values are read directly into the parameters.
+     * @throws SimulationException if the file can't be read or isn't a valid network file
+     * @param filePath the path of the network file
+     * @return the network file with the parameters of the file
+     */
+    public static NetworkFile read(String filePath) {
+        final Path path = Path.of(filePath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_SIZE) {
+                throw new SimulationException(ExceptionMessages.INVALID_NETWORK_FILE.format(filePath));
+            }
+            ByteBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (values.getInt() != MAGIC_NUMBER || values.getInt() != VERSION) {
+                throw new SimulationException(ExceptionMessages.INVALID_NETWORK_FILE.format(filePath));
+            }
+            List<int[]> streets = readParameters(values, STREET_VALUES, filePath);
+            List<int[]> crossings = readParameters(values, CROSSING_VALUES, filePath);
+            List<int[]> cars = readParameters(values, CAR_VALUES, filePath);
+            if (values.hasRemaining()) {
+                throw new SimulationException(ExceptionMessages.INVALID_NETWORK_FILE.format(filePath));
+            }
+            return new NetworkFile(streets, crossings, cars);
+        } catch (BufferUnderflowException exception) {
+            throw new SimulationException(ExceptionMessages.INVALID_NETWORK_FILE.format(filePath));
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(filePath));
+        }
+    }
+
+    /**
+     * Writes the parameters to a network file. An existing file is overwritten.
+     * @throws SimulationException if the file can't be written
+     * @param filePath the path of the network file
+     */
+    public void write(String filePath) {
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Path.of(filePath))))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(VERSION);
+            writeParameters(output, streetParameters, STREET_VALUES);
+            writeParameters(output, crossingParameters, CROSSING_VALUES);
+            writeParameters(output, carParameters, CAR_VALUES);
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(filePath));
+        }
+    }
+
+    /**
+     * Returns the parameters of the streets.
+     * @return list of Integers Arrays, Every integer array entry contains the int values of a street
+     */
+    public List<int[]> getStreetParameters() {
+        return streetParameters;
+    }
+
+    /**
+     * Returns the parameters of the crossings sorted by their ID.
+     * @return list of Integers Arrays, Every integer array entry contains the int values of a crossing
+     */
+    public List<int[]> getCrossingParameters() {
+        return crossingParameters;
+    }
+
+    /**
+     * Returns the parameters of the cars.
+     * @return list of Integers Arrays, Every integer array entry contains the int values of a car
+     */
+    public List<int[]> getCarParameters() {
+        return carParameters;
+    }
+
+    /**
+     * Reads the parameters of one kind. Every value takes at least one byte, so a number of parameters that doesn't
+     * fit into the rest of the file is rejected before the list is allocated.
+     */
+    private static List<int[]> readParameters(ByteBuffer values, int numberOfValues, String filePath) {
+        int size = readVarint(values, filePath);
+        if (size < 0 || readVarint(values, filePath) != numberOfValues
+                || (long) size * numberOfValues > values.remaining()) {
+            throw new SimulationException(ExceptionMessages.INVALID_NETWORK_FILE.format(filePath));
+        }
+        List<int[]> parameters = new ArrayList<>(size);
+        int[] previous = new int[numberOfValues];
+        for (int i = 0; i < size; i++) {
+            int[] parameter = new int[numberOfValues];
+            for (int k = 0; k < numberOfValues; k++) {
+                parameter[k] = previous[k] + readVarint(values, filePath);
+            }
+            parameters.add(parameter);
+            previous = parameter;
+        }
+        return parameters;
+    }
+
+    private static void writeParameters(DataOutputStream output, List<int[]> parameters, int numberOfValues)
+            throws IOException {
+        writeVarint(output, parameters.size());
+        writeVarint(output, numberOfValues);
+        int[] previous = new int[numberOfValues];
+        for (int[] parameter : parameters) {
+            for (int i = 0; i < numberOfValues; i++) {
+                writeVarint(output, parameter[i] - previous[i]);
+            }
+            previous = parameter;
+        }
+    }
+
+    private static int readVarint(ByteBuffer values, String filePath) {
+        int encoded = 0;
+        for (int i = 0; i < MAXIMUM_VARINT_BYTES; i++) {
+            int part = values.get();
+            encoded |= (part & VARINT_VALUE_MASK) << (i * VARINT_BITS);
+            if ((part & VARINT_CONTINUE) == 0) {
+                return (encoded >>> 1) ^ -(encoded & 1);
+            }
+        }
+        throw new SimulationException(ExceptionMessages.INVALID_NETWORK_FILE.format(filePath));
+    }
+
+    private static void writeVarint(DataOutputStream output, int value) throws IOException {
+        int encoded = (value << 1) ^ (value >> (Integer.SIZE - 1));
+        while ((encoded & ~VARINT_VALUE_MASK) != 0) {
+            output.writeByte((encoded & VARINT_VALUE_MASK) | VARINT_CONTINUE);
+            encoded >>>= VARINT_BITS;
+        }
+        output.writeByte(encoded);
+    }
+}
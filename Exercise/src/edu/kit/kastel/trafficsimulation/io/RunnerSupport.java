@@ -0,0 +1,123 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers for the entry points that run simulations without the shell, like the {@link BatchRunner},
+ * {@link EnsembleRunner} and {@link ShardRunner}. They parse the arguments of the entry points, which may start with
+ * one option and its number, turn the paths of the arguments into {@link Path}s and run tasks on a pool of worker
+ * threads. The {@link CarEventWriter} turns the path of its file into a {@link Path} the same way.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class RunnerSupport {
+
+    /**
+     * The number of arguments an option takes up: the option and its number.
+     */
+    private static final int OPTION_ARGUMENTS = 2;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private RunnerSupport() {
+        throw new IllegalStateException(ExceptionMessages.UTILITY_CLASS_INSTANTIATION.format());
+    }
+
+    /**
+     * Returns the index of the first argument after the given option, if the arguments start with the option and its
+     * number.
+     * @param args the arguments of the entry point
+     * @param option the option, like {@code -threads}
+     * @return {@value OPTION_ARGUMENTS} if the arguments start with the option, otherwise zero
+     */
+    static int skipOption(String[] args, String option) {
+        return hasOption(args, option) ? OPTION_ARGUMENTS : 0;
+    }
+
+    /**
+     * Returns the positive number of the given option at the start of the arguments, or the number of processors if
+     * the arguments don't start with the option.
+     * @param args the arguments of the entry point
+     * @param option the option, like {@code -threads}
+     * @param usage the error message if the number isn't positive
+     * @return the number of the option or the number of processors
+     * @throws SimulationException with the usage if the number of the option isn't a positive number
+     */
+    static int parseOption(String[] args, String option, ExceptionMessages usage) {
+        return hasOption(args, option) ? parseNumber(args[1], 1, usage) : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Parses a number of the arguments.
+     * @param number the argument
+     * @param minimum the lowest allowed number
+     * @param usage the error message if the argument isn't an allowed number
+     * @return the number
+     * @throws SimulationException with the usage if the argument isn't a number or lower than the minimum
+     */
+    static int parseNumber(String number, int minimum, ExceptionMessages usage) {
+        try {
+            int value = Integer.parseInt(number);
+            if (value >= minimum) {
+                return value;
+            }
+        } catch (NumberFormatException exception) {
+            throw new SimulationException(usage.format());
+        }
+        throw new SimulationException(usage.format());
+    }
+
+    /**
+     * Turns the given path of an argument into a path.
+     * @param filePath the path of a file or folder
+     * @return the path
+     * @throws SimulationException if the path is invalid
+     */
+    static Path toPath(String filePath) {
+        try {
+            return Path.of(filePath);
+        } catch (IllegalArgumentException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(filePath));
+        }
+    }
+
+    /**
+     * Runs the given tasks on a pool of the given number of threads and waits until all of them are finished. A task
+     * that fails doesn't stop the others, its error is printed to the error output.
+     * @param tasks the tasks to run
+     * @param threads the number of threads of the pool
+     */
+    static void runAll(List<Runnable> tasks, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> runs = new ArrayList<>();
+        for (Runnable task : tasks) {
+            runs.add(pool.submit(task));
+        }
+        pool.shutdown();
+        for (Future<?> run : runs) {
+            try {
+                run.get();
+            } catch (ExecutionException exception) {
+                System.err.println(exception.getCause().getMessage());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+                return;
+            }
+        }
+    }
+
+    private static boolean hasOption(String[] args, String option) {
+        return args.length > 1 && args[0].equals(option);
+    }
+}
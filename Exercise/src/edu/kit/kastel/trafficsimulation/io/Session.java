@@ -0,0 +1,107 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.model.simulation.Simulation;
+
+/**
+ * The state of one user of the {@link Commands}: the current simulation and the writer of its car events. Every
+ * session is independent of all others, so several sessions can run different street networks at the same time in
+ * one JVM, as long as every session is only used by one thread at a time.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public class Session {
+
+    private final String name;
+    private Simulation simulation;
+    private CarEventWriter eventWriter;
+
+    /**
+     * Creates a new session without a loaded street network.
+     * @param name the name of the session, it tells the sessions apart in the published statistics, so it has to be
+     *             unique among the sessions of the JVM
+     */
+    public Session(String name) {
+        this.name = name;
+        this.simulation = new Simulation(new StreetNetwork());
+        this.eventWriter = null;
+    }
+
+    /**
+     * Executes the command contained in the input on the simulation of this session.
+     * @param input the line of input
+     * @return the result of the command execution, may contain error messages or be null if there is no output
+     */
+    public String executeCommand(String input) {
+        return Commands.executeCommand(input, this);
+    }
+
+    /**
+     * Returns whether the session still accepts commands, which is the case until the quit command.
+     * @return true if the simulation is reading or running, otherwise false
+     */
+    public boolean isRunning() {
+        return simulation.isReading() || simulation.isActive();
+    }
+
+    /**
+     * Stops writing the car events, stops publishing the statistics and quits the simulation.
+     */
+    public void quit() {
+        closeEventWriter();
+        StatisticsBean.unregister(this);
+        simulation.quit();
+    }
+
+    /**
+     * Returns the name of the session.
+     * @return the name of the session
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current simulation of the session.
+     * @return the current simulation
+     */
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Replaces the current simulation of the session.
+     * @param simulation the new simulation
+     */
+    public void setSimulation(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Starts writing the car events of the simulation to the given file, the file is kept for later loads.
+     * @param filePath the path of the file or named pipe
+     * @return the message that the simulation is ready
+     */
+    public String openEventWriter(String filePath) {
+        closeEventWriter();
+        eventWriter = new CarEventWriter(filePath);
+        return simulation.setEventSink(eventWriter);
+    }
+
+    /**
+     * Stops writing the car events, if they are written.
+     * @return the message how many records were written and dropped, or null if no events were written
+     */
+    public String closeEventWriter() {
+        if (eventWriter == null) {
+            return null;
+        }
+        simulation.setEventSink(null);
+        eventWriter.close();
+        String message = Messages.EVENTS_STOPPED.format(eventWriter.getWrittenRecords(),
+                eventWriter.getDroppedRecords());
+        eventWriter = null;
+        return message;
+    }
+}
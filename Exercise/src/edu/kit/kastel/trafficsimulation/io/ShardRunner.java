@@ -0,0 +1,367 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.model.NetworkPartition;
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Entry point that simulates a street network split into shards, where every shard runs in its own process. The
+ * nodes are split into ranges by a {@link NetworkPartition}, and every shard only creates its nodes and streets and
+ * only holds the cars of its streets. The shards exchange the cars that cross the boundaries between them in every
+ * tick over local sockets, see {@link SocketShardExchange}.
+ * The shards always compute the ticks in two phases, so the result is the same as in one process in the two phase
+ * tick mode ({@code mode two_phase}), and not the same as in the sequential tick mode the shell starts with.
+ * The runner starts the processes of the shards with the same Java runtime and class path and coordinates them:
+ * every shard reads and validates the whole network, tells the runner the port it accepts the other shards on and
+ * sends the positions of its cars after the given number of ticks. The runner writes the positions of all cars to
+ * the output file in the format of the {@code positions all} command. If the network is invalid, the error is
+ * printed like in the shell.
+ * Usage: {@code ShardRunner [-shards n] <network> <ticks> <output file>}, the network is a folder with the three files
+ * or a network file, by default there's one shard per processor. Every number of shards gives the positions of the
+ * two phase tick mode.
+ * After the positions are written, or as soon as a shard fails, the runner waits a limited time for the processes of
+ * the shards to exit and stops the remaining ones forcibly, so a shard that hangs doesn't keep the runner waiting.
+ * A shard that dies while the network is simulated closes its connections, so the other shards and the runner fail
+ * instead of waiting for it.
+ * Whether more shards finish sooner isn't measured yet: the runner was only run on a single processor, where the
+ * shards share one core and more shards only add the cost of the exchange.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class ShardRunner {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String SHARDS_OPTION = "-shards";
+    private static final String SHARD_OPTION = "-shard";
+    private static final String JAVA = "java";
+    private static final String CLASS_PATH_OPTION = "-cp";
+    private static final String CLASS_PATH = "java.class.path";
+    private static final int ARGUMENTS = 3;
+    private static final int NETWORK = 0;
+    private static final int TICKS = 1;
+    private static final int OUTPUT_FILE = 2;
+    private static final int CONTROL_PORT = 1;
+    private static final int SHARD = 2;
+    private static final int NUMBER_OF_SHARDS = 3;
+    private static final int FIRST_SHARD_ARGUMENT = 4;
+    /**
+     * the milliseconds the runner waits for the processes of the shards to connect and to read the network
+     */
+    private static final int START_TIMEOUT_MILLIS = 60000;
+    /**
+     * the milliseconds the runner waits for the processes of the shards to exit at the end
+     */
+    private static final long EXIT_TIMEOUT_MILLIS = 10000;
+    private static final int READY = 0;
+    private static final int DONE = 1;
+    private static final int FAILED = 2;
+    private static final int CAR_VALUES = 5;
+    private static final int CAR_ID = 1;
+    private static final int STREET = 2;
+    private static final int SPEED = 3;
+    private static final int POSITION = 4;
+    private static final String THREAD_NAME = "shard-control-";
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private ShardRunner() {
+        throw new IllegalStateException(ExceptionMessages.UTILITY_CLASS_INSTANTIATION.format());
+    }
+
+    /**
+     * Entry point to the shard runner.
+     * @param args the number of shards, if given, the network, the number of ticks and the output file
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length > 0 && args[0].equals(SHARD_OPTION)) {
+                runShard(args);
+                return;
+            }
+            int shards = RunnerSupport.parseOption(args, SHARDS_OPTION, ExceptionMessages.SHARD_USAGE);
+            int first = RunnerSupport.skipOption(args, SHARDS_OPTION);
+            if (args.length - first != ARGUMENTS) {
+                throw new SimulationException(ExceptionMessages.SHARD_USAGE.format());
+            }
+            RunnerSupport.parseNumber(args[first + TICKS], 0, ExceptionMessages.SHARD_USAGE);
+            run(args[first + NETWORK], args[first + TICKS], args[first + OUTPUT_FILE], shards);
+        } catch (SimulationException exception) {
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    /**
+     * Starts the processes of the shards, waits until all of them are ready, tells every shard the ports of the
+     * others and writes the positions of the cars of all shards to the output file. Afterwards the processes of the
+     * shards are stopped.
+     * @throws SimulationException if a shard failed or didn't exit in time
+     */
+    private static void run(String network, String ticks, String outputFile, int shards) {
+        List<Process> processes = new ArrayList<>();
+        List<Socket> controls = new ArrayList<>();
+        List<DataInputStream> inputs = new ArrayList<>();
+        int stoppedShards;
+        try (ServerSocket serverSocket = new ServerSocket(0, shards, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(START_TIMEOUT_MILLIS);
+            for (int i = 0; i < shards; i++) {
+                processes.add(startShard(serverSocket.getLocalPort(), i, shards, network, ticks));
+                controls.add(null);
+                inputs.add(null);
+            }
+            for (int i = 0; i < shards; i++) {
+                Socket control = serverSocket.accept();
+                control.setSoTimeout(START_TIMEOUT_MILLIS);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(control.getInputStream(),
+                        BUFFER_SIZE));
+                int shard = input.readInt();
+                controls.set(shard, control);
+                inputs.set(shard, input);
+            }
+            int[] ports = new int[shards];
+            for (int i = 0; i < shards; i++) {
+                readStatus(inputs.get(i), READY);
+                ports[i] = inputs.get(i).readInt();
+            }
+            for (Socket control : controls) {
+                control.setSoTimeout(0);
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(control.getOutputStream()));
+                for (int port : ports) {
+                    output.writeInt(port);
+                }
+                output.flush();
+            }
+            writeCars(readCars(inputs, controls), outputFile);
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.SHARDS_NOT_STARTED.format());
+        } finally {
+            for (Socket control : controls) {
+                close(control);
+            }
+            stoppedShards = stopShards(processes);
+        }
+        if (stoppedShards > 0) {
+            throw new SimulationException(ExceptionMessages.SHARDS_NOT_FINISHED.format(stoppedShards));
+        }
+    }
+
+    private static Process startShard(int controlPort, int shard, int shards, String network, String ticks)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse(JAVA));
+        command.add(CLASS_PATH_OPTION);
+        command.add(System.getProperty(CLASS_PATH));
+        command.add(ShardRunner.class.getName());
+        command.add(SHARD_OPTION);
+        command.add(String.valueOf(controlPort));
+        command.add(String.valueOf(shard));
+        command.add(String.valueOf(shards));
+        command.add(network);
+        command.add(ticks);
+        return new ProcessBuilder(command).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * Reads the status of a shard from its control connection.
+     * @throws SimulationException with the error of the shard if it failed
+     */
+    private static void readStatus(DataInputStream input, int expectedStatus) throws IOException {
+        int status = input.readInt();
+        if (status == FAILED) {
+            throw new SimulationException(input.readUTF());
+        }
+        if (status != expectedStatus) {
+            throw new SimulationException(ExceptionMessages.SHARDS_NOT_STARTED.format());
+        }
+    }
+
+    /**
+     * Receives the cars of all shards at the same time, every shard in its own thread. As soon as a shard fails or
+     * its connection is lost, the control connections of all shards are closed, so the runner doesn't wait for the
+     * other shards, which may wait for the failed one.
+     * @throws SimulationException with the first error of a shard
+     */
+    private static int[][] readCars(List<DataInputStream> inputs, List<Socket> controls) {
+        int[][] shardCars = new int[inputs.size()][];
+        AtomicReference<SimulationException> firstError = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            int shard = i;
+            Thread reader = new Thread(() -> {
+                try {
+                    shardCars[shard] = readShardCars(inputs.get(shard), shard);
+                } catch (SimulationException exception) {
+                    if (firstError.compareAndSet(null, exception)) {
+                        controls.forEach(ShardRunner::close);
+                    }
+                }
+            }, THREAD_NAME + shard);
+            reader.start();
+            readers.add(reader);
+        }
+        for (Thread reader : readers) {
+            try {
+                reader.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new SimulationException(ExceptionMessages.SHARDS_NOT_STARTED.format());
+            }
+        }
+        if (firstError.get() != null) {
+            throw firstError.get();
+        }
+        return shardCars;
+    }
+
+    private static int[] readShardCars(DataInputStream input, int shard) {
+        try {
+            readStatus(input, DONE);
+            int[] cars = new int[input.readInt() * CAR_VALUES];
+            for (int i = 0; i < cars.length; i++) {
+                cars[i] = input.readInt();
+            }
+            return cars;
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.SHARD_CONNECTION_LOST.format(shard));
+        }
+    }
+
+    /**
+     * Orders the cars of all shards by their indices in the car file and writes their positions to the output file.
+     */
+    private static void writeCars(int[][] shardCars, String outputFile) {
+        int numberOfCars = 0;
+        for (int[] cars : shardCars) {
+            numberOfCars += cars.length / CAR_VALUES;
+        }
+        int[][] carsByIndex = new int[numberOfCars][];
+        for (int[] cars : shardCars) {
+            for (int i = 0; i < cars.length; i += CAR_VALUES) {
+                carsByIndex[cars[i]] = new int[] {cars[i + CAR_ID], cars[i + STREET], cars[i + SPEED],
+                    cars[i + POSITION]};
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int[] car : carsByIndex) {
+            if (!builder.isEmpty()) {
+                builder.append(System.lineSeparator());
+            }
+            Messages.CAR_POSITION.append(builder, car);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(
+                RunnerSupport.toPath(outputFile)), Charset.defaultCharset()), BUFFER_SIZE)) {
+            writer.append(builder);
+            writer.write(System.lineSeparator());
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(outputFile));
+        }
+    }
+
+    /**
+     * Runs one shard in the process the runner started. The shard reads the network, only creates its part of it and
+     * reports to the runner over the control connection whether the network is valid. It receives the ports of the
+     * other shards, simulates its part of the network and sends the positions of its cars.
+     */
+    private static void runShard(String[] args) {
+        if (args.length != FIRST_SHARD_ARGUMENT + ARGUMENTS - 1) {
+            throw new SimulationException(ExceptionMessages.SHARD_USAGE.format());
+        }
+        int shard = RunnerSupport.parseNumber(args[SHARD], 0, ExceptionMessages.SHARD_USAGE);
+        int shards = RunnerSupport.parseNumber(args[NUMBER_OF_SHARDS], shard + 1, ExceptionMessages.SHARD_USAGE);
+        int controlPort = RunnerSupport.parseNumber(args[CONTROL_PORT], 0, ExceptionMessages.SHARD_USAGE);
+        try (Socket control = new Socket(InetAddress.getLoopbackAddress(), controlPort);
+             ServerSocket serverSocket = new ServerSocket(0, shards, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(START_TIMEOUT_MILLIS);
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(control.getOutputStream(),
+                    BUFFER_SIZE));
+            output.writeInt(shard);
+            output.flush();
+            try {
+                StreetNetwork streetNetwork = new StreetNetwork();
+                streetNetwork.readFiles(args[FIRST_SHARD_ARGUMENT + NETWORK]);
+                streetNetwork.initShard(shards, shard);
+                int ticks = RunnerSupport.parseNumber(args[FIRST_SHARD_ARGUMENT + TICKS], 0,
+                        ExceptionMessages.SHARD_USAGE);
+                output.writeInt(READY);
+                output.writeInt(serverSocket.getLocalPort());
+                output.flush();
+                int[] ports = new int[shards];
+                DataInputStream input = new DataInputStream(control.getInputStream());
+                for (int i = 0; i < shards; i++) {
+                    ports[i] = input.readInt();
+                }
+                try (SocketShardExchange exchange = new SocketShardExchange(shard, serverSocket, ports)) {
+                    streetNetwork.update(ticks, exchange);
+                }
+                long size = streetNetwork.getShardCarsSize() * Integer.BYTES;
+                ByteBuffer cars = ByteBuffer.allocate(Math.toIntExact(size));
+                streetNetwork.saveShardCars(cars);
+                output.writeInt(DONE);
+                output.write(cars.array());
+            } catch (SimulationException exception) {
+                output.writeInt(FAILED);
+                output.writeUTF(exception.getMessage());
+            }
+            output.flush();
+        } catch (IOException exception) {
+            // the runner stopped, so there's nobody to report to
+        }
+    }
+
+    private static void close(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException exception) {
+                // the shard is finished anyway
+            }
+        }
+    }
+
+    /**
+     * Waits for the processes of the shards to exit, all together at most {@value EXIT_TIMEOUT_MILLIS} milliseconds,
+     * and stops the processes that are still running afterwards forcibly.
+     * @return the number of processes that had to be stopped
+     */
+    private static int stopShards(List<Process> processes) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(EXIT_TIMEOUT_MILLIS);
+        int stoppedShards = 0;
+        for (Process process : processes) {
+            if (!waitFor(process, deadline - System.nanoTime())) {
+                process.destroyForcibly();
+                stoppedShards++;
+            }
+        }
+        return stoppedShards;
+    }
+
+    private static boolean waitFor(Process process, long timeoutNanos) {
+        try {
+            return process.waitFor(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
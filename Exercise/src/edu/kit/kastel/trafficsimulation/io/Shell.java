@@ -12,6 +12,18 @@ import java.util.Scanner;
  * @version 1.0
  */
 public class Shell {
+
+    private static final String SESSION_NAME = "shell";
+
+    private final Session session;
+
+    /**
+     * Creates a new shell with its own session.
+     */
+    public Shell() {
+        this.session = new Session(SESSION_NAME);
+    }
+
     /**
      * simulate a traffic simulation, reads the input of the user and prints out the result.
      * checks if the status of the simulation matches the input
@@ -20,7 +32,7 @@ public class Shell {
     public void simulate() {
 
         Scanner inputScanner = new Scanner(System.in);
-        while (Commands.getSimulation2().isReading()) {
+        while (session.getSimulation().isReading()) {
             final String input = inputScanner.nextLine();
             try {
                 print(input);
@@ -29,7 +41,7 @@ public class Shell {
             }
         }
 
-        while (Commands.getSimulation2().isActive()) {
+        while (session.getSimulation().isActive()) {
             final String input = inputScanner.nextLine();
             try {
                 print(input);
@@ -41,7 +53,7 @@ public class Shell {
     }
 
     private void print(String input) {
-        final String output = Commands.executeCommand(input);
+        final String output = session.executeCommand(input);
         if (output != null) {
             System.out.println(output);
         }
@@ -2,9 +2,18 @@ package edu.kit.kastel.trafficsimulation.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * File loader for simulation files.
@@ -27,6 +36,18 @@ public final class SimulationFileLoader {
      */
     public static final String FILENAME_CARS = "cars.sim";
 
+    /**
+     * The number of bytes of a file that are mapped into memory at once while streaming it.
+     */
+    private static final long MAPPING_SIZE = 1L << 26;
+
+    /**
+     * The minimum number of bytes of a chunk of a file that is streamed in parallel.
+     */
+    private static final long CHUNK_SIZE = 1L << 22;
+
+    private static final int SEARCH_BUFFER_SIZE = 1 << 12;
+
 
     private final Path folderPath;
 
@@ -87,7 +108,182 @@ public final class SimulationFileLoader {
     }
 
 
+    /**
+     * Streams the lines of the simulation file {@value FILENAME_STREETS} to the given consumer.
+     * See {@link #streamSimulationFile(String, Consumer)}.
+     *
+     * @param      lineConsumer  the consumer of the lines.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    public void streamStreets(Consumer<CharSequence> lineConsumer) throws IOException {
+        streamSimulationFile(FILENAME_STREETS, lineConsumer);
+    }
+
+    /**
+     * Streams the lines of the simulation file {@value FILENAME_CROSSINGS} to the given consumer.
+     * See {@link #streamSimulationFile(String, Consumer)}.
+     *
+     * @param      lineConsumer  the consumer of the lines.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    public void streamCrossings(Consumer<CharSequence> lineConsumer) throws IOException {
+        streamSimulationFile(FILENAME_CROSSINGS, lineConsumer);
+    }
+
+    /**
+     * Streams the lines of the simulation file {@value FILENAME_CARS} to the given consumer.
+     * See {@link #streamSimulationFile(String, Consumer)}.
+     *
+     * @param      lineConsumer  the consumer of the lines.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    public void streamCars(Consumer<CharSequence> lineConsumer) throws IOException {
+        streamSimulationFile(FILENAME_CARS, lineConsumer);
+    }
+
+    /**
+     * Streams the lines of the simulation file {@value FILENAME_CARS} in parallel.
+     * See {@link #streamSimulationFileInChunks(String, Supplier)}.
+     *
+     * @param      <T>  the type of the consumers of the lines.
+     * @param      consumerFactory  the factory that creates the consumer of the lines of one chunk.
+     * @return     the consumers of the chunks in the order of the chunks in the file.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    public <T extends Consumer<CharSequence>> List<T> streamCarsInChunks(Supplier<T> consumerFactory)
+            throws IOException {
+        return streamSimulationFileInChunks(FILENAME_CARS, consumerFactory);
+    }
+
+
     private List<String> loadSimulationFile(String fileName) throws IOException {
+        return Files.readAllLines(resolveSimulationFile(fileName));
+    }
+
+    /**
+     * Streams the lines of a simulation file to the given consumer without reading the whole file into memory.
+     * The file is mapped into memory window by window, and every line is handed to the consumer as soon as its end
+     * is read. Lines are split like {@link Files#readAllLines(Path)} does. The consumer gets the same reused
+     * {@link CharSequence} for every line, so it must not keep it after it returned.
+     * The simulation files only consist of ASCII characters, so every byte is read as one character. A byte that is
+     * not ASCII becomes a character that no valid line contains.
+     *
+     * @param      fileName  the name of the simulation file.
+     * @param      lineConsumer  the consumer of the lines.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    private void streamSimulationFile(String fileName, Consumer<CharSequence> lineConsumer) throws IOException {
+        final Path filePath = resolveSimulationFile(fileName);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            streamRange(channel, 0, channel.size(), lineConsumer);
+        }
+    }
+
+    /**
+     * Streams the lines of a simulation file in parallel. The file is split at line boundaries into chunks of at
+     * least {@value CHUNK_SIZE} bytes, and every chunk is streamed to its own consumer like
+     * {@link #streamSimulationFile(String, Consumer)} does. The consumers are called by different threads at the
+     * same time, so they must not share any state. A file that is smaller than one chunk is streamed by the calling
+     * thread.
+     *
+     * @param      <T>  the type of the consumers of the lines.
+     * @param      fileName  the name of the simulation file.
+     * @param      consumerFactory  the factory that creates the consumer of the lines of one chunk.
+     * @return     the consumers of the chunks in the order of the chunks in the file.
+     * @throws     IOException  if the file does not exist or points to a directory.
+     */
+    private <T extends Consumer<CharSequence>> List<T> streamSimulationFileInChunks(String fileName,
+            Supplier<T> consumerFactory) throws IOException {
+        final Path filePath = resolveSimulationFile(fileName);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final List<Long> chunkStarts = new ArrayList<>();
+            chunkStarts.add(0L);
+            for (long offset = CHUNK_SIZE; offset < size; offset += CHUNK_SIZE) {
+                final long lineStart = findLineStart(channel, offset, size);
+                if (lineStart > chunkStarts.get(chunkStarts.size() - 1) && lineStart < size) {
+                    chunkStarts.add(lineStart);
+                }
+            }
+            chunkStarts.add(size);
+
+            final List<T> consumers = new ArrayList<>();
+            for (int chunk = 0; chunk < chunkStarts.size() - 1; chunk++) {
+                consumers.add(consumerFactory.get());
+            }
+            try {
+                IntStream.range(0, consumers.size()).parallel().forEach(chunk -> {
+                    try {
+                        streamRange(channel, chunkStarts.get(chunk), chunkStarts.get(chunk + 1), consumers.get(chunk));
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+            return consumers;
+        }
+    }
+
+    /**
+     * Streams the lines between two offsets of a file to the given consumer. The range is mapped into memory window
+     * by window. The start of the range must be the start of a line.
+     *
+     * @param      channel  the channel of the file.
+     * @param      start  the offset of the first byte of the range.
+     * @param      end  the offset after the last byte of the range.
+     * @param      lineConsumer  the consumer of the lines.
+     * @throws     IOException  if the file can't be mapped into memory.
+     */
+    private static void streamRange(FileChannel channel, long start, long end, Consumer<CharSequence> lineConsumer)
+            throws IOException {
+        final LineSplitter lineSplitter = new LineSplitter(lineConsumer);
+        long offset = start;
+        while (offset < end) {
+            final long windowSize = Math.min(MAPPING_SIZE, end - offset);
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, windowSize);
+            while (window.hasRemaining()) {
+                lineSplitter.accept(window.get());
+            }
+            offset += windowSize;
+        }
+        lineSplitter.finish();
+    }
+
+    /**
+     * Returns the offset of the first line that starts at or after the given offset.
+     *
+     * @param      channel  the channel of the file.
+     * @param      offset  the offset to search from, must be greater than zero.
+     * @param      size  the size of the file.
+     * @return     the offset of the start of the next line, or the size of the file if there's no next line.
+     * @throws     IOException  if the file can't be read.
+     */
+    private static long findLineStart(FileChannel channel, long offset, long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+        long position = offset - 1;
+        boolean afterCarriageReturn = false;
+        while (position < size) {
+            buffer.clear();
+            channel.read(buffer, position);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                final byte character = buffer.get();
+                if (afterCarriageReturn) {
+                    return character == '\n' ? position + 1 : position;
+                }
+                if (character == '\n') {
+                    return position + 1;
+                }
+                afterCarriageReturn = character == '\r';
+                position++;
+            }
+        }
+        return size;
+    }
+
+    private Path resolveSimulationFile(String fileName) throws IOException {
         final Path filePath = this.folderPath.resolve(Path.of(fileName));
         final File file = filePath.toFile();
 
@@ -98,7 +294,47 @@ public final class SimulationFileLoader {
             throw new IOException(String.format("file %s is not a normal file.", filePath.toString()));
         }
 
-        return Files.readAllLines(filePath);
+        return filePath;
+    }
+
+    /**
+     * Splits a stream of bytes into lines. A line ends with a line feed, a carriage return, or a carriage return
+     * followed by a line feed. The last line doesn't need a line terminator.
+     */
+    private static final class LineSplitter {
+
+        private static final int BYTE_MASK = 0xFF;
+
+        private final Consumer<CharSequence> lineConsumer;
+        private final StringBuilder line;
+        private boolean afterCarriageReturn;
+
+        LineSplitter(Consumer<CharSequence> lineConsumer) {
+            this.lineConsumer = lineConsumer;
+            this.line = new StringBuilder();
+            this.afterCarriageReturn = false;
+        }
+
+        void accept(byte input) {
+            final char character = (char) (input & BYTE_MASK);
+            if (character == '\n' && afterCarriageReturn) {
+                afterCarriageReturn = false;
+            } else if (character == '\n' || character == '\r') {
+                afterCarriageReturn = character == '\r';
+                lineConsumer.accept(line);
+                line.setLength(0);
+            } else {
+                afterCarriageReturn = false;
+                line.append(character);
+            }
+        }
+
+        void finish() {
+            if (!line.isEmpty()) {
+                lineConsumer.accept(line);
+                line.setLength(0);
+            }
+        }
     }
 
 }
@@ -0,0 +1,219 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+/**
+ * Parses single lines of the street, car and crossing files. Every line is scanned once character by character, and
+ * the numbers are written directly into an int array without creating intermediate strings.
+ * The accepted lines are exactly the lines that match the following regular expressions:
+ * <ul>
+ *     <li>street: {@code [0-9]+-->[0-9]+:0*(?:10|[1-9][0-9]{1,3}|10000)m,0*[1-2]x,0*(?:[5-9]|[1-3][0-9]|40)max}</li>
+ *     <li>car: {@code \d+,\d+,0*(?:20|2[1-9]|3[0-9]|40),0*(?:[1-9]|10)}</li>
+ *     <li>crossing: {@code [0-9]+:0*(0|[3456789]|10)t}</li>
+ * </ul>
+ * A number with leading zeros is accepted if its value is in the range of the regular expression. A parser keeps the
+ * state of the last parsed line, so it must not be shared between threads.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class SimulationLineParser {
+
+    private static final int STREET_PARAMETERS = 5;
+    private static final int CAR_PARAMETERS = 4;
+    private static final int CROSSING_PARAMETERS = 2;
+    private static final int START_NODE = 0;
+    private static final int END_NODE = 1;
+    private static final int LENGTH = 2;
+    private static final int STREET_TYPE = 3;
+    private static final int SPEED_LIMIT = 4;
+    private static final int ID = 0;
+    private static final int STREET = 1;
+    private static final int PREFERED_SPEED = 2;
+    private static final int ACCELERATION = 3;
+    private static final int GREEN_TIME = 1;
+    private static final int NO_NUMBER = -1;
+    private static final int DECIMAL = 10;
+    private static final String STREET_ARROW = "-->";
+    private static final String METERS = "m";
+    private static final String LANES = "x";
+    private static final String MAXIMUM_SPEED = "max";
+    private static final String TICKS = "t";
+    private static final char KOMMA = ',';
+    private static final char COLON = ':';
+    private static final int MINIMUM_LENGTH = 10;
+    private static final int MAXIMUM_LENGTH = 10000;
+    private static final int MINIMUM_LANES = 1;
+    private static final int MAXIMUM_LANES = 2;
+    private static final int MINIMUM_SPEED_LIMIT = 5;
+    private static final int MAXIMUM_SPEED_LIMIT = 40;
+    private static final int MINIMUM_CAR_SPEED = 20;
+    private static final int MAXIMUM_CAR_SPEED = 40;
+    private static final int MINIMUM_ACCELERATION = 1;
+    private static final int MAXIMUM_ACCELERATION = 10;
+    private static final int ROUNDABOUT = 0;
+    private static final int MINIMUM_GREEN_TIME = 3;
+    private static final int MAXIMUM_GREEN_TIME = 10;
+
+    private CharSequence line;
+    private int position;
+    private int firstNumberEnd;
+    private boolean tooHigh;
+
+    /**
+     * Parses a line of the street file.
+     * @param input the line to parse
+     * @return the start node, end node, length, number of lanes and speed limit of the street, or null if the line
+     * is not a valid street
+     */
+    int[] parseStreet(CharSequence input) {
+        start(input);
+        int[] street = new int[STREET_PARAMETERS];
+        street[START_NODE] = readNumber();
+        firstNumberEnd = position;
+        if (street[START_NODE] == NO_NUMBER || !expect(STREET_ARROW)) {
+            return null;
+        }
+        street[END_NODE] = readNumber();
+        if (street[END_NODE] == NO_NUMBER || !expect(COLON)) {
+            return null;
+        }
+        street[LENGTH] = readNumberInRange(MINIMUM_LENGTH, MAXIMUM_LENGTH);
+        if (street[LENGTH] == NO_NUMBER || !expect(METERS) || !expect(KOMMA)) {
+            return null;
+        }
+        street[STREET_TYPE] = readNumberInRange(MINIMUM_LANES, MAXIMUM_LANES);
+        if (street[STREET_TYPE] == NO_NUMBER || !expect(LANES) || !expect(KOMMA)) {
+            return null;
+        }
+        street[SPEED_LIMIT] = readNumberInRange(MINIMUM_SPEED_LIMIT, MAXIMUM_SPEED_LIMIT);
+        if (street[SPEED_LIMIT] == NO_NUMBER || !expect(MAXIMUM_SPEED) || !isEndOfLine()) {
+            return null;
+        }
+        return street;
+    }
+
+    /**
+     * Parses a line of the car file.
+     * @param input the line to parse
+     * @return the ID, street, preferred speed and acceleration of the car, or null if the line is not a valid car
+     */
+    int[] parseCar(CharSequence input) {
+        start(input);
+        int[] car = new int[CAR_PARAMETERS];
+        car[ID] = readNumber();
+        firstNumberEnd = position;
+        if (car[ID] == NO_NUMBER || !expect(KOMMA)) {
+            return null;
+        }
+        car[STREET] = readNumber();
+        if (car[STREET] == NO_NUMBER || !expect(KOMMA)) {
+            return null;
+        }
+        car[PREFERED_SPEED] = readNumberInRange(MINIMUM_CAR_SPEED, MAXIMUM_CAR_SPEED);
+        if (car[PREFERED_SPEED] == NO_NUMBER || !expect(KOMMA)) {
+            return null;
+        }
+        car[ACCELERATION] = readNumberInRange(MINIMUM_ACCELERATION, MAXIMUM_ACCELERATION);
+        if (car[ACCELERATION] == NO_NUMBER || !isEndOfLine()) {
+            return null;
+        }
+        return car;
+    }
+
+    /**
+     * Parses a line of the crossing file.
+     * @param input the line to parse
+     * @return the ID and green phase duration of the crossing, or null if the line is not a valid crossing
+     */
+    int[] parseCrossing(CharSequence input) {
+        start(input);
+        int[] crossing = new int[CROSSING_PARAMETERS];
+        crossing[ID] = readNumber();
+        firstNumberEnd = position;
+        if (crossing[ID] == NO_NUMBER || !expect(COLON)) {
+            return null;
+        }
+        crossing[GREEN_TIME] = readNumber();
+        if (crossing[GREEN_TIME] != ROUNDABOUT
+                && (crossing[GREEN_TIME] < MINIMUM_GREEN_TIME || crossing[GREEN_TIME] > MAXIMUM_GREEN_TIME)) {
+            return null;
+        }
+        if (!expect(TICKS) || !isEndOfLine()) {
+            return null;
+        }
+        return crossing;
+    }
+
+    /**
+     * Returns whether a number of the last parsed line is too high to parse to an int.
+     * @return true if a number of the last parsed line is too high, otherwise false
+     */
+    boolean isTooHigh() {
+        return tooHigh;
+    }
+
+    /**
+     * Returns the first number of the last parsed line as it's written in the line.
+     * @return the first number of the last parsed line
+     */
+    String getFirstNumber() {
+        return line.subSequence(0, firstNumberEnd).toString();
+    }
+
+    private void start(CharSequence input) {
+        line = input;
+        position = 0;
+        firstNumberEnd = 0;
+        tooHigh = false;
+    }
+
+    /**
+     * Reads a sequence of digits. If the number is too high for an int, the line is marked as too high.
+     * @return the value of the number, or -1 if there's no digit at the current position
+     */
+    private int readNumber() {
+        int start = position;
+        long value = 0;
+        while (position < line.length() && isDigit(line.charAt(position))) {
+            value = value * DECIMAL + (line.charAt(position) - '0');
+            if (value > Integer.MAX_VALUE) {
+                tooHigh = true;
+                value = Integer.MAX_VALUE;
+            }
+            position++;
+        }
+        return position == start ? NO_NUMBER : (int) value;
+    }
+
+    private int readNumberInRange(int minimum, int maximum) {
+        int number = readNumber();
+        if (number < minimum || number > maximum) {
+            return NO_NUMBER;
+        }
+        return number;
+    }
+
+    private boolean expect(char expected) {
+        if (position < line.length() && line.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean expect(String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (!expect(expected.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEndOfLine() {
+        return position == line.length();
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+}
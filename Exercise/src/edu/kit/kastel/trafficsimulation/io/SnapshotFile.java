@@ -0,0 +1,212 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.model.CarStore;
+import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.model.node.Node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Snapshots of the state of a street network that changes while the simulation runs. A snapshot doesn't contain
+ * the streets, crossings and cars themselves, so it can only be restored into a street network that is built from
+ * the same files.
+ * A full snapshot contains the whole state, a delta only contains the streets, cars and nodes that changed since the
+ * previous snapshot or delta. Every snapshot and delta is a checkpoint with a random ID, and a delta names the ID of
+ * the checkpoint it's based on. A delta can only be restored into a network that is exactly at this checkpoint, so
+ * a full snapshot is restored first and then the deltas in the order they were saved.
+ * All values are big-endian, a full snapshot starts with the magic number {@value MAGIC_NUMBER}, the version
+ * {@value VERSION} of the format, the ID of the checkpoint as long, the number of cars, streets and nodes of the
+ * network and the fingerprint of the network as long, see {@link StreetNetwork#getFingerprint()}. The state follows
+ * as written by {@link StreetNetwork#saveState(ByteBuffer)}. A delta starts with the magic number
+ * {@value DELTA_MAGIC_NUMBER}, the version, the ID of the checkpoint it's based on, its own ID, the number of cars,
+ * streets and nodes and the fingerprint. The changes follow as written by
+ * {@link StreetNetwork#saveChanges(ByteBuffer)}.
+ * A snapshot or delta is checked completely before anything is restored, so an invalid file or a file of another
+ * network leaves the street network untouched.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class SnapshotFile {
+
+    /**
+     * The first int of every full snapshot file.
+     */
+    public static final int MAGIC_NUMBER = 0x54525353;
+
+    /**
+     * The first int of every delta snapshot file.
+     */
+    public static final int DELTA_MAGIC_NUMBER = 0x54525344;
+
+    /**
+     * The version of the format that is written.
+     */
+    public static final int VERSION = 4;
+
+    private static final int HEADER_INTS = 5;
+    private static final int HEADER_BYTES = HEADER_INTS * Integer.BYTES + 2 * Long.BYTES;
+    private static final int DELTA_HEADER_BYTES = HEADER_BYTES + Long.BYTES;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private SnapshotFile() {
+        throw new IllegalStateException(ExceptionMessages.UTILITY_CLASS_INSTANTIATION.format());
+    }
+
+    /**
+     * Writes the whole state of the given street network to a snapshot file. An existing file is overwritten.
+     * Afterwards the changes of the street network are tracked from this snapshot on.
+     * @throws SimulationException if the file can't be written
+     * @param streetNetwork the street network to save
+     * @param filePath the path of the snapshot file
+     */
+    public static void write(StreetNetwork streetNetwork, String filePath) {
+        long checkpointID = newCheckpointID();
+        ByteBuffer output = ByteBuffer.allocate(toBufferSize(HEADER_BYTES + stateSize(streetNetwork), filePath));
+        output.putInt(MAGIC_NUMBER);
+        output.putInt(VERSION);
+        output.putLong(checkpointID);
+        putNetwork(streetNetwork, output);
+        streetNetwork.saveState(output);
+        writeFile(output, filePath);
+        streetNetwork.markCheckpoint(checkpointID);
+    }
+
+    /**
+     * Writes the changes of the given street network since its last checkpoint to a delta snapshot file. An existing
+     * file is overwritten. Afterwards the changes of the street network are tracked from this delta on.
+     * @throws SimulationException if the street network has no checkpoint yet or the file can't be written
+     * @param streetNetwork the street network to save
+     * @param filePath the path of the delta snapshot file
+     */
+    public static void writeDelta(StreetNetwork streetNetwork, String filePath) {
+        if (streetNetwork.getCheckpointID() == StreetNetwork.NO_CHECKPOINT) {
+            throw new SimulationException(ExceptionMessages.NO_CHECKPOINT.format());
+        }
+        long checkpointID = newCheckpointID();
+        long size = DELTA_HEADER_BYTES + streetNetwork.getChangesSize() * Integer.BYTES;
+        ByteBuffer output = ByteBuffer.allocate(toBufferSize(size, filePath));
+        output.putInt(DELTA_MAGIC_NUMBER);
+        output.putInt(VERSION);
+        output.putLong(streetNetwork.getCheckpointID());
+        output.putLong(checkpointID);
+        putNetwork(streetNetwork, output);
+        streetNetwork.saveChanges(output);
+        writeFile(output, filePath);
+        streetNetwork.markCheckpoint(checkpointID);
+    }
+
+    /**
+     * Restores the whole state of the given street network from a snapshot file. The file is mapped into memory. The
+     * whole file is checked before the state is changed, so an invalid snapshot leaves the street network untouched.
+     * @throws SimulationException if the file can't be read or isn't a snapshot of the given street network
+     * @param streetNetwork the street network to restore
+     * @param filePath the path of the snapshot file
+     */
+    public static void read(StreetNetwork streetNetwork, String filePath) {
+        ByteBuffer input = mapFile(filePath);
+        if (input.remaining() != HEADER_BYTES + stateSize(streetNetwork)
+                || input.getInt() != MAGIC_NUMBER || input.getInt() != VERSION) {
+            throw new SimulationException(ExceptionMessages.INVALID_SNAPSHOT_FILE.format(filePath));
+        }
+        long checkpointID = input.getLong();
+        if (!matchesNetwork(streetNetwork, input) || !streetNetwork.isValidState(input)) {
+            throw new SimulationException(ExceptionMessages.INVALID_SNAPSHOT_FILE.format(filePath));
+        }
+        streetNetwork.restoreState(input);
+        streetNetwork.markCheckpoint(checkpointID);
+    }
+
+    /**
+     * Applies the changes of a delta snapshot file to the given street network. The street network must be at the
+     * checkpoint the delta is based on and must not be updated since. The whole file is checked before the state is
+     * changed, so an invalid delta leaves the street network untouched.
+     * @throws SimulationException if the file can't be read or isn't the next delta of the street network
+     * @param streetNetwork the street network to restore
+     * @param filePath the path of the delta snapshot file
+     */
+    public static void readDelta(StreetNetwork streetNetwork, String filePath) {
+        ByteBuffer input = mapFile(filePath);
+        if (input.remaining() < DELTA_HEADER_BYTES
+                || input.getInt() != DELTA_MAGIC_NUMBER || input.getInt() != VERSION) {
+            throw new SimulationException(ExceptionMessages.INVALID_SNAPSHOT_FILE.format(filePath));
+        }
+        long baseCheckpointID = input.getLong();
+        long checkpointID = input.getLong();
+        if (!matchesNetwork(streetNetwork, input) || !streetNetwork.isValidChanges(input)) {
+            throw new SimulationException(ExceptionMessages.INVALID_SNAPSHOT_FILE.format(filePath));
+        }
+        if (baseCheckpointID != streetNetwork.getCheckpointID() || streetNetwork.isUpdatedSinceCheckpoint()) {
+            throw new SimulationException(ExceptionMessages.DELTA_NOT_AT_CHECKPOINT.format(filePath));
+        }
+        streetNetwork.restoreChanges(input);
+        streetNetwork.markCheckpoint(checkpointID);
+    }
+
+    private static long newCheckpointID() {
+        return ThreadLocalRandom.current().nextLong(StreetNetwork.NO_CHECKPOINT + 1, Long.MAX_VALUE);
+    }
+
+    private static void putNetwork(StreetNetwork streetNetwork, ByteBuffer output) {
+        output.putInt(streetNetwork.getNumberOfCars());
+        output.putInt(streetNetwork.getNumberOfStreets());
+        output.putInt(streetNetwork.getNumberOfNodes());
+        output.putLong(streetNetwork.getFingerprint());
+    }
+
+    private static boolean matchesNetwork(StreetNetwork streetNetwork, ByteBuffer input) {
+        return input.getInt() == streetNetwork.getNumberOfCars()
+                && input.getInt() == streetNetwork.getNumberOfStreets()
+                && input.getInt() == streetNetwork.getNumberOfNodes()
+                && input.getLong() == streetNetwork.getFingerprint();
+    }
+
+    /**
+     * Returns the size of the whole state of the given street network in bytes. Every car is on exactly one street,
+     * so the order of the cars on the streets takes one int per street and one int per car.
+     * @param streetNetwork the street network
+     * @return the size of the state in bytes
+     */
+    private static long stateSize(StreetNetwork streetNetwork) {
+        long values = (long) streetNetwork.getNumberOfCars() * (CarStore.STATE_VALUES + 1)
+                + streetNetwork.getNumberOfStreets()
+                + (long) streetNetwork.getNumberOfNodes() * Node.STATE_VALUES;
+        return values * Integer.BYTES;
+    }
+
+    private static int toBufferSize(long size, String filePath) {
+        if (size > Integer.MAX_VALUE) {
+            throw new SimulationException(ExceptionMessages.INVALID_SNAPSHOT_FILE.format(filePath));
+        }
+        return (int) size;
+    }
+
+    private static void writeFile(ByteBuffer output, String filePath) {
+        output.flip();
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(filePath));
+        }
+    }
+
+    private static ByteBuffer mapFile(String filePath) {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            toBufferSize(channel.size(), filePath);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.FILE_NOT_ACCESSIBLE.format(filePath));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.model.ShardExchange;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects the shards of a street network that run in different processes on one machine over local sockets.
+ * Every pair of shards shares one socket: a shard connects to the shards with lower indices and accepts the
+ * connections of the shards with higher indices. A message is sent as its length followed by its bytes.
+ * Every socket has a background thread that receives the messages, so two shards that send large messages to each
+ * other at the same time never wait for each other.
+ * A shard that doesn't send a message for {@value RECEIVE_TIMEOUT_MILLIS} milliseconds, because it died or hangs, is
+ * treated as lost, so the other shards fail instead of waiting for it forever.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class SocketShardExchange implements ShardExchange, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String THREAD_NAME = "shard-receiver-";
+    private static final long RECEIVE_TIMEOUT_MILLIS = 60000;
+    /**
+     * The message that tells that the connection to a shard is lost.
+     */
+    private static final ByteBuffer CONNECTION_LOST = ByteBuffer.allocate(0);
+
+    private final int shard;
+    private final List<Socket> sockets;
+    private final List<DataOutputStream> outputs;
+    private final List<BlockingQueue<ByteBuffer>> inputs;
+
+    /**
+     * Connects the given shard to all other shards and starts receiving their messages.
+     * @param shard the index of this shard
+     * @param serverSocket the server socket of this shard, the shards with higher indices connect to it
+     * @param ports the ports of the server sockets of all shards on the local machine, indexed by the shards
+     * @throws SimulationException if a shard can't be connected
+     */
+    public SocketShardExchange(int shard, ServerSocket serverSocket, int[] ports) {
+        this.shard = shard;
+        this.sockets = new ArrayList<>();
+        this.outputs = new ArrayList<>();
+        this.inputs = new ArrayList<>();
+        for (int i = 0; i < ports.length; i++) {
+            sockets.add(null);
+            outputs.add(null);
+            inputs.add(new LinkedBlockingQueue<>());
+        }
+        for (int i = 0; i < shard; i++) {
+            connect(i, ports[i]);
+        }
+        for (int i = shard + 1; i < ports.length; i++) {
+            accept(serverSocket);
+        }
+    }
+
+    @Override
+    public ByteBuffer[] exchange(ByteBuffer[] messages) {
+        for (int i = 0; i < messages.length; i++) {
+            if (messages[i] != null) {
+                send(i, messages[i]);
+            }
+        }
+        ByteBuffer[] received = new ByteBuffer[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            if (messages[i] != null) {
+                received[i] = receive(i);
+            }
+        }
+        return received;
+    }
+
+    /**
+     * Closes the connections to all other shards.
+     */
+    @Override
+    public void close() {
+        for (Socket socket : sockets) {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException exception) {
+                    // the connection is given up anyway
+                }
+            }
+        }
+    }
+
+    private void connect(int otherShard, int port) {
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            DataOutputStream output = register(otherShard, socket);
+            output.writeInt(shard);
+            output.flush();
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.SHARD_CONNECTION_LOST.format(otherShard));
+        }
+    }
+
+    private void accept(ServerSocket serverSocket) {
+        try {
+            Socket socket = serverSocket.accept();
+            int otherShard = new DataInputStream(socket.getInputStream()).readInt();
+            register(otherShard, socket);
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.SHARDS_NOT_STARTED.format());
+        }
+    }
+
+    private DataOutputStream register(int otherShard, Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                BUFFER_SIZE));
+        DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        sockets.set(otherShard, socket);
+        outputs.set(otherShard, output);
+        Thread receiver = new Thread(() -> receiveMessages(input, inputs.get(otherShard)), THREAD_NAME + otherShard);
+        receiver.setDaemon(true);
+        receiver.start();
+        return output;
+    }
+
+    /**
+     * Receives the messages of one shard until the connection is closed, runs in the background thread of the socket.
+     */
+    private static void receiveMessages(DataInputStream input, BlockingQueue<ByteBuffer> messages) {
+        try {
+            while (true) {
+                byte[] message = new byte[input.readInt()];
+                input.readFully(message);
+                messages.add(ByteBuffer.wrap(message));
+            }
+        } catch (IOException exception) {
+            messages.add(CONNECTION_LOST);
+        }
+    }
+
+    private void send(int otherShard, ByteBuffer message) {
+        DataOutputStream output = outputs.get(otherShard);
+        try {
+            output.writeInt(message.remaining());
+            if (message.hasArray()) {
+                output.write(message.array(), message.arrayOffset() + message.position(), message.remaining());
+            } else {
+                byte[] bytes = new byte[message.remaining()];
+                message.duplicate().get(bytes);
+                output.write(bytes);
+            }
+            output.flush();
+        } catch (IOException exception) {
+            throw new SimulationException(ExceptionMessages.SHARD_CONNECTION_LOST.format(otherShard));
+        }
+    }
+
+    private ByteBuffer receive(int otherShard) {
+        try {
+            ByteBuffer message = inputs.get(otherShard).poll(RECEIVE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (message == null || message == CONNECTION_LOST) {
+                throw new SimulationException(ExceptionMessages.SHARD_CONNECTION_LOST.format(otherShard));
+            }
+            return message;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SimulationException(ExceptionMessages.SHARD_CONNECTION_LOST.format(otherShard));
+        }
+    }
+}
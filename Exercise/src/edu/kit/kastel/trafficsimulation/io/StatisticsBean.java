@@ -0,0 +1,135 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.model.TickStatistics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes the statistics of the current simulation of a session as MBean on the platform MBean server. The bean
+ * always shows the simulation that is currently loaded in the session, so it stays registered when another street
+ * network is loaded. Every session has its own bean, named after the session.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class StatisticsBean implements StatisticsMXBean {
+
+    /**
+     * The name the bean is registered with, followed by the quoted name of the session.
+     */
+    public static final String OBJECT_NAME = "edu.kit.kastel.trafficsimulation:type=Statistics,session=";
+
+    private final Session session;
+
+    private StatisticsBean(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Registers the bean of the given session on the platform MBean server, if it isn't registered yet.
+     * @param session the session whose statistics are published
+     * @throws SimulationException if the bean can't be registered
+     */
+    public static void register(Session session) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME + ObjectName.quote(session.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StatisticsBean(session), name);
+            }
+        } catch (JMException exception) {
+            throw new SimulationException(ExceptionMessages.STATISTICS_NOT_PUBLISHED.format());
+        }
+    }
+
+    /**
+     * Unregisters the bean of the given session from the platform MBean server, if it's registered.
+     * @param session the session whose statistics aren't published any more
+     * @throws SimulationException if the bean can't be unregistered
+     */
+    public static void unregister(Session session) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME + ObjectName.quote(session.getName()));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException exception) {
+            throw new SimulationException(ExceptionMessages.STATISTICS_NOT_PUBLISHED.format());
+        }
+    }
+
+    @Override
+    public long getTicks() {
+        return session.getSimulation().getTickStatistics().getTicks();
+    }
+
+    @Override
+    public long getSkippedTicks() {
+        return session.getSimulation().getTickStatistics().getSkippedTicks();
+    }
+
+    @Override
+    public long getTimedTicks() {
+        return session.getSimulation().getTickStatistics().getTimedTicks();
+    }
+
+    @Override
+    public long getStreetPhaseNanos() {
+        return session.getSimulation().getTickStatistics().getNanos(TickStatistics.Phase.STREETS);
+    }
+
+    @Override
+    public long getNodePhaseNanos() {
+        return session.getSimulation().getTickStatistics().getNanos(TickStatistics.Phase.NODES);
+    }
+
+    @Override
+    public long getResetPhaseNanos() {
+        return session.getSimulation().getTickStatistics().getNanos(TickStatistics.Phase.RESET);
+    }
+
+    @Override
+    public long getStreetPhaseNanosPerTick() {
+        return session.getSimulation().getTickStatistics().getNanosPerTick(TickStatistics.Phase.STREETS);
+    }
+
+    @Override
+    public long getNodePhaseNanosPerTick() {
+        return session.getSimulation().getTickStatistics().getNanosPerTick(TickStatistics.Phase.NODES);
+    }
+
+    @Override
+    public long getResetPhaseNanosPerTick() {
+        return session.getSimulation().getTickStatistics().getNanosPerTick(TickStatistics.Phase.RESET);
+    }
+
+    @Override
+    public long getMovedCars() {
+        return session.getSimulation().getStreetStatistics().getMovedCars();
+    }
+
+    @Override
+    public long getTurnedCars() {
+        return session.getSimulation().getStreetStatistics().getTurnedCars();
+    }
+
+    @Override
+    public long getOvertakes() {
+        return session.getSimulation().getStreetStatistics().getOvertakes();
+    }
+
+    @Override
+    public long getStoppedCars() {
+        return session.getSimulation().getStreetStatistics().getStoppedCars();
+    }
+
+    @Override
+    public long getBlockedCars() {
+        return session.getSimulation().getStreetStatistics().getBlockedCars();
+    }
+}
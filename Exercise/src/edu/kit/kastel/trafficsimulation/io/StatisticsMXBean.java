@@ -0,0 +1,96 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+/**
+ * The management interface of the statistics of the current simulation, so they can be watched with a JMX client
+ * while the simulation runs. The values are read without stopping the simulation, so they are approximate while a
+ * tick is computed.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public interface StatisticsMXBean {
+
+    /**
+     * Returns the number of ticks that were updated one by one.
+     * @return the number of updated ticks
+     */
+    long getTicks();
+
+    /**
+     * Returns the number of ticks that were skipped, because the cars only cruised.
+     * @return the number of skipped ticks
+     */
+    long getSkippedTicks();
+
+    /**
+     * Returns the number of ticks that were updated while timing was enabled.
+     * @return the number of timed ticks
+     */
+    long getTimedTicks();
+
+    /**
+     * Returns the total wall time of the street phase of all timed ticks.
+     * @return the wall time in nanoseconds
+     */
+    long getStreetPhaseNanos();
+
+    /**
+     * Returns the total wall time of the node phase of all timed ticks.
+     * @return the wall time in nanoseconds
+     */
+    long getNodePhaseNanos();
+
+    /**
+     * Returns the total wall time of the reset phase of all timed ticks.
+     * @return the wall time in nanoseconds
+     */
+    long getResetPhaseNanos();
+
+    /**
+     * Returns the average wall time of the street phase of a timed tick.
+     * @return the wall time in nanoseconds, or zero if no tick was timed
+     */
+    long getStreetPhaseNanosPerTick();
+
+    /**
+     * Returns the average wall time of the node phase of a timed tick.
+     * @return the wall time in nanoseconds, or zero if no tick was timed
+     */
+    long getNodePhaseNanosPerTick();
+
+    /**
+     * Returns the average wall time of the reset phase of a timed tick.
+     * @return the wall time in nanoseconds, or zero if no tick was timed
+     */
+    long getResetPhaseNanosPerTick();
+
+    /**
+     * Returns how often a car changed its position in a tick.
+     * @return the number of car moves
+     */
+    long getMovedCars();
+
+    /**
+     * Returns how often a car turned onto a new street.
+     * @return the number of turns
+     */
+    long getTurnedCars();
+
+    /**
+     * Returns how often a car overtook on a fast track street.
+     * @return the number of overtakes
+     */
+    long getOvertakes();
+
+    /**
+     * Returns how often a driving car was stopped in traffic.
+     * @return the number of stopped cars
+     */
+    long getStoppedCars();
+
+    /**
+     * Returns how often a car reached the end of its street while the end node was red for it.
+     * @return the number of cars blocked at red lights
+     */
+    long getBlockedCars();
+}
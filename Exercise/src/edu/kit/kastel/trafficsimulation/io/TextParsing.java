@@ -6,50 +6,32 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Encapsulations the object to parse the input of car, crossings and street files.
+ * The lines are validated and parsed by a {@link SimulationLineParser} that scans every line only once, so the
+ * grammar of the files is not matched against regular expressions any more.
+ * The files are streamed line by line into the parser, so the text of the files is never held in memory as a whole.
+ * Every file gets its own parser, so the files can be validated by different threads at the same time, and large car
+ * files are split into chunks that are parsed in parallel.
  *
  * @author uyxib
  * @version 1.0
  */
 public class TextParsing {
-    /**
-     * the regex that matches one line with the parameters of a street
-     */
-
-    private static final String STREET_REGEX = "^[0-9]+-->[0-9]+:0*(?:10|[1-9][0-9]{1,3}|10000)m,"
-            + "0*[1-2]x,0*(?:[5-9]|[1-3][0-9]|40)max$";
-    /**
-     * the regex that matches one line with the parameters of a car
-     */
-    private static final String CAR_REGEX = "^\\d+,\\d+,0*(?:20|2[1-9]|3[0-9]|40),0*(?:[1-9]|10)$";
-    /**
-     * the regex that matches one line with the parameters of a crossing
-     */
-    private static final String CROSSING_REGEX = "^[0-9]+:0*(0|[3456789]|10)t$";
     private static final String CROSSING = "crossing";
     private static final String CAR = "car";
     private static final String STREET = "street";
-    private static final String KOMMA = ",";
-    private static final String COLON = ":";
-    private static final String STREET_SPLIT = "\\d+";
     private final SimulationFileLoader simulationFileLoader;
-    private List<String> carInput;
-    private List<String> streetInput;
-    private List<String> crossingInput;
 
     /**
-     * instantiates a new textParser with the simulationFileLoader, and empty List of cars, crossings and streets
+     * instantiates a new textParser with the simulationFileLoader
      * @param filePath filePath where the files a located to read the files
      */
 
     public TextParsing(String filePath) {
-        this.carInput = new ArrayList<>();
-        this.crossingInput = new ArrayList<>();
-        this.streetInput = new ArrayList<>();
         try {
             this.simulationFileLoader = new SimulationFileLoader(filePath);
         } catch (IOException exception) {
@@ -65,18 +47,13 @@ public class TextParsing {
      */
 
     public List<int[]> validateCrossings() {
-        List<int[]> crossingParameters = new ArrayList<>();
+        ParameterCollector collector = new ParameterCollector(SimulationLineParser::parseCrossing, CROSSING);
         try {
-            crossingInput = simulationFileLoader.loadCrossings();
+            simulationFileLoader.streamCrossings(collector);
         } catch (IOException exception) {
             throw new SimulationException(exception.getMessage());
         }
-        validatePatternMatch(crossingInput, CROSSING_REGEX, CROSSING);
-        for (String inputRow : crossingInput) {
-            String[] crossingParameter = getSplitString(inputRow, COLON);
-            crossingParameter[1] = removeLastChar(crossingParameter[1]);
-            crossingParameters.add(stringArrayToInt(crossingParameter));
-        }
+        List<int[]> crossingParameters = collector.getParameters();
         sortNodes(crossingParameters);
         return crossingParameters;
     }
@@ -89,16 +66,23 @@ public class TextParsing {
      */
 
     public List<int[]> validateCars() {
-        List<int[]> carParameters = new ArrayList<>();
+        List<ParameterCollector> chunks;
         try {
-            carInput = simulationFileLoader.loadCars();
+            chunks = simulationFileLoader.streamCarsInChunks(
+                () -> new ParameterCollector(SimulationLineParser::parseCar, CAR));
         } catch (IOException exception) {
             throw new SimulationException(exception.getMessage());
         }
-        validatePatternMatch(carInput, CAR_REGEX, CAR);
-        for (String inputRow : carInput) {
-            String[] carParameter = getSplitString(inputRow, KOMMA);
-            carParameters.add(stringArrayToInt(carParameter));
+        for (ParameterCollector chunk : chunks) {
+            chunk.validateLines();
+        }
+        int numberOfCars = 0;
+        for (ParameterCollector chunk : chunks) {
+            numberOfCars += chunk.getParameters().size();
+        }
+        List<int[]> carParameters = new ArrayList<>(numberOfCars);
+        for (ParameterCollector chunk : chunks) {
+            carParameters.addAll(chunk.getParameters());
         }
         return carParameters;
     }
@@ -110,69 +94,95 @@ public class TextParsing {
      * @return list of Integers Arrays, Every integer array entry contains the int values of a crossing
      */
     public List<int[]> validateStreets() {
-        List<int[]> streetParameters = new ArrayList<>();
+        ParameterCollector collector = new ParameterCollector(SimulationLineParser::parseStreet, STREET);
         try {
-            streetInput = simulationFileLoader.loadStreets();
+            simulationFileLoader.streamStreets(collector);
         } catch (IOException exception) {
             throw new SimulationException(exception.getMessage());
         }
-        validatePatternMatch(streetInput, STREET_REGEX, STREET);
-        for (String inputRow : streetInput) {
-            String[] streetParameter = extractNumbers(inputRow);
-            streetParameters.add(stringArrayToInt(streetParameter));
-        }
-        return streetParameters;
+        return collector.getParameters();
     }
 
-    private void validatePatternMatch(List<String> inputList, String regex, String file) {
-        for (String string : inputList) {
-            if (!string.matches(regex)) {
-                throw new SimulationException(ExceptionMessages.NO_VALID_STRING_LINE.format(file, file));
+    private void sortNodes(List<int[]> crossingParameters) {
+        crossingParameters.sort(new Comparator<>() {
+            private static final int INDEX = 0;
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                return Integer.compare(o1[INDEX], o2[INDEX]);
             }
-        }
+        });
     }
 
-    private String[] getSplitString(String input, String split) {
-        return input.split(split);
-    }
 
-    private int[] stringArrayToInt(String[] stringArray) {
-        int[] intArray = new int[stringArray.length];
-        for (int i = 0; i < stringArray.length; i++) {
-            try {
-                intArray[i] = Integer.parseInt(stringArray[i]);
-            } catch (NumberFormatException exception) {
-                throw new SimulationException(ExceptionMessages.TO_HIGH_NOT_NUMERIC.format(stringArray));
-            }
+    /**
+     * Collects the parameters of the lines of one file, or of one chunk of a file, while it's streamed. After the
+     * first invalid line the following lines are ignored. An invalid line is reported before a number that is too
+     * high, otherwise the first line with a number that is too high is reported with its first number.
+     */
+    private static final class ParameterCollector implements Consumer<CharSequence> {
+
+        private final SimulationLineParser lineParser;
+        private final BiFunction<SimulationLineParser, CharSequence, int[]> parser;
+        private final String file;
+        private final List<int[]> parameters;
+        private boolean invalidLine;
+        private String tooHighNumber;
+
+        /**
+         * Creates a new collector for one file with its own line parser.
+         * @param parser the method of the line parser that parses one line of the file
+         * @param file the name of the kind of file
+         */
+        ParameterCollector(BiFunction<SimulationLineParser, CharSequence, int[]> parser, String file) {
+            this.lineParser = new SimulationLineParser();
+            this.parser = parser;
+            this.file = file;
+            this.parameters = new ArrayList<>();
+            this.invalidLine = false;
+            this.tooHighNumber = null;
         }
-        return intArray;
-    }
 
-    private String removeLastChar(String stringToRemove) {
-        return stringToRemove.substring(0, stringToRemove.length() - 1);
-    }
-
-    private static String[] extractNumbers(String input) {
-        String[] output = new String[5];
-        Pattern pattern = Pattern.compile(STREET_SPLIT);
-        Matcher matcher = pattern.matcher(input);
+        /**
+         * Parses one line of the file.
+         * @param line the line to parse
+         */
+        @Override
+        public void accept(CharSequence line) {
+            if (invalidLine) {
+                return;
+            }
+            int[] parameter = parser.apply(lineParser, line);
+            if (parameter == null) {
+                invalidLine = true;
+                return;
+            }
+            if (tooHighNumber == null && lineParser.isTooHigh()) {
+                tooHighNumber = lineParser.getFirstNumber();
+            }
+            parameters.add(parameter);
+        }
 
-        int i = 0;
-        while (matcher.find() && i < 5) {
-            output[i] = matcher.group();
-            i++;
+        /**
+         * Checks that all lines of the file are valid.
+         * @throws SimulationException if a line is invalid
+         */
+        void validateLines() {
+            if (invalidLine) {
+                throw new SimulationException(ExceptionMessages.NO_VALID_STRING_LINE.format(file, file));
+            }
         }
-        return output;
-    }
 
-    private void sortNodes(List<int[]> crossingParameters) {
-        crossingParameters.sort(new Comparator<>() {
-            private static final int INDEX = 0;
-            @Override
-            public int compare(int[] o1, int[] o2) {
-                return Integer.compare(o1[INDEX], o2[INDEX]);
+        /**
+         * Returns the parameters of all lines of the file.
+         * @throws SimulationException if a line is invalid or contains a number that is too high
+         * @return list of Integers Arrays, Every integer array entry contains the int values of one line
+         */
+        List<int[]> getParameters() {
+            validateLines();
+            if (tooHighNumber != null) {
+                throw new SimulationException(ExceptionMessages.TO_HIGH_NOT_NUMERIC.format(tooHighNumber));
             }
-        });
+            return parameters;
+        }
     }
-
 }
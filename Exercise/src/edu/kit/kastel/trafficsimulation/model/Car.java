@@ -8,6 +8,7 @@ import edu.kit.kastel.trafficsimulation.model.street.Street;
  * models a car in the traffic simulation
  * a car has a specific desired speed, can accelerate, has a current speed, a current location with the position
  * and the street id and know if it already moved in one tick or not
+ * The state of the car is held in one slot of a {@link CarStore}, the car itself is only a view on this slot.
  * It implements the Updatable interface which means it can be updated in each time step ("tick") of the simulation.
  *
  * @author uyxib
@@ -22,44 +23,18 @@ public class Car implements Updatable {
      * the beginning of a street is position 0 meters
      */
     public static final int BEGINNING_OF_STREET = 0;
-    private static final int START_SPEED = 0;
-    private static final int START_DESIRED_STREET = 0;
-    private static final int NO_REMAINING_METERS = 0;
-
-    private int acceleration;
-    private int desiredStreet;
-    private final int preferredSpeed;
-    private int currentSpeed;
-    private int currentStreet;
-    private final int carID;
-    private int currentPosition;
-    private int oldPosition;
-    /**
-     * remaining meters a car can drive after the end of a street. If remaining meters > 0 check if car can cross street
-     */
-    private int remainingMeters;
-    private boolean isMoved;
-    private boolean isDriven;
+
+    private final CarStore store;
+    private final int slot;
 
     /**
-     * Creates a new Car object with the given parameters.
-     * @param carID The ID of the car
-     * @param currentStreet The current street of the car
-     * @param preferredSpeed The preferred speed of the car
-     * @param acceleration The acceleration of the car
+     * Creates a new Car object as a view on the given slot of the car store.
+     * @param store the store that holds the state of the car
+     * @param slot the slot of the car in the store
      */
-    public Car(int carID, int currentStreet, int preferredSpeed, int acceleration) {
-        this.acceleration = acceleration;
-        this.desiredStreet = START_DESIRED_STREET;
-        this.currentSpeed = START_SPEED;
-        this.currentStreet = currentStreet;
-        this.carID = carID;
-        this.preferredSpeed = preferredSpeed;
-        this.currentPosition = NO_DRIVE;
-        this.oldPosition = NO_DRIVE;
-        this.remainingMeters = NO_REMAINING_METERS;
-        this.isMoved = false;
-        this.isDriven = false;
+    public Car(CarStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
     }
 
     /**
@@ -68,7 +43,26 @@ public class Car implements Updatable {
      */
     @Override
     public String toString() {
-        return Messages.CAR_POSITION.format(this.carID, this.currentStreet, this.currentSpeed, this.currentPosition);
+        return appendPosition(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the String where the car is located with the car ID, currentStreet, currentSpeed and the
+     * currentPosition to the given builder
+     * @param builder the builder to append the position of the car to
+     * @return the given builder
+     */
+    public StringBuilder appendPosition(StringBuilder builder) {
+        return Messages.CAR_POSITION.append(builder, store.getCarID(slot), store.getStreet(slot),
+                store.getSpeed(slot), store.getPosition(slot));
+    }
+
+    /**
+     * Returns the slot of the car in its car store.
+     * @return the slot of the car
+     */
+    public int getSlot() {
+        return slot;
     }
 
     /**
@@ -83,10 +77,11 @@ public class Car implements Updatable {
      * Changes the car's desired street based on the current desired street.
      */
     private void changeDesiredStreet() {
+        int desiredStreet = store.getDesiredStreet(slot);
         if (desiredStreet < Node.MAXIMUM_STREETS) {
-            desiredStreet++;
+            store.setDesiredStreet(slot, desiredStreet + 1);
         } else if (desiredStreet == Node.MAXIMUM_STREETS) {
-            desiredStreet = Node.START_STREET;
+            store.setDesiredStreet(slot, Node.START_STREET);
         }
     }
 
@@ -98,8 +93,8 @@ public class Car implements Updatable {
      * @param speedLimit the maximum speed limit for the vehicle
      */
     public void accelerate(int speedLimit) {
-        int newSpeed = Math.min((currentSpeed + acceleration), speedLimit);
-        currentSpeed = Math.min(newSpeed, preferredSpeed);
+        int newSpeed = Math.min((store.getSpeed(slot) + store.getAcceleration(slot)), speedLimit);
+        store.setSpeed(slot, Math.min(newSpeed, store.getPreferredSpeed(slot)));
     }
 
     /**
@@ -116,35 +111,42 @@ public class Car implements Updatable {
      * @param length length of the current street
      */
     public void drive(int distance, int length, int currentSpeed) {
-        oldPosition = currentPosition;
+        int oldPosition = store.getPosition(slot);
+        int currentPosition = oldPosition;
+        store.setOldPosition(slot, oldPosition);
         int metersToGo = length - currentPosition;
         if (metersToGo >= currentSpeed) {
             if ((distance == Street.NO_CAR_IN_FRONT) || (distance >= (currentSpeed + Street.SAVE_DISTANCE))) {
                 currentPosition = currentPosition + currentSpeed;
             } else {
                 currentPosition = currentPosition + (distance - Street.SAVE_DISTANCE);
-                remainingMeters = currentSpeed - (currentPosition - oldPosition);
+                store.setRemainingMeters(slot, currentSpeed - (currentPosition - oldPosition));
             }
         } else {
-            remainingMeters = currentSpeed - metersToGo;
+            store.setRemainingMeters(slot, currentSpeed - metersToGo);
             if ((distance == Street.NO_CAR_IN_FRONT) || (distance >= (metersToGo + Street.SAVE_DISTANCE))) {
                 currentPosition = currentPosition + metersToGo;
             } else {
                 currentPosition = currentPosition + (distance - Street.SAVE_DISTANCE);
             }
         }
+        store.setPosition(slot, currentPosition);
         validateDriveForward();
-        isMoved = true;
+        store.setMoved(slot);
+        if (currentPosition != oldPosition) {
+            report(CarEvent.MOVE);
+        }
     }
 
     /**
-     * Resets the car's is moved attribut to false so in this tick the car hasn't moved so far
+     * Moves the car the given meters forward past the car in front of it and uses the meters up from its remaining
+     * meters of the tick.
+     * @param meters the meters the car drives to overtake
      */
-    public void resetMoveParameters() {
-        isMoved = false;
-        isDriven = false;
-        remainingMeters = NO_REMAINING_METERS;
-        oldPosition = NO_DRIVE;
+    public void overtake(int meters) {
+        store.setPosition(slot, store.getPosition(slot) + meters);
+        store.setRemainingMeters(slot, store.getRemainingMeters(slot) - meters);
+        report(CarEvent.OVERTAKE);
     }
 
     /**
@@ -159,10 +161,11 @@ public class Car implements Updatable {
      */
     public boolean turn(Street newStreet) {
         if ((newStreet.getCars().isEmpty()
-                || newStreet.getCars().getLast().getCurrentPosition() >= Street.SAVE_DISTANCE)
-                && remainingMeters > NO_REMAINING_METERS) {
-            currentPosition = BEGINNING_OF_STREET;
-            currentStreet = newStreet.getStreetID();
+                || newStreet.getLastCarPosition() >= Street.SAVE_DISTANCE)
+                && store.getRemainingMeters(slot) > CarStore.NO_REMAINING_METERS) {
+            store.setPosition(slot, BEGINNING_OF_STREET);
+            store.setStreet(slot, newStreet.getStreetID());
+            report(CarEvent.TURN);
             return true;
         }
         return false;
@@ -171,11 +174,15 @@ public class Car implements Updatable {
     /**
      * Resets the car's speed in traffic to the starting speed. if there's no traffic method does nothing
      * @param hasOvertaken true if car has overtaken, otherwise false
+     * @return true if the car was driving and is stopped now, otherwise false
      */
-    public void resetSpeedInTraffic(boolean hasOvertaken) {
-        if (!hasOvertaken && !isDriven) {
-            currentSpeed = START_SPEED;
+    public boolean resetSpeedInTraffic(boolean hasOvertaken) {
+        if (hasOvertaken || store.isDriven(slot) || store.getSpeed(slot) == CarStore.START_SPEED) {
+            return false;
         }
+        store.setSpeed(slot, CarStore.START_SPEED);
+        report(CarEvent.STOP);
+        return true;
     }
 
     /**
@@ -184,7 +191,17 @@ public class Car implements Updatable {
      */
 
     public int getDesiredStreet() {
-        return desiredStreet;
+        return store.getDesiredStreet(slot);
+    }
+
+    /**
+     * Returns whether the car drives at the highest speed it can reach on a street with the given speed limit, so
+     * accelerating doesn't change its speed any more.
+     * @param speedLimit the speed limit of the street
+     * @return true if the car drives at its highest speed, otherwise false
+     */
+    public boolean isAtTopSpeed(int speedLimit) {
+        return store.getSpeed(slot) == Math.min(speedLimit, store.getPreferredSpeed(slot));
     }
 
     /**
@@ -192,7 +209,7 @@ public class Car implements Updatable {
      * @return the current speed of the car
      */
     public int getCurrentSpeed() {
-        return currentSpeed;
+        return store.getSpeed(slot);
     }
 
 
@@ -202,7 +219,7 @@ public class Car implements Updatable {
      */
 
     public int getCurrentStreet() {
-        return currentStreet;
+        return store.getStreet(slot);
     }
 
     /**
@@ -211,7 +228,7 @@ public class Car implements Updatable {
      */
 
     public int getCarID() {
-        return carID;
+        return store.getCarID(slot);
     }
 
     /**
@@ -220,7 +237,7 @@ public class Car implements Updatable {
      */
 
     public int getCurrentPosition() {
-        return currentPosition;
+        return store.getPosition(slot);
     }
 
     /**
@@ -229,7 +246,7 @@ public class Car implements Updatable {
      */
 
     public void setCurrentPosition(int currentPosition) {
-        this.currentPosition = currentPosition;
+        store.setPosition(slot, currentPosition);
     }
 
     /**
@@ -237,7 +254,15 @@ public class Car implements Updatable {
      * @return true if the car has moved, false otherwise
      */
     public boolean isMoved() {
-        return isMoved;
+        return store.isMoved(slot);
+    }
+
+    /**
+     * Returns whether the car changed its position in the current tick
+     * @return true if the car changed its position, false otherwise
+     */
+    public boolean isDriven() {
+        return store.isDriven(slot);
     }
 
     /**
@@ -245,7 +270,7 @@ public class Car implements Updatable {
      * @return the remaining distance in meters
      */
     public int getRemainingMeters() {
-        return remainingMeters;
+        return store.getRemainingMeters(slot);
     }
 
     /**
@@ -253,16 +278,28 @@ public class Car implements Updatable {
      * @param remainingMeters the remaining distance in meters
      */
     public void setRemainingMeters(int remainingMeters) {
-        this.remainingMeters = remainingMeters;
+        store.setRemainingMeters(slot, remainingMeters);
     }
 
 
+    /**
+     * Reports the given change of the car to the event sink of its store, if there is one.
+     * @param event the kind of change
+     */
+    private void report(CarEvent event) {
+        CarEventSink eventSink = store.getEventSink();
+        if (eventSink != null) {
+            eventSink.accept(event, store.getCarID(slot), store.getStreet(slot), store.getPosition(slot),
+                    store.getSpeed(slot));
+        }
+    }
+
     /**
      * checks if the car is Driven before turning or overtaking
      */
     private void validateDriveForward() {
-        if (oldPosition != currentPosition) {
-            isDriven = true;
+        if (store.getOldPosition(slot) != store.getPosition(slot)) {
+            store.setDriven(slot);
         }
     }
 }
@@ -0,0 +1,26 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+/**
+ * The kinds of changes of a car that are reported to a {@link CarEventSink}.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public enum CarEvent {
+    /**
+     * The car drove forward on its street.
+     */
+    MOVE,
+    /**
+     * The car turned onto a new street and is at its beginning.
+     */
+    TURN,
+    /**
+     * The car overtook the car in front of it on a fast track street.
+     */
+    OVERTAKE,
+    /**
+     * The car couldn't drive in traffic and its speed was reset.
+     */
+    STOP
+}
@@ -0,0 +1,35 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+/**
+ * Receives the changes of the cars of a street network while it's updated, so they can be observed without asking
+ * for the position of every car after every tick.
+ * The events of a tick are reported between {@link #startTick(long)} and {@link #endTick()}. In the parallel tick
+ * modes the events of one tick are reported by several threads at the same time, so a sink has to be thread safe.
+ * A sink is called while the cars are moved, so it must return quickly and must never wait for its consumer.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public interface CarEventSink {
+
+    /**
+     * Called before the events of a tick are reported.
+     * @param tick the tick of the clock the events happen in
+     */
+    void startTick(long tick);
+
+    /**
+     * Reports a change of a car.
+     * @param event the kind of change
+     * @param carID the ID of the car
+     * @param streetID the ID of the street the car is on after the change
+     * @param position the position of the car after the change
+     * @param speed the speed of the car after the change
+     */
+    void accept(CarEvent event, int carID, int streetID, int position, int speed);
+
+    /**
+     * Called after all events of a tick are reported.
+     */
+    void endTick();
+}
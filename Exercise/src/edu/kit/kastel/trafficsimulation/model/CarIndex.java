@@ -0,0 +1,92 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import java.util.List;
+
+/**
+ * An index to find the cars of a street network by their IDs in constant time. If the IDs of the cars are compact,
+ * the cars are stored in an array at the index of their ID. Otherwise they are stored in an open addressing hash
+ * table with primitive int keys.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class CarIndex {
+
+    /**
+     * the IDs are compact if the highest ID is less than this factor times the number of cars
+     */
+    private static final int DENSE_FACTOR = 2;
+    private static final int LOAD_FACTOR = 2;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private static final int HASH_SHIFT = 16;
+
+    private final Car[] denseCars;
+    private final int[] keys;
+    private final Car[] values;
+    private final int mask;
+
+    /**
+     * Creates the index for the given cars. If an ID exists more than once, the first car with this ID is found.
+     * @param cars the cars of the street network
+     */
+    CarIndex(List<Car> cars) {
+        int highestID = 0;
+        for (Car car : cars) {
+            highestID = Math.max(highestID, car.getCarID());
+        }
+        if (highestID < (long) DENSE_FACTOR * cars.size()) {
+            this.denseCars = new Car[highestID + 1];
+            this.keys = null;
+            this.values = null;
+            this.mask = 0;
+            for (int i = cars.size() - 1; i >= 0; i--) {
+                denseCars[cars.get(i).getCarID()] = cars.get(i);
+            }
+        } else {
+            int capacity = Integer.highestOneBit(Math.max(cars.size(), 1) * LOAD_FACTOR) * LOAD_FACTOR;
+            this.denseCars = null;
+            this.keys = new int[capacity];
+            this.values = new Car[capacity];
+            this.mask = capacity - 1;
+            for (Car car : cars) {
+                put(car);
+            }
+        }
+    }
+
+    /**
+     * Returns the car with the given ID.
+     * @param carID the ID of the car
+     * @return the car with the given ID or null if no car has this ID
+     */
+    Car get(int carID) {
+        if (denseCars != null) {
+            return carID >= 0 && carID < denseCars.length ? denseCars[carID] : null;
+        }
+        int index = hash(carID);
+        while (values[index] != null) {
+            if (keys[index] == carID) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private void put(Car car) {
+        int index = hash(car.getCarID());
+        while (values[index] != null) {
+            if (keys[index] == car.getCarID()) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = car.getCarID();
+        values[index] = car;
+    }
+
+    private int hash(int carID) {
+        int hash = carID * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> HASH_SHIFT)) & mask;
+    }
+}
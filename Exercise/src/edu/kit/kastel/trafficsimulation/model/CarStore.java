@@ -0,0 +1,418 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import edu.kit.kastel.trafficsimulation.model.node.Node;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stores the state of all cars of a street network in columns. Every car occupies one slot, and every attribute of
+ * the cars is kept in its own primitive array that is indexed by the slot. A {@link Car} is a view on one slot of
+ * this store.
+ * Cars on different streets can be changed by different threads at the same time, because every slot of an array
+ * can be written independently.
+ * The move state of a car, whether it moved or drove and its remaining meters, is only valid in the tick it was
+ * written in. Every value of the move state is stamped with the current tick when it's written, and a value with an
+ * older stamp counts as reset. So starting a new tick only advances the tick counter and doesn't have to reset the
+ * move state of every car. The old position of a car is always written before it's read when the car drives, so it
+ * doesn't need a stamp.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public class CarStore {
+
+    /**
+     * The number of ints that are written for every car by {@link #saveState(ByteBuffer)}.
+     */
+    public static final int STATE_VALUES = 5;
+
+    /**
+     * The speed of a car that is added to the store or stopped in traffic.
+     */
+    static final int START_SPEED = 0;
+    /**
+     * The remaining meters of a car that hasn't driven in the current tick.
+     */
+    static final int NO_REMAINING_METERS = 0;
+    private static final int START_DESIRED_STREET = 0;
+    private static final int MINIMUM_CAPACITY = 1;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int NO_TICK = 0;
+    private static final int FIRST_TICK = 1;
+
+    private int[] carIDs;
+    private int[] positions;
+    private int[] oldPositions;
+    private int[] speeds;
+    private int[] preferredSpeeds;
+    private int[] accelerations;
+    private int[] streets;
+    private int[] desiredStreets;
+    private int[] remainingMeters;
+    private int[] remainingMetersTicks;
+    private int[] movedTicks;
+    private int[] drivenTicks;
+    private int currentTick;
+    private int size;
+    private CarEventSink eventSink;
+
+    /**
+     * Creates a new empty car store that can hold the given number of cars without growing.
+     * @param capacity the number of cars the store can hold before it has to grow
+     */
+    public CarStore(int capacity) {
+        int initialCapacity = Math.max(capacity, MINIMUM_CAPACITY);
+        this.carIDs = new int[initialCapacity];
+        this.positions = new int[initialCapacity];
+        this.oldPositions = new int[initialCapacity];
+        this.speeds = new int[initialCapacity];
+        this.preferredSpeeds = new int[initialCapacity];
+        this.accelerations = new int[initialCapacity];
+        this.streets = new int[initialCapacity];
+        this.desiredStreets = new int[initialCapacity];
+        this.remainingMeters = new int[initialCapacity];
+        this.remainingMetersTicks = new int[initialCapacity];
+        this.movedTicks = new int[initialCapacity];
+        this.drivenTicks = new int[initialCapacity];
+        this.currentTick = FIRST_TICK;
+        this.size = 0;
+        this.eventSink = null;
+    }
+
+    /**
+     * Adds a new car to the store. The car starts with no speed, is not placed on its street yet and hasn't moved.
+     * @param carID the ID of the car
+     * @param street the ID of the street the car is located on
+     * @param preferredSpeed the preferred speed of the car
+     * @param acceleration the acceleration of the car
+     * @return the slot of the new car
+     */
+    public int add(int carID, int street, int preferredSpeed, int acceleration) {
+        if (size == carIDs.length) {
+            grow();
+        }
+        int slot = size;
+        size++;
+        set(slot, carID, street, preferredSpeed, acceleration);
+        return slot;
+    }
+
+    /**
+     * Puts a new car into the given slot of the store, which replaces the car that was held in it. The car starts
+     * like a car added by {@link #add(int, int, int, int)}.
+     * @param slot the slot of the car, lower than the number of cars in the store
+     * @param carID the ID of the car
+     * @param street the ID of the street the car is located on
+     * @param preferredSpeed the preferred speed of the car
+     * @param acceleration the acceleration of the car
+     */
+    public void set(int slot, int carID, int street, int preferredSpeed, int acceleration) {
+        carIDs[slot] = carID;
+        positions[slot] = Car.NO_DRIVE;
+        oldPositions[slot] = Car.NO_DRIVE;
+        speeds[slot] = START_SPEED;
+        preferredSpeeds[slot] = preferredSpeed;
+        accelerations[slot] = acceleration;
+        streets[slot] = street;
+        desiredStreets[slot] = START_DESIRED_STREET;
+        remainingMetersTicks[slot] = NO_TICK;
+        movedTicks[slot] = NO_TICK;
+        drivenTicks[slot] = NO_TICK;
+    }
+
+    /**
+     * Starts a new tick, so the move state of all cars is reset and no car has moved so far. Only if the tick counter
+     * overflows, the stamps of all cars are cleared.
+     */
+    public void nextTick() {
+        if (currentTick == Integer.MAX_VALUE) {
+            Arrays.fill(remainingMetersTicks, NO_TICK);
+            Arrays.fill(movedTicks, NO_TICK);
+            Arrays.fill(drivenTicks, NO_TICK);
+            currentTick = FIRST_TICK;
+        } else {
+            currentTick++;
+        }
+    }
+
+    /**
+     * Writes the state of all cars that changes while the simulation runs to the given output. For every car in the
+     * order of the slots its position, speed, street, desired street and remaining meters are written.
+     * @param output the output to write the state to
+     */
+    public void saveState(ByteBuffer output) {
+        for (int slot = 0; slot < size; slot++) {
+            saveCar(slot, output);
+        }
+    }
+
+    /**
+     * Writes the state of the car in the given slot that changes while the simulation runs to the given output: its
+     * position, speed, street, desired street and remaining meters.
+     * @param slot the slot of the car
+     * @param output the output to write the state to
+     */
+    public void saveCar(int slot, ByteBuffer output) {
+        output.putInt(positions[slot]);
+        output.putInt(speeds[slot]);
+        output.putInt(streets[slot]);
+        output.putInt(desiredStreets[slot]);
+        output.putInt(getRemainingMeters(slot));
+    }
+
+    /**
+     * Reads the state of all cars that was written by {@link #saveState(ByteBuffer)}. Afterwards no car has moved in
+     * the current tick.
+     * @param input the input to read the state from
+     */
+    public void restoreState(ByteBuffer input) {
+        nextTick();
+        for (int slot = 0; slot < size; slot++) {
+            restoreCar(slot, input);
+        }
+    }
+
+    /**
+     * Reads the state of the car in the given slot that was written by {@link #saveCar(int, ByteBuffer)}.
+     * @param slot the slot of the car
+     * @param input the input to read the state from
+     */
+    public void restoreCar(int slot, ByteBuffer input) {
+        positions[slot] = input.getInt();
+        speeds[slot] = input.getInt();
+        streets[slot] = input.getInt();
+        desiredStreets[slot] = input.getInt();
+        setRemainingMeters(slot, input.getInt());
+    }
+
+    /**
+     * Reads a car state that was written by {@link #saveCar(int, ByteBuffer)} and checks whether it belongs to a car
+     * on the given street: the car must be on the street, between its beginning and its end, must not drive
+     * backwards and its desired street must be one the car can choose.
+     * @param input the input to read the state from
+     * @param street the ID of the street the car is on
+     * @param length the length of the street
+     * @return true if the state can be restored into a car on the street, otherwise false
+     */
+    public static boolean isValidCar(ByteBuffer input, int street, int length) {
+        int position = input.getInt();
+        int speed = input.getInt();
+        int savedStreet = input.getInt();
+        int desiredStreet = input.getInt();
+        input.getInt();
+        return position >= Car.BEGINNING_OF_STREET && position <= length && speed >= START_SPEED
+                && savedStreet == street && desiredStreet >= START_DESIRED_STREET
+                && desiredStreet <= Node.MAXIMUM_STREETS;
+    }
+
+    /**
+     * Returns the number of cars in the store.
+     * @return the number of cars in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sink the changes of the cars are reported to.
+     * @return the event sink, or null if the changes aren't reported
+     */
+    public CarEventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Sets the sink the changes of the cars are reported to.
+     * @param eventSink the event sink, or null to stop reporting the changes
+     */
+    public void setEventSink(CarEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * Returns the ID of the car in the given slot.
+     * @param slot the slot of the car
+     * @return the ID of the car
+     */
+    public int getCarID(int slot) {
+        return carIDs[slot];
+    }
+
+    /**
+     * Returns the current position of the car in the given slot.
+     * @param slot the slot of the car
+     * @return the current position of the car
+     */
+    public int getPosition(int slot) {
+        return positions[slot];
+    }
+
+    /**
+     * Sets the current position of the car in the given slot.
+     * @param slot the slot of the car
+     * @param position the new current position of the car
+     */
+    public void setPosition(int slot, int position) {
+        positions[slot] = position;
+    }
+
+    /**
+     * Returns the position of the car in the given slot before it drove in the current tick.
+     * @param slot the slot of the car
+     * @return the old position of the car
+     */
+    public int getOldPosition(int slot) {
+        return oldPositions[slot];
+    }
+
+    /**
+     * Sets the position of the car in the given slot before it drove in the current tick.
+     * @param slot the slot of the car
+     * @param oldPosition the old position of the car
+     */
+    public void setOldPosition(int slot, int oldPosition) {
+        oldPositions[slot] = oldPosition;
+    }
+
+    /**
+     * Returns the current speed of the car in the given slot.
+     * @param slot the slot of the car
+     * @return the current speed of the car
+     */
+    public int getSpeed(int slot) {
+        return speeds[slot];
+    }
+
+    /**
+     * Sets the current speed of the car in the given slot.
+     * @param slot the slot of the car
+     * @param speed the new current speed of the car
+     */
+    public void setSpeed(int slot, int speed) {
+        speeds[slot] = speed;
+    }
+
+    /**
+     * Returns the preferred speed of the car in the given slot.
+     * @param slot the slot of the car
+     * @return the preferred speed of the car
+     */
+    public int getPreferredSpeed(int slot) {
+        return preferredSpeeds[slot];
+    }
+
+    /**
+     * Returns the acceleration of the car in the given slot.
+     * @param slot the slot of the car
+     * @return the acceleration of the car
+     */
+    public int getAcceleration(int slot) {
+        return accelerations[slot];
+    }
+
+    /**
+     * Returns the ID of the street the car in the given slot is located on.
+     * @param slot the slot of the car
+     * @return the ID of the current street of the car
+     */
+    public int getStreet(int slot) {
+        return streets[slot];
+    }
+
+    /**
+     * Sets the ID of the street the car in the given slot is located on.
+     * @param slot the slot of the car
+     * @param street the ID of the new current street of the car
+     */
+    public void setStreet(int slot, int street) {
+        streets[slot] = street;
+    }
+
+    /**
+     * Returns the desired street of the car in the given slot.
+     * @param slot the slot of the car
+     * @return the desired street of the car
+     */
+    public int getDesiredStreet(int slot) {
+        return desiredStreets[slot];
+    }
+
+    /**
+     * Sets the desired street of the car in the given slot.
+     * @param slot the slot of the car
+     * @param desiredStreet the new desired street of the car
+     */
+    public void setDesiredStreet(int slot, int desiredStreet) {
+        desiredStreets[slot] = desiredStreet;
+    }
+
+    /**
+     * Returns the remaining meters the car in the given slot can drive in the current tick.
+     * @param slot the slot of the car
+     * @return the remaining meters of the car
+     */
+    public int getRemainingMeters(int slot) {
+        return remainingMetersTicks[slot] == currentTick ? remainingMeters[slot] : NO_REMAINING_METERS;
+    }
+
+    /**
+     * Sets the remaining meters the car in the given slot can drive in the current tick.
+     * @param slot the slot of the car
+     * @param meters the new remaining meters of the car
+     */
+    public void setRemainingMeters(int slot, int meters) {
+        remainingMeters[slot] = meters;
+        remainingMetersTicks[slot] = currentTick;
+    }
+
+    /**
+     * Returns whether the car in the given slot has moved in the current tick.
+     * @param slot the slot of the car
+     * @return true if the car has moved, otherwise false
+     */
+    public boolean isMoved(int slot) {
+        return movedTicks[slot] == currentTick;
+    }
+
+    /**
+     * Marks the car in the given slot as moved in the current tick.
+     * @param slot the slot of the car
+     */
+    public void setMoved(int slot) {
+        movedTicks[slot] = currentTick;
+    }
+
+    /**
+     * Returns whether the car in the given slot changed its position in the current tick.
+     * @param slot the slot of the car
+     * @return true if the car changed its position, otherwise false
+     */
+    public boolean isDriven(int slot) {
+        return drivenTicks[slot] == currentTick;
+    }
+
+    /**
+     * Marks the car in the given slot as driven in the current tick.
+     * @param slot the slot of the car
+     */
+    public void setDriven(int slot) {
+        drivenTicks[slot] = currentTick;
+    }
+
+    private void grow() {
+        int newCapacity = carIDs.length * GROWTH_FACTOR;
+        carIDs = Arrays.copyOf(carIDs, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+        oldPositions = Arrays.copyOf(oldPositions, newCapacity);
+        speeds = Arrays.copyOf(speeds, newCapacity);
+        preferredSpeeds = Arrays.copyOf(preferredSpeeds, newCapacity);
+        accelerations = Arrays.copyOf(accelerations, newCapacity);
+        streets = Arrays.copyOf(streets, newCapacity);
+        desiredStreets = Arrays.copyOf(desiredStreets, newCapacity);
+        remainingMeters = Arrays.copyOf(remainingMeters, newCapacity);
+        remainingMetersTicks = Arrays.copyOf(remainingMetersTicks, newCapacity);
+        movedTicks = Arrays.copyOf(movedTicks, newCapacity);
+        drivenTicks = Arrays.copyOf(drivenTicks, newCapacity);
+    }
+}
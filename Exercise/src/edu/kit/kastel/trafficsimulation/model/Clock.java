@@ -0,0 +1,42 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+/**
+ * The global clock of a street network that counts the ticks the network was updated. The traffic lights compute
+ * their state from it, so they don't have to be updated tick by tick.
+ * The clock is only advanced between two ticks, while no street or node is updated.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public class Clock {
+
+    /**
+     * The tick that is returned for an event that never happens.
+     */
+    public static final long NEVER = -1;
+
+    private long tick;
+
+    /**
+     * Creates a new clock at tick zero.
+     */
+    public Clock() {
+        this.tick = 0;
+    }
+
+    /**
+     * Returns the number of ticks the clock was advanced.
+     * @return the current tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Advances the clock by the given number of ticks.
+     * @param ticks the number of ticks to advance the clock
+     */
+    public void advance(long ticks) {
+        tick += ticks;
+    }
+}
@@ -0,0 +1,107 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import edu.kit.kastel.trafficsimulation.model.street.ActiveStreets;
+import edu.kit.kastel.trafficsimulation.model.street.Street;
+
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Skips several ticks of a street network at once, while the network is in a state that can be predicted without
+ * updating it tick by tick. That's the case as long as all cars on the active streets cruise at their top speed, no
+ * car reaches the end of its street or gets closer to the car in front than the save distance, and no traffic light
+ * switches green for a street with stopped cars. Until the first of these events the cars only drive forward at a
+ * constant speed and the traffic lights follow the clock, so the state after the skipped ticks is computed directly
+ * and is the same as after updating the network tick by tick.
+ * If the network can't be skipped, the next attempts are delayed for an exponentially growing number of ticks, so a
+ * busy network doesn't pay for checking every tick.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class FastForward {
+
+    /**
+     * the minimum number of ticks that are skipped at once, fewer ticks are updated normally
+     */
+    private static final int MINIMUM_TICKS = 2;
+    private static final int FIRST_DELAY = 1;
+    private static final int MAXIMUM_DELAY = 64;
+    private static final int DELAY_FACTOR = 2;
+
+    private final List<Street> streets;
+    private final ActiveStreets activeStreets;
+    private final CarStore carStore;
+    private final Clock clock;
+    private int delay;
+    private int ticksUntilAttempt;
+
+    /**
+     * Creates a new fast forward for the given street network.
+     * @param streets the streets of the network in the order of their IDs
+     * @param activeStreets the active streets of the network
+     * @param carStore the state of the cars of the network
+     * @param clock the clock of the network
+     */
+    FastForward(List<Street> streets, ActiveStreets activeStreets, CarStore carStore, Clock clock) {
+        this.streets = streets;
+        this.activeStreets = activeStreets;
+        this.carStore = carStore;
+        this.clock = clock;
+        this.delay = FIRST_DELAY;
+        this.ticksUntilAttempt = 0;
+    }
+
+    /**
+     * Skips as many of the given ticks as possible at once.
+     * @param maxTicks the highest number of ticks to skip
+     * @return the number of skipped ticks, or zero if the next tick has to be updated normally
+     */
+    int skip(int maxTicks) {
+        return skip(maxTicks, IntUnaryOperator.identity());
+    }
+
+    /**
+     * Skips as many of the given ticks as possible at once, if the other parts of a sharded network can skip them,
+     * too. The ticks this part can skip are passed to the given agreement, which returns how many ticks all parts
+     * can skip. All parts attempt to skip in the same ticks, because they agree on the result of every attempt.
+     * @param maxTicks the highest number of ticks to skip
+     * @param agreement returns the number of ticks all parts can skip from the number of ticks this part can skip
+     * @return the number of skipped ticks, or zero if the next tick has to be updated normally
+     */
+    int skip(int maxTicks, IntUnaryOperator agreement) {
+        if (ticksUntilAttempt > 0) {
+            ticksUntilAttempt--;
+            return 0;
+        }
+        int ticks = agreement.applyAsInt(getSkippableTicks(maxTicks));
+        if (ticks < MINIMUM_TICKS) {
+            ticksUntilAttempt = delay;
+            delay = Math.min(delay * DELAY_FACTOR, MAXIMUM_DELAY);
+            return 0;
+        }
+        delay = FIRST_DELAY;
+        int streetID = activeStreets.nextActive(0);
+        while (streetID != ActiveStreets.NO_STREET) {
+            streets.get(streetID).cruise(ticks);
+            streetID = activeStreets.nextActive(streetID + 1);
+        }
+        carStore.nextTick();
+        clock.advance(ticks);
+        activeStreets.wakeUp();
+        return ticks;
+    }
+
+    private int getSkippableTicks(int maxTicks) {
+        int ticks = maxTicks;
+        int streetID = activeStreets.nextActive(0);
+        while (streetID != ActiveStreets.NO_STREET && ticks >= MINIMUM_TICKS) {
+            ticks = streets.get(streetID).getCruisingTicks(ticks);
+            streetID = activeStreets.nextActive(streetID + 1);
+        }
+        if (ticks < MINIMUM_TICKS) {
+            return ticks;
+        }
+        return activeStreets.getTicksUntilWakeUp(ticks);
+    }
+}
@@ -0,0 +1,120 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import java.util.Arrays;
+
+/**
+ * Splits the nodes of a {@link NetworkTopology} into sets, the shards, that are simulated by different processes.
+ * Every street belongs to the shard of its end node, because the end node hands off the cars at the end of the street.
+ * A street whose start node belongs to another shard crosses the boundary between the two shards: its cars are
+ * moved by the shard of the end node, but the cars that turn onto it are handed off by the shard of the start node.
+ * Two shards are neighbors if a street crosses the boundary between them, only neighbors exchange cars.
+ * The partition is immutable, so every shard can build the same partition from the same topology.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class NetworkPartition {
+
+    private final NetworkTopology topology;
+    private final int numberOfShards;
+    private final int[] nodeShards;
+    private final boolean[][] neighbors;
+
+    /**
+     * Creates a partition that assigns every node to the given shard.
+     * @param topology the topology of the network
+     * @param nodeShards the shard of every node, indexed like the nodes of the topology
+     * @param numberOfShards the number of shards, every shard of a node must be lower
+     */
+    public NetworkPartition(NetworkTopology topology, int[] nodeShards, int numberOfShards) {
+        this.topology = topology;
+        this.numberOfShards = numberOfShards;
+        this.nodeShards = Arrays.copyOf(nodeShards, nodeShards.length);
+        this.neighbors = new boolean[numberOfShards][numberOfShards];
+        for (int streetID = 0; streetID < topology.getNumberOfStreets(); streetID++) {
+            int startShard = getStartShard(streetID);
+            int endShard = getShardOfStreet(streetID);
+            if (startShard != endShard) {
+                neighbors[startShard][endShard] = true;
+                neighbors[endShard][startShard] = true;
+            }
+        }
+    }
+
+    /**
+     * Splits the nodes of the topology into the given number of ranges of consecutive nodes. Every range ends as soon
+     * as its nodes have at least an equal share of the streets, so every shard moves about the same number of
+     * streets. If the IDs of the nodes follow the layout of the network, like the rows of a grid, most streets stay
+     * within one shard.
+     * @param topology the topology of the network
+     * @param numberOfShards the number of shards, at least one
+     * @return the partition into ranges of nodes
+     */
+    public static NetworkPartition byNodeRanges(NetworkTopology topology, int numberOfShards) {
+        int[] nodeShards = new int[topology.getNumberOfNodes()];
+        long streets = 0;
+        int shard = 0;
+        for (int node = 0; node < nodeShards.length; node++) {
+            nodeShards[node] = shard;
+            streets += topology.getNumberOfIncomingStreets(node);
+            long shareOfNextShard = (long) topology.getNumberOfStreets() * (shard + 1);
+            if (shard < numberOfShards - 1 && streets * numberOfShards >= shareOfNextShard) {
+                shard++;
+            }
+        }
+        return new NetworkPartition(topology, nodeShards, numberOfShards);
+    }
+
+    /**
+     * Returns the topology the partition splits.
+     * @return the topology of the network
+     */
+    public NetworkTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the number of shards.
+     * @return the number of shards
+     */
+    public int getNumberOfShards() {
+        return numberOfShards;
+    }
+
+    /**
+     * Returns the shard of the node with the given index.
+     * @param node the index of the node
+     * @return the shard of the node
+     */
+    public int getShardOfNode(int node) {
+        return nodeShards[node];
+    }
+
+    /**
+     * Returns the shard that moves the cars of the given street, which is the shard of its end node.
+     * @param streetID the ID of the street
+     * @return the shard of the street
+     */
+    public int getShardOfStreet(int streetID) {
+        return nodeShards[topology.getEndNode(streetID)];
+    }
+
+    /**
+     * Returns the shard that hands off the cars onto the given street, which is the shard of its start node.
+     * @param streetID the ID of the street
+     * @return the shard of the start node of the street
+     */
+    public int getStartShard(int streetID) {
+        return nodeShards[topology.getStartNode(streetID)];
+    }
+
+    /**
+     * Returns whether a street crosses the boundary between the two given shards.
+     * @param shard the first shard
+     * @param otherShard the second shard
+     * @return true if the shards are different and exchange cars, otherwise false
+     */
+    public boolean isNeighbor(int shard, int otherShard) {
+        return neighbors[shard][otherShard];
+    }
+}
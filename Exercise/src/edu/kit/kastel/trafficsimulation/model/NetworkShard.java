@@ -0,0 +1,374 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import edu.kit.kastel.trafficsimulation.model.node.Node;
+import edu.kit.kastel.trafficsimulation.model.street.ActiveStreets;
+import edu.kit.kastel.trafficsimulation.model.street.Street;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The part of a street network that one shard of a {@link NetworkPartition} simulates. A shard only creates its own
+ * nodes, its own streets, which end at its nodes, and copies of the streets of other shards that start at its nodes.
+ * Its car store only holds the cars on its own streets: a car that leaves the shard frees its slot, and a car that
+ * arrives takes a free slot. Across the shards a car is identified by its index in the car file.
+ * The ticks follow the two phase tick mode. A street that crosses the boundary to another shard is copied into the
+ * shard of its start node for the second phase: after the first phase the shard of the street sends the position of
+ * its last car, where the start node sees it, to the shard of the start node, which places a placeholder car there on
+ * its copy of the street. The start node hands off its cars onto the copy like onto its own streets, and afterwards
+ * the cars that turned onto the copy are sent to the shard of the street, which appends them in the same order. So
+ * the shards together compute the same tick as a network in one process in the two phase tick mode.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class NetworkShard {
+
+    /**
+     * the number of ints of the last car of a street that is sent to the shard of the start node
+     */
+    private static final int TAIL_VALUES = 2;
+    /**
+     * the number of ints of every street with handed off cars before the cars
+     */
+    private static final int HAND_OFF_VALUES = 2;
+    /**
+     * the number of ints of every handed off car: its index, its ID, its preferred speed, its acceleration and its
+     * state
+     */
+    private static final int CAR_VALUES = CarStore.STATE_VALUES + 4;
+    /**
+     * the number of ints of every car of the shard that is written by {@link #saveCars(ByteBuffer)}
+     */
+    private static final int SHARD_CAR_VALUES = 5;
+    /**
+     * the index and ID of the placeholder for the last car of a street of another shard
+     */
+    private static final int NO_CAR = -1;
+    private static final int GROWTH_FACTOR = 2;
+
+    private final List<Street> streets;
+    private final List<Car> cars;
+    private final ActiveStreets activeStreets;
+    private final CarStore carStore;
+    private final NetworkPartition partition;
+    private final int shard;
+    private final List<Node> ownNodes;
+    private final List<Street> ownStreets;
+    /**
+     * the own streets of the shard whose start node belongs to another shard, indexed by this shard
+     */
+    private final List<List<Street>> boundaryStreets;
+    /**
+     * the streets of other shards whose start node belongs to this shard, indexed by the other shard
+     */
+    private final List<List<Street>> copiedStreets;
+    /**
+     * whether the last car of the street is placed on the copy of the street in the current tick
+     */
+    private final boolean[] hasTail;
+    /**
+     * the index in the car file of the car in every slot of the car store
+     */
+    private int[] carIndices;
+    /**
+     * the slots of the car store whose cars left the shard, the first {@link #numberOfFreeSlots} are valid
+     */
+    private int[] freeSlots;
+    private int numberOfFreeSlots;
+
+    /**
+     * Creates the given shard of the partition on the created nodes and streets of the network and activates the own
+     * streets of the shard. The cars are added by {@link #addCar(int, int, int, int, int)} afterwards.
+     * @param streets the streets of the network in the order of their IDs, the streets of this shard and the streets
+     *                that start at its nodes are created, all others are null
+     * @param nodes the nodes of the network, indexed like the nodes of the topology, only the nodes of this shard are
+     *              created
+     * @param cars the empty list of the cars of the shard, the cars are added in the order of their slots
+     * @param activeStreets the active streets of the network
+     * @param carStore the empty car store of the shard
+     * @param partition the partition of the network
+     * @param shard the shard of this part of the network
+     */
+    NetworkShard(List<Street> streets, List<Node> nodes, List<Car> cars, ActiveStreets activeStreets,
+                 CarStore carStore, NetworkPartition partition, int shard) {
+        this.streets = streets;
+        this.cars = cars;
+        this.activeStreets = activeStreets;
+        this.carStore = carStore;
+        this.partition = partition;
+        this.shard = shard;
+        this.ownNodes = new ArrayList<>();
+        this.ownStreets = new ArrayList<>();
+        this.boundaryStreets = new ArrayList<>();
+        this.copiedStreets = new ArrayList<>();
+        this.hasTail = new boolean[streets.size()];
+        this.carIndices = new int[0];
+        this.freeSlots = new int[0];
+        this.numberOfFreeSlots = 0;
+        for (int i = 0; i < partition.getNumberOfShards(); i++) {
+            boundaryStreets.add(new ArrayList<>());
+            copiedStreets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (partition.getShardOfNode(i) == shard) {
+                ownNodes.add(nodes.get(i));
+            }
+        }
+        for (int streetID = 0; streetID < streets.size(); streetID++) {
+            int streetShard = partition.getShardOfStreet(streetID);
+            int startShard = partition.getStartShard(streetID);
+            if (streetShard == shard) {
+                ownStreets.add(streets.get(streetID));
+                activeStreets.activate(streetID);
+                if (startShard != shard) {
+                    boundaryStreets.get(startShard).add(streets.get(streetID));
+                }
+            } else if (startShard == shard) {
+                copiedStreets.get(streetShard).add(streets.get(streetID));
+            }
+        }
+    }
+
+    /**
+     * Adds a car to the car store of the shard, in the slot of a car that left the shard if there is one.
+     * @param carIndex the index of the car in the car file, which identifies the car in all shards
+     * @param carID the ID of the car
+     * @param street the ID of the street the car is located on
+     * @param preferredSpeed the preferred speed of the car
+     * @param acceleration the acceleration of the car
+     * @return the added car, which isn't placed on its street yet
+     */
+    Car addCar(int carIndex, int carID, int street, int preferredSpeed, int acceleration) {
+        int slot;
+        if (numberOfFreeSlots > 0) {
+            numberOfFreeSlots--;
+            slot = freeSlots[numberOfFreeSlots];
+            carStore.set(slot, carID, street, preferredSpeed, acceleration);
+        } else {
+            slot = carStore.add(carID, street, preferredSpeed, acceleration);
+            cars.add(new Car(carStore, slot));
+        }
+        if (slot == carIndices.length) {
+            carIndices = Arrays.copyOf(carIndices, Math.max(1, carIndices.length * GROWTH_FACTOR));
+        }
+        carIndices[slot] = carIndex;
+        return cars.get(slot);
+    }
+
+    /**
+     * Returns the nodes of the shard, which hand off the cars of their incoming streets.
+     * @return the nodes of the shard
+     */
+    List<Node> getNodes() {
+        return ownNodes;
+    }
+
+    /**
+     * Writes the last car of every boundary street after the first phase for the shards of the start nodes: the ID
+     * of the street and the position of the car, which is the end of the street if the car is handed off. Empty
+     * streets are left out.
+     * @return the message for every neighbor, null for all other shards
+     */
+    ByteBuffer[] saveTails() {
+        ByteBuffer[] messages = new ByteBuffer[partition.getNumberOfShards()];
+        for (int i = 0; i < messages.length; i++) {
+            if (partition.isNeighbor(shard, i)) {
+                List<Street> tails = boundaryStreets.get(i);
+                ByteBuffer message = ByteBuffer.allocate((1 + tails.size() * TAIL_VALUES) * Integer.BYTES);
+                message.putInt(countNonEmpty(tails));
+                for (Street street : tails) {
+                    if (!street.getCars().isEmpty()) {
+                        message.putInt(street.getStreetID());
+                        message.putInt(street.getLastCarPosition());
+                    }
+                }
+                messages[i] = message.flip();
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Places placeholders for the last cars of the boundary streets of the neighbors on the copies of these streets,
+     * so the nodes of this shard see them when they hand off their cars.
+     * @param messages the messages of the neighbors written by {@link #saveTails()}
+     */
+    void restoreTails(ByteBuffer[] messages) {
+        for (ByteBuffer message : messages) {
+            if (message != null) {
+                int numberOfTails = message.getInt();
+                for (int i = 0; i < numberOfTails; i++) {
+                    Street street = streets.get(message.getInt());
+                    Car car = addCar(NO_CAR, NO_CAR, street.getStreetID(), 0, 0);
+                    car.setCurrentPosition(message.getInt());
+                    street.getCars().addLast(car);
+                    hasTail[street.getStreetID()] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the cars that the nodes of this shard handed off onto the copies of streets of other shards for these
+     * shards: for every copied street with handed off cars its ID and the number of cars, and for every car its
+     * index, its ID, its preferred speed, its acceleration and its state. Afterwards the copies are emptied again and
+     * the slots of their cars are freed.
+     * @return the message for every neighbor, null for all other shards
+     */
+    ByteBuffer[] saveHandedOffCars() {
+        ByteBuffer[] messages = new ByteBuffer[partition.getNumberOfShards()];
+        for (int i = 0; i < messages.length; i++) {
+            if (partition.isNeighbor(shard, i)) {
+                messages[i] = saveHandedOffCars(copiedStreets.get(i));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Adds the cars that were handed off onto boundary streets of this shard by the nodes of the neighbors to the
+     * car store and appends them to their streets.
+     * @param messages the messages of the neighbors written by {@link #saveHandedOffCars()}
+     */
+    void restoreHandedOffCars(ByteBuffer[] messages) {
+        for (ByteBuffer message : messages) {
+            if (message != null) {
+                int numberOfStreets = message.getInt();
+                for (int i = 0; i < numberOfStreets; i++) {
+                    Street street = streets.get(message.getInt());
+                    int numberOfCars = message.getInt();
+                    for (int j = 0; j < numberOfCars; j++) {
+                        int carIndex = message.getInt();
+                        int carID = message.getInt();
+                        int preferredSpeed = message.getInt();
+                        Car car = addCar(carIndex, carID, street.getStreetID(), preferredSpeed, message.getInt());
+                        carStore.restoreCar(car.getSlot(), message);
+                        street.receiveCar(car);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Agrees with all other shards on the number of ticks the whole network can skip.
+     * @param ticks the number of ticks this shard can skip
+     * @param exchange the connection to the other shards
+     * @return the lowest number of ticks any shard can skip
+     */
+    int agreeOnTicks(int ticks, ShardExchange exchange) {
+        ByteBuffer[] messages = new ByteBuffer[partition.getNumberOfShards()];
+        for (int i = 0; i < messages.length; i++) {
+            if (i != shard) {
+                messages[i] = ByteBuffer.allocate(Integer.BYTES).putInt(ticks).flip();
+            }
+        }
+        int agreedTicks = ticks;
+        for (ByteBuffer message : exchange.exchange(messages)) {
+            if (message != null) {
+                agreedTicks = Math.min(agreedTicks, message.getInt());
+            }
+        }
+        return agreedTicks;
+    }
+
+    /**
+     * Returns the number of ints {@link #saveCars(ByteBuffer)} writes.
+     * @return the number of ints of the cars of the shard
+     */
+    long getCarsSize() {
+        long size = 1;
+        for (Street street : ownStreets) {
+            size += (long) street.getCars().size() * SHARD_CAR_VALUES;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the cars on the streets of this shard to the given output: the number of cars, and for every car its
+     * index in the car file, its ID, the ID of its street, its speed and its position.
+     * @param output the output to write the cars to
+     */
+    void saveCars(ByteBuffer output) {
+        int numberOfCars = 0;
+        for (Street street : ownStreets) {
+            numberOfCars += street.getCars().size();
+        }
+        output.putInt(numberOfCars);
+        for (Street street : ownStreets) {
+            for (Car car : street.getCars()) {
+                output.putInt(carIndices[car.getSlot()]);
+                output.putInt(car.getCarID());
+                output.putInt(car.getCurrentStreet());
+                output.putInt(car.getCurrentSpeed());
+                output.putInt(car.getCurrentPosition());
+            }
+        }
+    }
+
+    private ByteBuffer saveHandedOffCars(List<Street> copies) {
+        int numberOfStreets = 0;
+        int size = 1;
+        for (Street street : copies) {
+            int handedOffCars = getNumberOfHandedOffCars(street);
+            if (handedOffCars > 0) {
+                numberOfStreets++;
+                size += HAND_OFF_VALUES + handedOffCars * CAR_VALUES;
+            }
+        }
+        ByteBuffer message = ByteBuffer.allocate(size * Integer.BYTES);
+        message.putInt(numberOfStreets);
+        for (Street street : copies) {
+            int handedOffCars = getNumberOfHandedOffCars(street);
+            if (handedOffCars > 0) {
+                message.putInt(street.getStreetID());
+                message.putInt(handedOffCars);
+                for (int i = street.getCars().size() - handedOffCars; i < street.getCars().size(); i++) {
+                    int slot = street.getCars().get(i).getSlot();
+                    message.putInt(carIndices[slot]);
+                    message.putInt(carStore.getCarID(slot));
+                    message.putInt(carStore.getPreferredSpeed(slot));
+                    message.putInt(carStore.getAcceleration(slot));
+                    carStore.saveCar(slot, message);
+                }
+            }
+            clearCopy(street);
+        }
+        return message.flip();
+    }
+
+    private int getNumberOfHandedOffCars(Street street) {
+        return street.getCars().size() - (hasTail[street.getStreetID()] ? 1 : 0);
+    }
+
+    private void clearCopy(Street street) {
+        for (Car car : street.getCars()) {
+            freeSlot(car.getSlot());
+        }
+        street.getCars().clear();
+        street.resetChanged();
+        activeStreets.deactivate(street.getStreetID());
+        hasTail[street.getStreetID()] = false;
+    }
+
+    private void freeSlot(int slot) {
+        if (numberOfFreeSlots == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(1, freeSlots.length * GROWTH_FACTOR));
+        }
+        freeSlots[numberOfFreeSlots] = slot;
+        numberOfFreeSlots++;
+    }
+
+    private static int countNonEmpty(List<Street> streets) {
+        int nonEmpty = 0;
+        for (Street street : streets) {
+            if (!street.getCars().isEmpty()) {
+                nonEmpty++;
+            }
+        }
+        return nonEmpty;
+    }
+}
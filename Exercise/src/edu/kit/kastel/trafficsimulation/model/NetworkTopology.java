@@ -0,0 +1,346 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import edu.kit.kastel.trafficsimulation.exception.SimulationException;
+import edu.kit.kastel.trafficsimulation.io.ExceptionMessages;
+import edu.kit.kastel.trafficsimulation.model.node.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The validated graph of the streets and crossings of a street network: the IDs and traffic lights of the nodes,
+ * the nodes, lengths, speed limits and types of the streets and which streets go in and out of every node.
+ * The topology is immutable and doesn't contain anything that changes while the simulation runs, so many street
+ * networks with different cars can be built on one topology and run at the same time. The streets and nodes of
+ * every street network read their static data from the topology and only keep their own cars, lanes and traffic
+ * lights.
+ * Nodes are referred to by their index in the list of crossings, which is sorted by the node IDs, streets by their
+ * ID, which is their position in the list of streets.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class NetworkTopology {
+
+    /**
+     * The index of a node that doesn't exist.
+     */
+    public static final int NO_NODE = -1;
+    /**
+     * The fingerprint of a network without nodes, streets and cars, which every fingerprint starts with.
+     */
+    public static final long EMPTY_FINGERPRINT = 0xcbf29ce484222325L;
+    private static final long FINGERPRINT_PRIME = 0x100000001b3L;
+
+    private static final int START_NODE = 0;
+    private static final int END_NODE = 1;
+    private static final int LENGTH = 2;
+    private static final int STREET_TYPE = 3;
+    private static final int SPEED_LIMIT = 4;
+    private static final int SINGLE_LANE = 1;
+    private static final int ID = 0;
+    private static final int GREEN_TIME = 1;
+    private static final int NO_DUPLICATE = -1;
+
+    private final List<int[]> streetParameters;
+    private final List<int[]> crossingParameters;
+    /**
+     * the index of the first node with a given ID, nodes with the same ID follow it directly
+     */
+    private final Map<Integer, Integer> nodeIndex;
+    private final int[] startNodes;
+    private final int[] endNodes;
+    private final int[] lengths;
+    private final int[] speedLimits;
+    private final boolean[] fastTracks;
+    private final int[][] incomingStreets;
+    private final int[][] outgoingStreets;
+    private final int duplicateNodeID;
+    private final long fingerprint;
+
+    /**
+     * Builds and validates the topology from the parameters of the streets and crossings. The parameters must not be
+     * changed afterwards.
+     * @param streetParameters the parameters of the streets, as read from the street file
+     * @param crossingParameters the parameters of the crossings sorted by their IDs, as read from the crossing file
+     * @throws SimulationException if a street starts and ends at the same node or at a node that doesn't exist, or
+     *     if a node doesn't have between one and four incoming and outgoing streets
+     */
+    public NetworkTopology(List<int[]> streetParameters, List<int[]> crossingParameters) {
+        this.streetParameters = Collections.unmodifiableList(new ArrayList<>(streetParameters));
+        this.crossingParameters = Collections.unmodifiableList(new ArrayList<>(crossingParameters));
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < crossingParameters.size(); i++) {
+            index.putIfAbsent(crossingParameters.get(i)[ID], i);
+        }
+        this.nodeIndex = Collections.unmodifiableMap(index);
+        this.startNodes = new int[streetParameters.size()];
+        this.endNodes = new int[streetParameters.size()];
+        this.lengths = new int[streetParameters.size()];
+        this.speedLimits = new int[streetParameters.size()];
+        this.fastTracks = new boolean[streetParameters.size()];
+        for (int i = 0; i < streetParameters.size(); i++) {
+            int[] street = streetParameters.get(i);
+            if (street[START_NODE] == street[END_NODE]) {
+                throw new SimulationException(ExceptionMessages.INVALID_STREET_NODE.format(i));
+            }
+            startNodes[i] = getExistingNode(street[START_NODE], i);
+            endNodes[i] = getExistingNode(street[END_NODE], i);
+            lengths[i] = street[LENGTH];
+            speedLimits[i] = street[SPEED_LIMIT];
+            fastTracks[i] = street[STREET_TYPE] != SINGLE_LANE;
+        }
+        this.incomingStreets = collectStreets(endNodes);
+        this.outgoingStreets = collectStreets(startNodes);
+        validateNumberOfStreets();
+        this.duplicateNodeID = findDuplicateNodeID();
+        this.fingerprint = computeFingerprint();
+    }
+
+    /**
+     * Adds the given value to a fingerprint. The order of the values matters, so two fingerprints only match if the
+     * same values were added in the same order, apart from unlikely collisions.
+     * @param fingerprint the fingerprint so far, {@link #EMPTY_FINGERPRINT} for the first value
+     * @param value the value to add
+     * @return the fingerprint with the value
+     */
+    public static long addToFingerprint(long fingerprint, int value) {
+        return (fingerprint ^ value) * FINGERPRINT_PRIME;
+    }
+
+    /**
+     * Returns a fingerprint of the nodes and streets: their IDs, green phase durations, start and end nodes,
+     * lengths, types and speed limits. Topologies that are built from the same files have the same fingerprint.
+     * @return the fingerprint of the topology
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of nodes.
+     * @return the number of nodes
+     */
+    public int getNumberOfNodes() {
+        return crossingParameters.size();
+    }
+
+    /**
+     * Returns the number of streets.
+     * @return the number of streets
+     */
+    public int getNumberOfStreets() {
+        return streetParameters.size();
+    }
+
+    /**
+     * Returns the index of the first node with the given ID.
+     * @param nodeID the ID of the node
+     * @return the index of the node, or {@link #NO_NODE} if there's no node with the ID
+     */
+    public int getNodeIndex(int nodeID) {
+        return nodeIndex.getOrDefault(nodeID, NO_NODE);
+    }
+
+    /**
+     * Returns the ID of the node with the given index.
+     * @param node the index of the node
+     * @return the ID of the node
+     */
+    public int getNodeID(int node) {
+        return crossingParameters.get(node)[ID];
+    }
+
+    /**
+     * Returns the green phase duration of the traffic light of the node with the given index.
+     * @param node the index of the node
+     * @return the green phase duration, zero if the node is a roundabout
+     */
+    public int getGreenPhaseDuration(int node) {
+        return crossingParameters.get(node)[GREEN_TIME];
+    }
+
+    /**
+     * Returns the number of streets that end at the node with the given index.
+     * @param node the index of the node
+     * @return the number of incoming streets
+     */
+    public int getNumberOfIncomingStreets(int node) {
+        return incomingStreets[node].length;
+    }
+
+    /**
+     * Returns the street with the given position among the streets that end at the node with the given index. The
+     * incoming streets of a node are ordered by their IDs.
+     * @param node the index of the node
+     * @param position the position of the street among the incoming streets of the node
+     * @return the ID of the street
+     */
+    public int getIncomingStreet(int node, int position) {
+        return incomingStreets[node][position];
+    }
+
+    /**
+     * Returns the number of streets that start at the node with the given index.
+     * @param node the index of the node
+     * @return the number of outgoing streets
+     */
+    public int getNumberOfOutgoingStreets(int node) {
+        return outgoingStreets[node].length;
+    }
+
+    /**
+     * Returns the street with the given position among the streets that start at the node with the given index. The
+     * outgoing streets of a node are ordered by their IDs.
+     * @param node the index of the node
+     * @param position the position of the street among the outgoing streets of the node
+     * @return the ID of the street
+     */
+    public int getOutgoingStreet(int node, int position) {
+        return outgoingStreets[node][position];
+    }
+
+    /**
+     * Returns the index of the node the given street starts at.
+     * @param streetID the ID of the street
+     * @return the index of the start node
+     */
+    public int getStartNode(int streetID) {
+        return startNodes[streetID];
+    }
+
+    /**
+     * Returns the index of the node the given street ends at.
+     * @param streetID the ID of the street
+     * @return the index of the end node
+     */
+    public int getEndNode(int streetID) {
+        return endNodes[streetID];
+    }
+
+    /**
+     * Returns the length of the given street.
+     * @param streetID the ID of the street
+     * @return the length in meters
+     */
+    public int getLength(int streetID) {
+        return lengths[streetID];
+    }
+
+    /**
+     * Returns the speed limit of the given street.
+     * @param streetID the ID of the street
+     * @return the speed limit in meters per tick
+     */
+    public int getSpeedLimit(int streetID) {
+        return speedLimits[streetID];
+    }
+
+    /**
+     * Returns whether the given street is a fast track street, where cars can overtake.
+     * @param streetID the ID of the street
+     * @return true if the street is a fast track street, otherwise false
+     */
+    public boolean isFastTrack(int streetID) {
+        return fastTracks[streetID];
+    }
+
+    /**
+     * Returns the parameters of the streets the topology was built from.
+     * @return the unmodifiable list of street parameters
+     */
+    public List<int[]> getStreetParameters() {
+        return streetParameters;
+    }
+
+    /**
+     * Returns the parameters of the crossings the topology was built from.
+     * @return the unmodifiable list of crossing parameters
+     */
+    public List<int[]> getCrossingParameters() {
+        return crossingParameters;
+    }
+
+    /**
+     * Checks that no two nodes have the same ID. The check is separate from the other checks of the topology, because
+     * a street network reports the errors of its cars first.
+     * @throws SimulationException if two nodes have the same ID
+     */
+    public void validateDuplicateNodeIDs() {
+        if (duplicateNodeID != NO_DUPLICATE) {
+            throw new SimulationException(ExceptionMessages.DUPLICATED_CROSSING_ID.format(duplicateNodeID));
+        }
+    }
+
+    private int getExistingNode(int nodeID, int streetID) {
+        int node = getNodeIndex(nodeID);
+        if (node == NO_NODE) {
+            throw new SimulationException(ExceptionMessages.STREET_WITH_ILLEGAL_NODE.format(streetID));
+        }
+        return node;
+    }
+
+    /**
+     * Collects the streets of every node, ordered by their IDs, from the node of every street. If several nodes have
+     * the same ID, the street belongs to all of them.
+     */
+    private int[][] collectStreets(int[] nodesOfStreets) {
+        int[] counts = new int[getNumberOfNodes()];
+        for (int node : nodesOfStreets) {
+            for (int i = node; i < getNumberOfNodes() && getNodeID(i) == getNodeID(node); i++) {
+                counts[i]++;
+            }
+        }
+        int[][] streets = new int[getNumberOfNodes()][];
+        for (int i = 0; i < streets.length; i++) {
+            streets[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int streetID = 0; streetID < nodesOfStreets.length; streetID++) {
+            int node = nodesOfStreets[streetID];
+            for (int i = node; i < getNumberOfNodes() && getNodeID(i) == getNodeID(node); i++) {
+                streets[i][counts[i]++] = streetID;
+            }
+        }
+        return streets;
+    }
+
+    private void validateNumberOfStreets() {
+        for (int node = 0; node < getNumberOfNodes(); node++) {
+            if (!isValidNumberOfStreets(incomingStreets[node].length)
+                    || !isValidNumberOfStreets(outgoingStreets[node].length)) {
+                throw new SimulationException(ExceptionMessages.INVALID_NUMBER_OF_STREETS.format(getNodeID(node)));
+            }
+        }
+    }
+
+    private static boolean isValidNumberOfStreets(int numberOfStreets) {
+        return numberOfStreets >= Node.MINIMUM_STREETS_SIZE && numberOfStreets <= Node.MAXIMUM_STREETS_SIZE;
+    }
+
+    private int findDuplicateNodeID() {
+        for (int i = 1; i < getNumberOfNodes(); i++) {
+            if (getNodeID(i) == getNodeID(i - 1)) {
+                return getNodeID(i);
+            }
+        }
+        return NO_DUPLICATE;
+    }
+
+    private long computeFingerprint() {
+        long hash = addToFingerprint(EMPTY_FINGERPRINT, crossingParameters.size());
+        for (int[] crossing : crossingParameters) {
+            hash = addToFingerprint(addToFingerprint(hash, crossing[ID]), crossing[GREEN_TIME]);
+        }
+        hash = addToFingerprint(hash, streetParameters.size());
+        for (int[] street : streetParameters) {
+            for (int value : street) {
+                hash = addToFingerprint(hash, value);
+            }
+        }
+        return hash;
+    }
+}
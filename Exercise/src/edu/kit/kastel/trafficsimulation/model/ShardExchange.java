@@ -0,0 +1,26 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The connection of one shard of a {@link NetworkPartition} to the other shards, over which the shards exchange the
+ * cars that cross the boundaries between them in every tick.
+ * The exchange is done in rounds. In every round each shard sends one message to some of the other shards and
+ * receives one message from each of them. Both shards of a pair always take part in the same rounds, so a shard
+ * that sends a message to another shard in a round also receives one from it.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public interface ShardExchange {
+
+    /**
+     * Sends the given messages to the other shards and waits until the messages of these shards in the same round
+     * arrived.
+     * @param messages the message for every shard, indexed by the shards, or null for the shards that take no part
+     *     in the round; every message is read from its position to its limit
+     * @return the messages of the shards that were sent a message, indexed by the shards, null for all others
+     * @throws edu.kit.kastel.trafficsimulation.exception.SimulationException if the other shards can't be reached
+     */
+    ByteBuffer[] exchange(ByteBuffer[] messages);
+}
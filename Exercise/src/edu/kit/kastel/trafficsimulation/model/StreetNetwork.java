@@ -2,45 +2,101 @@ package edu.kit.kastel.trafficsimulation.model;
 
 import edu.kit.kastel.trafficsimulation.exception.SimulationException;
 import edu.kit.kastel.trafficsimulation.io.ExceptionMessages;
+import edu.kit.kastel.trafficsimulation.io.NetworkFile;
 import edu.kit.kastel.trafficsimulation.io.TextParsing;
 import edu.kit.kastel.trafficsimulation.model.node.Intersection;
 import edu.kit.kastel.trafficsimulation.model.node.Node;
 import edu.kit.kastel.trafficsimulation.model.node.Roundabout;
+import edu.kit.kastel.trafficsimulation.model.street.ActiveStreets;
 import edu.kit.kastel.trafficsimulation.model.street.FastTrackStreet;
 import edu.kit.kastel.trafficsimulation.model.street.Street;
+import edu.kit.kastel.trafficsimulation.model.street.StreetStatistics;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntPredicate;
 
 /**
- * StreetNetwork represents a network of streets with cars and nodes. It implements the Updatable interface,
- * which defines a single update() method that updates the streets, resets all cars on streets, and updates the nodes.
+ * StreetNetwork represents a network of streets with cars and nodes. It implements the Updatable interface, whose
+ * update() method computes one tick. A tick only updates the active streets; a street that is idle is deactivated and
+ * put on the wake-up wheel of the active streets at the tick its end node switches green for it, or is activated
+ * again when a car turns onto it. The nodes aren't updated at all, their traffic lights follow the clock of the
+ * network. The move state of the cars is reset by advancing the tick stamp of the car store instead of visiting
+ * every car, and ticks in which all cars only cruise are skipped at once.
  *
  * @author uyxib
  * @version 1.0
  */
 public class StreetNetwork implements Updatable {
 
-    private static final int START_NODE = 0;
-    private static final int END_NODE = 1;
-    private static final int SPEED_LIMIT = 4;
-    private static final int LENGTH = 2;
     private static final int ID = 0;
-    private static final int STREET_TYPE = 3;
-    private static final int SINGLE_LANE = 1;
     private static final int ROUNDABOUT = 0;
-    private static final int GREEN_TIME = 1;
     private static final int STREET = 1;
     private static final int PREFERED_SPEED = 2;
     private static final int ACCELERATION = 3;
+    /**
+     * the minimum number of streets or nodes that are updated in parallel, smaller groups are updated sequentially
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final int NO_STREET = -1;
+    /**
+     * the ID of the checkpoint of a network that was not saved or restored yet
+     */
+    public static final long NO_CHECKPOINT = 0;
+    private static final int CHANGED_STREET_VALUES = 2;
+    private static final int CHANGED_CAR_VALUES = CarStore.STATE_VALUES + 1;
+    private static final int CHANGED_NODE_VALUES = Node.STATE_VALUES + 1;
+    private static final int CHANGE_COUNTS = 2;
+    /**
+     * the number of ints of the ticks since the checkpoint at the start of the changes
+     */
+    private static final int CHANGE_TICK_VALUES = Long.BYTES / Integer.BYTES;
     private final List<Street> streets;
     private final List<Car> cars;
     private final List<Node> nodes;
+    /**
+     * the validated graph of the streets and crossings, it can be shared with other networks
+     */
+    private NetworkTopology topology;
+    /**
+     * the streets that are updated in the next tick, all other streets are empty or wait in front of a red light
+     */
+    private ActiveStreets activeStreets;
+    /**
+     * the clock that counts the ticks, the traffic lights of the intersections are computed from it
+     */
+    private final Clock clock;
+    private CarStore carStore;
+    private TickMode tickMode;
+    private StreetSchedule streetSchedule;
+    private CarIndex carIndex;
+    private FastForward fastForward;
+    /**
+     * the part of the network this process simulates if the network is split into shards, otherwise null
+     */
+    private NetworkShard networkShard;
+    /**
+     * the sink the changes of the cars are reported to, or null if they aren't reported
+     */
+    private CarEventSink eventSink;
+    private final TickStatistics tickStatistics;
+    private final StringBuilder positionOutput;
     private TextParsing textParsing;
     private List<int[]> carParameters;
     private List<int[]> streetParameters;
     private List<int[]> crossingParameters;
+    private long checkpointID;
+    /**
+     * the tick of the clock at the last checkpoint
+     */
+    private long checkpointTick;
+    private boolean updatedSinceCheckpoint;
 
     /**
      * Constructs an empty StreetNetwork object with empty lists for streets, cars, and nodes, as well as null values
@@ -50,37 +106,556 @@ public class StreetNetwork implements Updatable {
         this.streets = new ArrayList<>();
         this.cars = new ArrayList<>();
         this.nodes = new ArrayList<>();
+        this.topology = null;
+        this.clock = new Clock();
+        this.activeStreets = new ActiveStreets(0, clock);
+        this.carStore = new CarStore(0);
+        this.tickMode = TickMode.SEQUENTIAL;
+        this.streetSchedule = null;
+        this.carIndex = new CarIndex(cars);
+        this.fastForward = new FastForward(streets, activeStreets, carStore, clock);
+        this.networkShard = null;
+        this.eventSink = null;
+        this.tickStatistics = new TickStatistics();
+        this.positionOutput = new StringBuilder();
         this.textParsing = null;
         this.carParameters = new ArrayList<>();
         this.streetParameters = new ArrayList<>();
         this.crossingParameters = new ArrayList<>();
+        this.checkpointID = NO_CHECKPOINT;
+        this.checkpointTick = 0;
+        this.updatedSinceCheckpoint = false;
     }
 
     /**
-     * Updates the streets in the network, resets all cars on streets, and updates the nodes.
+     * Updates the streets in the network, advances the clock and resets all cars on streets. The nodes aren't
+     * updated, their traffic lights follow the clock. The phases are timed in the tick statistics if enabled.
+     * In the parallel tick mode the streets are updated on multiple cores. In the two phase tick mode the streets
+     * first move their cars and afterwards the nodes hand off the cars at the end of their incoming streets.
+     * Only the active streets are updated. A street that is idle after the tick is deactivated until a car turns onto
+     * it or the clock reaches the tick its end node switches green for it, because updating it wouldn't change
+     * anything until then.
+     * If an event sink is set, the changes of the cars in the tick are reported to it.
      */
     @Override
     public void update() {
-        updateStreets();
+        updatedSinceCheckpoint = true;
+        if (eventSink != null) {
+            eventSink.startTick(clock.getTick());
+        }
+        long phaseStart = tickStatistics.startPhase();
+        if (tickMode == TickMode.TWO_PHASE) {
+            List<Street> movingStreets = getActiveStreets();
+            moveCarsOnStreets(movingStreets);
+            phaseStart = tickStatistics.endPhase(TickStatistics.Phase.STREETS, phaseStart);
+            handOffCarsAtNodes(nodes);
+            removeHandedOffCars(movingStreets);
+        } else {
+            if (tickMode == TickMode.PARALLEL) {
+                updateStreetsInParallel();
+            } else {
+                updateStreets();
+            }
+            phaseStart = tickStatistics.endPhase(TickStatistics.Phase.STREETS, phaseStart);
+        }
+        clock.advance(1);
+        activeStreets.wakeUp();
+        phaseStart = tickStatistics.endPhase(TickStatistics.Phase.NODES, phaseStart);
         resetAllCarsOnStreets();
-        updateNodes();
+        tickStatistics.endPhase(TickStatistics.Phase.RESET, phaseStart);
+        tickStatistics.countTick();
+        if (eventSink != null) {
+            eventSink.endTick();
+        }
+    }
+
+    /**
+     * Updates the network for the given number of ticks. While the cars only cruise at a constant speed, several
+     * ticks are skipped at once by a {@link FastForward}, which leads to the same state as updating tick by tick.
+     * While an event sink is set, no ticks are skipped, so every move of a car is reported.
+     * @param numberOfTicks the number of ticks to update the network
+     */
+    public void update(int numberOfTicks) {
+        int tick = 0;
+        while (tick < numberOfTicks) {
+            int skippedTicks = eventSink == null ? fastForward.skip(numberOfTicks - tick) : 0;
+            if (skippedTicks == 0) {
+                update();
+                tick++;
+            } else {
+                updatedSinceCheckpoint = true;
+                tickStatistics.countSkippedTicks(skippedTicks);
+                tick += skippedTicks;
+            }
+        }
+    }
+
+    /**
+     * Updates this shard of the network for the given number of ticks together with the other shards. The ticks
+     * follow the two phase tick mode whatever the tick mode of the network is, because the nodes only hand off cars
+     * in the second phase, when the shards exchange the cars that cross their boundaries. So the shards together
+     * compute the same ticks as one network in the two phase tick mode, not in the sequential one. Like in
+     * {@link #update(int)} ticks in which all cars only cruise are skipped, if all shards can skip them.
+     * The network must be initialized by {@link #initShard(int, int)} before.
+     * @param numberOfTicks the number of ticks to update the network
+     * @param exchange the connection to the other shards
+     * @throws SimulationException if the other shards can't be reached
+     */
+    public void update(int numberOfTicks, ShardExchange exchange) {
+        int tick = 0;
+        while (tick < numberOfTicks) {
+            int skippedTicks = fastForward.skip(numberOfTicks - tick,
+                    ticks -> networkShard.agreeOnTicks(ticks, exchange));
+            if (skippedTicks == 0) {
+                updateShard(exchange);
+                tick++;
+            } else {
+                updatedSinceCheckpoint = true;
+                tickStatistics.countSkippedTicks(skippedTicks);
+                tick += skippedTicks;
+            }
+        }
+    }
+
+    /**
+     * Initializes only the given shard of the network, which is split into ranges of nodes by
+     * {@link NetworkPartition#byNodeRanges(NetworkTopology, int)}. The cars are validated like in {@link #init()},
+     * but only the nodes of the shard and the streets that end or start at them are created, and the car store only
+     * holds the cars on the streets of the shard. The nodes and streets of other shards stay null in the lists of
+     * the network. Right after the validation the parameters of the cars are dropped, so the heap of the shard only
+     * holds the cars of the shard and doesn't grow with the cars of the whole network. Therefore
+     * {@link #toNetworkFile()} isn't available for a shard. Afterwards the network is updated by
+     * {@link #update(int, ShardExchange)}.
+     * @param numberOfShards the number of shards the network is split into
+     * @param shard the shard this network simulates, lower than the number of shards
+     * @throws SimulationException if the cars are invalid or two nodes have the same ID
+     */
+    public void initShard(int numberOfShards, int shard) {
+        topology = new NetworkTopology(streetParameters, crossingParameters);
+        streetParameters = topology.getStreetParameters();
+        crossingParameters = topology.getCrossingParameters();
+        int[] startPositions = validateCars();
+        NetworkPartition partition = NetworkPartition.byNodeRanges(topology, numberOfShards);
+        initNodes(node -> partition.getShardOfNode(node) == shard);
+        activeStreets = new ActiveStreets(topology.getNumberOfStreets(), clock);
+        initStreets(streetID -> partition.getShardOfStreet(streetID) == shard
+                || partition.getStartShard(streetID) == shard);
+        int numberOfCars = 0;
+        for (int[] car : carParameters) {
+            if (partition.getShardOfStreet(car[STREET]) == shard) {
+                numberOfCars++;
+            }
+        }
+        carStore = new CarStore(numberOfCars);
+        carStore.setEventSink(eventSink);
+        networkShard = new NetworkShard(streets, nodes, cars, activeStreets, carStore, partition, shard);
+        for (int i = 0; i < carParameters.size(); i++) {
+            int[] car = carParameters.get(i);
+            if (partition.getShardOfStreet(car[STREET]) == shard) {
+                placeCar(networkShard.addCar(i, car[ID], car[STREET], car[PREFERED_SPEED], car[ACCELERATION]),
+                        startPositions[i]);
+            }
+        }
+        carParameters = List.of();
+        textParsing = null;
+        fastForward = new FastForward(streets, activeStreets, carStore, clock);
+    }
+
+    /**
+     * Returns the number of ints {@link #saveShardCars(ByteBuffer)} writes.
+     * @return the number of ints of the cars of the shard
+     */
+    public long getShardCarsSize() {
+        return networkShard.getCarsSize();
+    }
+
+    /**
+     * Writes the cars on the streets of this shard to the given output: the number of cars, and for every car its
+     * slot, its ID, the ID of its street, its speed and its position. Together the shards write every car once.
+     * @param output the output to write the cars to, it must have room for {@link #getShardCarsSize()} ints
+     */
+    public void saveShardCars(ByteBuffer output) {
+        networkShard.saveCars(output);
+    }
+
+    /**
+     * Returns a fingerprint of everything that doesn't change while the simulation runs: the fingerprint of the
+     * topology and the IDs, preferred speeds and accelerations of the cars. A state can only be restored into a
+     * network with the same fingerprint.
+     * @return the fingerprint of the network
+     */
+    public long getFingerprint() {
+        long fingerprint = NetworkTopology.addToFingerprint(topology.getFingerprint(), carStore.size());
+        for (int slot = 0; slot < carStore.size(); slot++) {
+            fingerprint = NetworkTopology.addToFingerprint(fingerprint, carStore.getCarID(slot));
+            fingerprint = NetworkTopology.addToFingerprint(fingerprint, carStore.getPreferredSpeed(slot));
+            fingerprint = NetworkTopology.addToFingerprint(fingerprint, carStore.getAcceleration(slot));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Writes the state of the network that changes while the simulation runs to the given output: first the state
+     * of all cars, then the order of the cars on every street and then the state of every node.
+     * The state can only be restored into a network that is built from the same files, and the output must have room
+     * for the whole state.
+     * @param output the output to write the state to
+     */
+    public void saveState(ByteBuffer output) {
+        carStore.saveState(output);
+        for (Street street : streets) {
+            street.saveState(output);
+        }
+        for (Node node : nodes) {
+            node.saveState(output);
+        }
+    }
+
+    /**
+     * Checks whether the given input contains a state that was written by {@link #saveState(ByteBuffer)} of a network
+     * that is built from the same files. Every car must be on exactly one street, the state of every car must belong
+     * to its street and the state of every node must fit the node.
+     * The position of the input is not changed.
+     * @param input the input to check
+     * @return true if the state can be restored into this network, otherwise false
+     */
+    public boolean isValidState(ByteBuffer input) {
+        ByteBuffer state = input.duplicate();
+        try {
+            int[] streetOfSlot = new int[cars.size()];
+            Arrays.fill(streetOfSlot, NO_STREET);
+            state.position(state.position() + cars.size() * CarStore.STATE_VALUES * Integer.BYTES);
+            int unplacedCars = cars.size();
+            for (int streetID = 0; streetID < streets.size(); streetID++) {
+                int numberOfCars = state.getInt();
+                if (numberOfCars < 0 || numberOfCars > unplacedCars) {
+                    return false;
+                }
+                for (int i = 0; i < numberOfCars; i++) {
+                    int slot = state.getInt();
+                    if (!validIndex(slot, cars.size()) || streetOfSlot[slot] != NO_STREET) {
+                        return false;
+                    }
+                    streetOfSlot[slot] = streetID;
+                }
+                unplacedCars -= numberOfCars;
+            }
+            if (unplacedCars != 0) {
+                return false;
+            }
+            for (Node node : nodes) {
+                if (!node.isValidState(state)) {
+                    return false;
+                }
+            }
+            if (state.hasRemaining()) {
+                return false;
+            }
+            ByteBuffer carStates = input.duplicate();
+            for (int slot = 0; slot < cars.size(); slot++) {
+                int streetID = streetOfSlot[slot];
+                if (!CarStore.isValidCar(carStates, streetID, topology.getLength(streetID))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the state of the network that was written by {@link #saveState(ByteBuffer)} of a network that is built
+     * from the same files. The state must have been checked by {@link #isValidState(ByteBuffer)}.
+     * @param input the input to read the state from
+     */
+    public void restoreState(ByteBuffer input) {
+        carStore.restoreState(input);
+        for (Street street : streets) {
+            street.restoreState(input, cars);
+        }
+        for (Node node : nodes) {
+            node.restoreState(input);
+        }
+        activeStreets.activateAll();
+    }
+
+    /**
+     * Writes the state of the streets and nodes that changed since the last checkpoint to the given output. It starts
+     * with the number of ticks since the checkpoint as long. For every changed street its index, the order of its
+     * cars and the state of these cars is written. Every car that changed is on a changed street, because a car only
+     * changes while its street is updated or when it turns onto a new street. For every changed node its index and
+     * its state is written; a traffic light whose green phases only went on with the clock didn't change.
+     * The output must have room for {@link #getChangesSize()} ints.
+     * @param output the output to write the changes to
+     */
+    public void saveChanges(ByteBuffer output) {
+        output.putLong(clock.getTick() - checkpointTick);
+        output.putInt(countChangedStreets());
+        for (int i = 0; i < streets.size(); i++) {
+            Street street = streets.get(i);
+            if (street.hasChanged()) {
+                output.putInt(i);
+                street.saveState(output);
+                for (Car car : street.getCars()) {
+                    carStore.saveCar(car.getSlot(), output);
+                }
+            }
+        }
+        output.putInt(countChangedNodes());
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).hasChanged()) {
+                output.putInt(i);
+                nodes.get(i).saveState(output);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ints {@link #saveChanges(ByteBuffer)} writes.
+     * @return the number of ints of the changes since the last checkpoint
+     */
+    public long getChangesSize() {
+        long size = CHANGE_TICK_VALUES + CHANGE_COUNTS;
+        for (Street street : streets) {
+            if (street.hasChanged()) {
+                size += CHANGED_STREET_VALUES + (long) street.getCars().size() * CHANGED_CAR_VALUES;
+            }
+        }
+        return size + (long) countChangedNodes() * CHANGED_NODE_VALUES;
+    }
+
+    /**
+     * Checks whether the given input contains changes that were written by {@link #saveChanges(ByteBuffer)} of a
+     * network that is built from the same files. The position of the input is not changed.
+     * @param input the input to check
+     * @return true if the changes can be restored into this network, otherwise false
+     */
+    public boolean isValidChanges(ByteBuffer input) {
+        ByteBuffer changes = input.duplicate();
+        try {
+            if (changes.getLong() < 0) {
+                return false;
+            }
+            int changedStreets = changes.getInt();
+            for (int i = 0; i < changedStreets; i++) {
+                int streetID = changes.getInt();
+                if (!validIndex(streetID, streets.size())) {
+                    return false;
+                }
+                int numberOfCars = changes.getInt();
+                long carBytes = (long) numberOfCars * CHANGED_CAR_VALUES * Integer.BYTES;
+                if (numberOfCars < 0 || carBytes > changes.remaining()) {
+                    return false;
+                }
+                for (int j = 0; j < numberOfCars; j++) {
+                    if (!validIndex(changes.getInt(), cars.size())) {
+                        return false;
+                    }
+                }
+                for (int j = 0; j < numberOfCars; j++) {
+                    if (!CarStore.isValidCar(changes, streetID, topology.getLength(streetID))) {
+                        return false;
+                    }
+                }
+            }
+            int changedNodes = changes.getInt();
+            for (int i = 0; i < changedNodes; i++) {
+                int node = changes.getInt();
+                if (!validIndex(node, nodes.size()) || !nodes.get(node).isValidState(changes)) {
+                    return false;
+                }
+            }
+            return !changes.hasRemaining();
+        } catch (BufferUnderflowException | IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the changes that were written by {@link #saveChanges(ByteBuffer)} of a network that is built from the
+     * same files and applies them to the streets, cars and nodes. The clock is advanced by the ticks of the changes
+     * first, so the traffic lights that didn't change are in the same green phase as in the saved network.
+     * @param input the input to read the changes from
+     */
+    public void restoreChanges(ByteBuffer input) {
+        clock.advance(input.getLong());
+        int changedStreets = input.getInt();
+        for (int i = 0; i < changedStreets; i++) {
+            Street street = streets.get(input.getInt());
+            street.restoreState(input, cars);
+            for (Car car : street.getCars()) {
+                carStore.restoreCar(car.getSlot(), input);
+            }
+        }
+        int changedNodes = input.getInt();
+        for (int i = 0; i < changedNodes; i++) {
+            nodes.get(input.getInt()).restoreState(input);
+        }
+        activeStreets.activateAll();
+    }
+
+    /**
+     * Returns the ID of the last checkpoint the network was saved to or restored from.
+     * @return the ID of the last checkpoint, or {@link #NO_CHECKPOINT} if there's none
+     */
+    public long getCheckpointID() {
+        return checkpointID;
+    }
+
+    /**
+     * Returns whether the network was updated since its last checkpoint.
+     * @return true if the network was updated since its last checkpoint, otherwise false
+     */
+    public boolean isUpdatedSinceCheckpoint() {
+        return updatedSinceCheckpoint;
+    }
+
+    /**
+     * Marks the current state of the network as the checkpoint with the given ID, so the changes of the streets and
+     * nodes are tracked from now on.
+     * @param checkpointID the ID of the checkpoint
+     */
+    public void markCheckpoint(long checkpointID) {
+        this.checkpointID = checkpointID;
+        this.checkpointTick = clock.getTick();
+        this.updatedSinceCheckpoint = false;
+        for (Street street : streets) {
+            street.resetChanged();
+        }
+        for (Node node : nodes) {
+            node.resetChanged();
+        }
+    }
+
+    /**
+     * Returns the number of cars in the network.
+     * @return the number of cars
+     */
+    public int getNumberOfCars() {
+        return cars.size();
+    }
+
+    /**
+     * Returns the number of streets in the network.
+     * @return the number of streets
+     */
+    public int getNumberOfStreets() {
+        return streets.size();
+    }
+
+    /**
+     * Returns the number of nodes in the network.
+     * @return the number of nodes
+     */
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the mode the ticks of the network are computed in.
+     * @return the tick mode of the network
+     */
+    public TickMode getTickMode() {
+        return tickMode;
+    }
+
+    /**
+     * Sets the mode the ticks of the network are computed in.
+     * @param tickMode the new tick mode of the network
+     */
+    public void setTickMode(TickMode tickMode) {
+        this.tickMode = tickMode;
     }
 
     /**
      * Initializes the nodes, streets, and cars in the network, validates the nodes, and checks for duplicate IDs
-     * for both cars and nodes. Adds cars to the street and connects streets and nodes.
+     * for both cars and nodes. Adds cars to the street, the streets and nodes read their connections from the
+     * topology.
+     * Nodes are found by their ID through an index and the streets by their ID as position in the list of streets, so
+     * the initialization takes linear time in the number of nodes, streets and cars.
      */
     public void init() {
-        initNodes();
-        initStreets();
-        addStreetsToNode();
-        validateNodes();
-        validateNodesExistsForStreets();
-        initCars();
-        addCarsToStreet();
-        validateDuplicateCarIds();
-        validateDuplicateNodeIds();
-        validateStreetExistsForCars();
+        init(new NetworkTopology(streetParameters, crossingParameters), carParameters);
+    }
+
+    /**
+     * Initializes the network on the given topology with the given cars. The topology is already validated and can
+     * be shared with other networks, so only the nodes, streets and cars of this network are created and only the
+     * cars are validated.
+     * @param topology the validated graph of the streets and crossings
+     * @param carParameters the parameters of the cars, as read from the car file
+     * @throws SimulationException if the cars are invalid or two nodes of the topology have the same ID
+     */
+    public void init(NetworkTopology topology, List<int[]> carParameters) {
+        this.topology = topology;
+        this.streetParameters = topology.getStreetParameters();
+        this.crossingParameters = topology.getCrossingParameters();
+        this.carParameters = carParameters;
+        int[] startPositions = validateCars();
+        initNodes(node -> true);
+        activeStreets = new ActiveStreets(topology.getNumberOfStreets(), clock);
+        initStreets(streetID -> true);
+        initCars(startPositions);
+        carIndex = new CarIndex(cars);
+        fastForward = new FastForward(streets, activeStreets, carStore, clock);
+        activeStreets.activateAll();
+    }
+
+    /**
+     * Returns the validated graph of the streets and crossings the network is built on.
+     * @return the topology of the network, or null if the network isn't initialized yet
+     */
+    public NetworkTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the sink the changes of the cars are reported to.
+     * @return the event sink, or null if the changes aren't reported
+     */
+    public CarEventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Sets the sink the changes of the cars are reported to from the next tick on. The sink is kept if the network
+     * is initialized again.
+     * @param eventSink the event sink, or null to stop reporting the changes
+     */
+    public void setEventSink(CarEventSink eventSink) {
+        this.eventSink = eventSink;
+        carStore.setEventSink(eventSink);
+    }
+
+    /**
+     * Returns the counters and timers of the ticks of the network.
+     * @return the tick statistics
+     */
+    public TickStatistics getTickStatistics() {
+        return tickStatistics;
+    }
+
+    /**
+     * Returns the sum of the counters of all streets.
+     * @return new statistics with the counters of the whole network
+     */
+    public StreetStatistics getStreetStatistics() {
+        StreetStatistics statistics = new StreetStatistics();
+        for (Street street : streets) {
+            statistics.add(street.getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Sets the counters of the ticks and of all streets to zero.
+     */
+    public void resetStatistics() {
+        tickStatistics.reset();
+        for (Street street : streets) {
+            street.getStatistics().reset();
+        }
     }
 
     /**
@@ -90,25 +665,105 @@ public class StreetNetwork implements Updatable {
      * @throws SimulationException if no car with the given ID exists in the simulation
      */
     public String getCurrentCar(int carID) {
-        for (Car car: cars) {
-            if (car.getCarID() == carID) {
-                return car.toString();
-            }
+        return getCarFromID(carID).toString();
+    }
+
+    /**
+     * Returns the String representations of the cars with the given IDs in the simulation, one line per car.
+     * @param carIDs the IDs of the cars to get the String representations of
+     * @return the String representations of the cars with the given IDs
+     * @throws SimulationException if a car with one of the given IDs doesn't exist in the simulation
+     */
+    public String getCurrentCars(int[] carIDs) {
+        positionOutput.setLength(0);
+        for (int carID : carIDs) {
+            appendPositionLine(getCarFromID(carID));
+        }
+        return positionOutput.toString();
+    }
+
+    /**
+     * Returns the String representations of all cars in the simulation in the order they were loaded, one line per
+     * car.
+     * @return the String representations of all cars
+     */
+    public String getAllCurrentCars() {
+        positionOutput.setLength(0);
+        for (Car car : cars) {
+            appendPositionLine(car);
         }
-        throw new SimulationException(ExceptionMessages.CAR_NOT_IN_SIMULATION.format());
+        return positionOutput.toString();
     }
 
     /**
      * Reads files containing parameters for cars, streets, and crossings from the given file path, validates the
      * parameters, and sets the carParameters, streetParameters, and crossingParameters fields in the StreetNetwork
      * object to the validated parameters.
+     * The three files are parsed at the same time. If more than one file is invalid, the error of the car file is
+     * reported first, then the error of the street file and then the error of the crossing file.
+     * If the path points to a {@link NetworkFile}, the already validated parameters are read from it instead.
+     * @throws SimulationException if a file is not found or invalid
      * @param filePath the path of the file to read parameters from
      */
     public void readFiles(String filePath) {
+        if (NetworkFile.isNetworkFile(filePath)) {
+            NetworkFile networkFile = NetworkFile.read(filePath);
+            carParameters = networkFile.getCarParameters();
+            streetParameters = networkFile.getStreetParameters();
+            crossingParameters = networkFile.getCrossingParameters();
+            return;
+        }
         textParsing = new TextParsing(filePath);
-        carParameters = textParsing.validateCars();
-        streetParameters = textParsing.validateStreets();
-        crossingParameters = textParsing.validateCrossings();
+        CompletableFuture<List<int[]>> cars = CompletableFuture.supplyAsync(textParsing::validateCars);
+        CompletableFuture<List<int[]>> streets = CompletableFuture.supplyAsync(textParsing::validateStreets);
+        CompletableFuture<List<int[]>> crossings = CompletableFuture.supplyAsync(textParsing::validateCrossings);
+        carParameters = joinParameters(cars);
+        streetParameters = joinParameters(streets);
+        crossingParameters = joinParameters(crossings);
+    }
+
+    /**
+     * Returns the parameters the street network is built from as a network file. The network must not be
+     * initialized as a shard by {@link #initShard(int, int)}.
+     * @return the network file with the parameters of the streets, crossings and cars
+     */
+    public NetworkFile toNetworkFile() {
+        return new NetworkFile(streetParameters, crossingParameters, carParameters);
+    }
+
+    private int countChangedStreets() {
+        int changedStreets = 0;
+        for (Street street : streets) {
+            if (street.hasChanged()) {
+                changedStreets++;
+            }
+        }
+        return changedStreets;
+    }
+
+    private int countChangedNodes() {
+        int changedNodes = 0;
+        for (Node node : nodes) {
+            if (node.hasChanged()) {
+                changedNodes++;
+            }
+        }
+        return changedNodes;
+    }
+
+    private static boolean validIndex(int index, int size) {
+        return index >= 0 && index < size;
+    }
+
+    private List<int[]> joinParameters(CompletableFuture<List<int[]>> parameters) {
+        try {
+            return parameters.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
     }
 
     /**
@@ -119,156 +774,269 @@ public class StreetNetwork implements Updatable {
      * @return the Node object with the given ID
      */
     public Node getNodeFromID(int nodeID, int streetID) {
-        for (Node node : nodes) {
-            if (node.getNodeID() == nodeID) {
-                return node;
-            }
+        int node = topology == null ? NetworkTopology.NO_NODE : topology.getNodeIndex(nodeID);
+        if (node == NetworkTopology.NO_NODE) {
+            throw new SimulationException(ExceptionMessages.STREET_WITH_ILLEGAL_NODE.format(streetID));
+        }
+        return nodes.get(node);
+    }
+
+    private Car getCarFromID(int carID) {
+        Car car = carIndex.get(carID);
+        if (car == null) {
+            throw new SimulationException(ExceptionMessages.CAR_NOT_IN_SIMULATION.format());
+        }
+        return car;
+    }
+
+    private void appendPositionLine(Car car) {
+        if (!positionOutput.isEmpty()) {
+            positionOutput.append(System.lineSeparator());
         }
-        throw new SimulationException(ExceptionMessages.STREET_WITH_ILLEGAL_NODE.format(streetID));
+        car.appendPosition(positionOutput);
     }
 
     /**
-     * Initializes the nodes based on the crossing parameters, creating either an Intersection or a Roundabout object.
+     * Initializes the given nodes of the topology, creating either an Intersection or a Roundabout object. The nodes
+     * read their IDs and streets from the topology, so only the traffic lights are created here. The other nodes are
+     * null.
      */
-    private void initNodes() {
-        for (int i = 0; i < crossingParameters.size(); i++) {
-
-            if (crossingParameters.get(i)[GREEN_TIME] == ROUNDABOUT) {
-                nodes.add(new Roundabout(crossingParameters.get(i)[ID]));
+    private void initNodes(IntPredicate isCreated) {
+        for (int i = 0; i < topology.getNumberOfNodes(); i++) {
+            if (!isCreated.test(i)) {
+                nodes.add(null);
+            } else if (topology.getGreenPhaseDuration(i) == ROUNDABOUT) {
+                nodes.add(new Roundabout(topology, i));
             } else {
-                nodes.add(new Intersection(crossingParameters.get(i)[ID], crossingParameters.get(i)[GREEN_TIME]));
+                nodes.add(new Intersection(topology, i, clock));
             }
         }
     }
 
     /**
-     * Initializes the streets based on the street parameters, creating either a Street or a FastTrackStreet object.
-     * @throws SimulationException if the start and end nodes of a street are the same.
+     * Initializes the given streets of the topology, creating either a Street or a FastTrackStreet object. The
+     * streets read their nodes, lengths and speed limits from the topology, so only the lanes are created here. The
+     * other streets are null.
      */
-    private void initStreets() {
-        for (int i = 0; i < streetParameters.size(); i++) {
-            int[] currentStreet = streetParameters.get(i);
-            if (currentStreet[START_NODE] == currentStreet[END_NODE]) {
-                throw new SimulationException(ExceptionMessages.INVALID_STREET_NODE.format(i));
-            } else if (currentStreet[STREET_TYPE] == SINGLE_LANE) {
-                streets.add(new Street(currentStreet[START_NODE], currentStreet[END_NODE], currentStreet[LENGTH],
-                        currentStreet[SPEED_LIMIT], i,
-                        getNodeFromID(currentStreet[START_NODE], i), getNodeFromID(currentStreet[END_NODE], i)));
+    private void initStreets(IntPredicate isCreated) {
+        for (int i = 0; i < topology.getNumberOfStreets(); i++) {
+            if (!isCreated.test(i)) {
+                streets.add(null);
+            } else if (topology.isFastTrack(i)) {
+                streets.add(new FastTrackStreet(topology, i, nodes, streets, activeStreets));
             } else {
-                streets.add(new FastTrackStreet(currentStreet[START_NODE], currentStreet[END_NODE],
-                        currentStreet[LENGTH], currentStreet[SPEED_LIMIT], i,
-                        getNodeFromID(currentStreet[START_NODE], i), getNodeFromID(currentStreet[END_NODE], i)));
+                streets.add(new Street(topology, i, nodes, streets, activeStreets));
             }
         }
     }
 
     /**
-     * Initializes the cars based on the car parameters.
+     * Initializes the cars based on the car parameters and adds them to their streets at the given positions. The
+     * state of all cars is held in one car store.
      */
-    private void initCars() {
+    private void initCars(int[] startPositions) {
+        carStore = new CarStore(carParameters.size());
+        carStore.setEventSink(eventSink);
         for (int i = 0; i < carParameters.size(); i++) {
-            cars.add(new Car(carParameters.get(i)[ID], carParameters.get(i)[STREET]
-                    , carParameters.get(i)[PREFERED_SPEED], carParameters.get(i)[ACCELERATION]));
+            int slot = carStore.add(carParameters.get(i)[ID], carParameters.get(i)[STREET],
+                    carParameters.get(i)[PREFERED_SPEED], carParameters.get(i)[ACCELERATION]);
+            Car car = new Car(carStore, slot);
+            cars.add(car);
+            placeCar(car, startPositions[i]);
         }
     }
 
-    private void addStreetsToNode() {
-        for (Street street : streets) {
-            for (Node node : nodes) {
-                if (node.getNodeID() == street.getIntStartNode()) {
-                    node.getOutgoingStreets().add(street);
-                }
-                if (node.getNodeID() == street.getIntEndNode()) {
-                    node.getIncomingStreets().add(street);
-                }
-            }
-        }
+    private void placeCar(Car car, int startPosition) {
+        car.setCurrentPosition(startPosition);
+        streets.get(car.getCurrentStreet()).getCars().addLast(car);
     }
 
-    private void validateNodes() {
-        for (Node node: nodes) {
-            node.validateCorrespondingStreets(node.getIncomingStreets());
-            node.validateCorrespondingStreets(node.getOutgoingStreets());
-        }
+    /**
+     * Validates the car parameters against the topology before any car is created: first the number of cars on
+     * every street, then the IDs of the cars and nodes, and then the streets of the cars.
+     * @return the start position of every car in the order of the car parameters
+     */
+    private int[] validateCars() {
+        int[] startPositions = getStartPositions();
+        validateDuplicateCarIds();
+        topology.validateDuplicateNodeIDs();
+        validateStreetExistsForCars(startPositions);
+        return startPositions;
     }
 
-    private void addCarsToStreet() {
-        for (Street street : streets) {
-            int streetPosition = street.getLength();
-            for (int i = 0; i < cars.size(); i++) {
-                if (cars.get(i).getCurrentStreet() == street.getStreetID()) {
-                    if (streetPosition >= Car.BEGINNING_OF_STREET) {
-                        cars.get(i).setCurrentPosition(streetPosition);
-                        street.getCars().add(cars.get(i));
-                        streetPosition -= Street.SAVE_DISTANCE;
-                    } else {
-                        throw new SimulationException(ExceptionMessages.INVALID_NUMBER_OF_CARS_ON_STREET
-                                .format(street.getStreetID(), i));
-                    }
-                }
+    /**
+     * Computes the start positions of the cars in one pass. The cars of a street are placed from its end to its
+     * beginning in the order of the car file. If too many cars are on some streets, the street with the lowest ID and
+     * its first car that doesn't fit are reported. A car on a street that doesn't exist gets no position.
+     */
+    private int[] getStartPositions() {
+        int[] streetPositions = new int[topology.getNumberOfStreets()];
+        for (int i = 0; i < streetPositions.length; i++) {
+            streetPositions[i] = topology.getLength(i);
+        }
+        int[] startPositions = new int[carParameters.size()];
+        int overfilledStreet = NO_STREET;
+        int firstCarTooMany = NO_STREET;
+        for (int i = 0; i < startPositions.length; i++) {
+            int streetID = carParameters.get(i)[STREET];
+            boolean streetExists = streetID >= 0 && streetID < streetPositions.length;
+            startPositions[i] = Car.NO_DRIVE;
+            if (streetExists && streetPositions[streetID] >= Car.BEGINNING_OF_STREET) {
+                startPositions[i] = streetPositions[streetID];
+                streetPositions[streetID] -= Street.SAVE_DISTANCE;
+            } else if (streetExists && (overfilledStreet == NO_STREET || streetID < overfilledStreet)) {
+                overfilledStreet = streetID;
+                firstCarTooMany = i;
             }
         }
+        if (overfilledStreet != NO_STREET) {
+            throw new SimulationException(ExceptionMessages.INVALID_NUMBER_OF_CARS_ON_STREET
+                    .format(overfilledStreet, firstCarTooMany));
+        }
+        return startPositions;
     }
 
     private void validateDuplicateCarIds() {
         HashSet<Integer> iDs = new HashSet<>();
-        for (Car car : cars) {
-            if (!iDs.add(car.getCarID())) {
-                throw new SimulationException(ExceptionMessages.DUPLICATED_CAR_ID.format(car.getCarID()));
+        for (int[] car : carParameters) {
+            if (!iDs.add(car[ID])) {
+                throw new SimulationException(ExceptionMessages.DUPLICATED_CAR_ID.format(car[ID]));
             }
         }
     }
 
-    private void validateDuplicateNodeIds() {
-        HashSet<Integer> iDs = new HashSet<>();
-        for (Node node : nodes) {
-            if (!iDs.add(node.getNodeID())) {
-                throw new SimulationException(ExceptionMessages.DUPLICATED_CROSSING_ID.format(node.getNodeID()));
+    private void validateStreetExistsForCars(int[] startPositions) {
+        for (int i = 0; i < startPositions.length; i++) {
+            if (startPositions[i] == Car.NO_DRIVE) {
+                throw new SimulationException(ExceptionMessages.CAR_WITH_ILLEGAL_STREET
+                        .format(carParameters.get(i)[ID]));
             }
         }
     }
 
-    private void validateNodesExistsForStreets() {
-        for (Street street : streets) {
-            boolean startNodeExists = false;
-            boolean endNodeExists = false;
-            for (Node node : nodes) {
-                if (street.getIntStartNode() == node.getNodeID()) {
-                    startNodeExists = true;
-                }
-                if (street.getIntEndNode() == node.getNodeID()) {
-                    endNodeExists = true;
-                }
-            }
-            if (!startNodeExists || !endNodeExists) {
-                throw new SimulationException(ExceptionMessages.STREET_WITH_ILLEGAL_NODE.format(street.getStreetID()));
-            }
+    /**
+     * Updates the active streets in the order of their IDs. A street that is activated during the tick is updated
+     * in the same tick if its ID is higher than the ID of the current street, like all streets in the sequential
+     * order. Its stopped cars stay stopped and the turned car is already moved, so this doesn't change the result.
+     */
+    private void updateStreets() {
+        int streetID = activeStreets.nextActive(0);
+        while (streetID != ActiveStreets.NO_STREET) {
+            updateStreet(streets.get(streetID));
+            streetID = activeStreets.nextActive(streetID + 1);
         }
     }
 
-    private void validateStreetExistsForCars() {
-        for (Car car : cars) {
-            if (car.getCurrentPosition() == Car.NO_DRIVE) {
-                throw new SimulationException(ExceptionMessages.CAR_WITH_ILLEGAL_STREET.format(car.getCarID()));
+    private void updateStreetsInParallel() {
+        if (streetSchedule == null) {
+            streetSchedule = new StreetSchedule(topology, streets);
+        }
+        for (List<Street> level : getActiveLevels()) {
+            if (level.size() < PARALLEL_THRESHOLD) {
+                level.forEach(StreetNetwork::updateStreet);
+            } else {
+                level.parallelStream().forEach(StreetNetwork::updateStreet);
             }
         }
     }
 
-    private void updateNodes() {
-        for (Node node : nodes) {
-            node.update();
+    private static void updateStreet(Street street) {
+        street.update();
+        street.deactivateIfIdle();
+    }
+
+    /**
+     * Returns the streets that are active at the beginning of the tick, split into the levels of the street schedule.
+     * @return the active streets of every level of the street schedule
+     */
+    private List<List<Street>> getActiveLevels() {
+        List<List<Street>> activeLevels = new ArrayList<>(streetSchedule.getNumberOfLevels());
+        for (int i = 0; i < streetSchedule.getNumberOfLevels(); i++) {
+            activeLevels.add(new ArrayList<>());
         }
+        for (Street street : getActiveStreets()) {
+            activeLevels.get(streetSchedule.getLevel(street.getStreetID())).add(street);
+        }
+        return activeLevels;
     }
 
-    private void updateStreets() {
-        for (Street street : streets) {
-            street.update();
+    private List<Street> getActiveStreets() {
+        List<Street> activeList = new ArrayList<>();
+        int streetID = activeStreets.nextActive(0);
+        while (streetID != ActiveStreets.NO_STREET) {
+            activeList.add(streets.get(streetID));
+            streetID = activeStreets.nextActive(streetID + 1);
         }
+        return activeList;
     }
 
-    private void resetAllCarsOnStreets() {
-        for (Street street : streets) {
-            street.resetCarMoves();
+    /**
+     * Updates this shard for one tick like the two phase tick mode. After the first phase the shard sends the last
+     * cars of its boundary streets to the shards of their start nodes and receives theirs. Its nodes hand off their
+     * cars, also onto the copies of the streets of other shards, and afterwards the shard sends the cars on these
+     * copies to the shards of the streets and receives the cars that were handed off onto its streets.
+     */
+    private void updateShard(ShardExchange exchange) {
+        updatedSinceCheckpoint = true;
+        long phaseStart = tickStatistics.startPhase();
+        List<Street> movingStreets = getActiveStreets();
+        moveCarsOnStreets(movingStreets);
+        phaseStart = tickStatistics.endPhase(TickStatistics.Phase.STREETS, phaseStart);
+        networkShard.restoreTails(exchange.exchange(networkShard.saveTails()));
+        handOffCarsAtNodes(networkShard.getNodes());
+        removeHandedOffCars(movingStreets);
+        networkShard.restoreHandedOffCars(exchange.exchange(networkShard.saveHandedOffCars()));
+        clock.advance(1);
+        activeStreets.wakeUp();
+        phaseStart = tickStatistics.endPhase(TickStatistics.Phase.NODES, phaseStart);
+        resetAllCarsOnStreets();
+        tickStatistics.endPhase(TickStatistics.Phase.RESET, phaseStart);
+        tickStatistics.countTick();
+    }
+
+    /**
+     * Moves the cars on the given active streets. A street with a hand off car has green, so it's never deactivated
+     * before its car is handed off.
+     */
+    private void moveCarsOnStreets(List<Street> movingStreets) {
+        if (movingStreets.size() < PARALLEL_THRESHOLD) {
+            movingStreets.forEach(StreetNetwork::moveCarsOnStreet);
+        } else {
+            movingStreets.parallelStream().forEach(StreetNetwork::moveCarsOnStreet);
+        }
+    }
+
+    private void removeHandedOffCars(List<Street> movingStreets) {
+        if (movingStreets.size() < PARALLEL_THRESHOLD) {
+            movingStreets.forEach(Street::removeHandedOffCar);
+        } else {
+            movingStreets.parallelStream().forEach(Street::removeHandedOffCar);
         }
     }
+
+    private static void moveCarsOnStreet(Street street) {
+        street.moveCars();
+        street.deactivateIfIdle();
+    }
+
+    private void handOffCarsAtNodes(List<Node> handingOffNodes) {
+        if (handingOffNodes.size() < PARALLEL_THRESHOLD) {
+            handingOffNodes.forEach(this::handOffCars);
+        } else {
+            handingOffNodes.parallelStream().forEach(this::handOffCars);
+        }
+    }
+
+    private void handOffCars(Node node) {
+        for (int i = 0; i < node.getNumberOfIncomingStreets(); i++) {
+            streets.get(node.getIncomingStreet(i)).commitHandOff();
+        }
+    }
+
+    /**
+     * Resets the move state of all cars by starting a new tick in the car store, without visiting the cars.
+     */
+    private void resetAllCarsOnStreets() {
+        carStore.nextTick();
+    }
 }
@@ -0,0 +1,79 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import edu.kit.kastel.trafficsimulation.model.street.Street;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits the streets of a network into levels that can be updated in parallel without changing the results of the
+ * sequential street order.
+ * The update of a street changes its own cars and, if a car turns, the lane of one outgoing street of its end node.
+ * So two streets depend on each other if one of them starts where the other one ends or if both end at the same
+ * node. A street is placed one level after the last level that holds a street with a lower ID it depends on.
+ * Streets in the same level never depend on each other, and dependent streets are still updated in the order of
+ * their IDs.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+final class StreetSchedule {
+
+    private static final int NO_LEVEL = -1;
+
+    private final List<List<Street>> levels;
+    private final int[] streetLevels;
+
+    /**
+     * Creates the schedule for the given streets.
+     * @param topology the topology the streets are built on
+     * @param streets the streets of the network in the order of their IDs
+     */
+    StreetSchedule(NetworkTopology topology, List<Street> streets) {
+        this.levels = new ArrayList<>();
+        this.streetLevels = new int[streets.size()];
+        int[] lastLevelStarting = new int[topology.getNumberOfNodes()];
+        int[] lastLevelEnding = new int[topology.getNumberOfNodes()];
+        Arrays.fill(lastLevelStarting, NO_LEVEL);
+        Arrays.fill(lastLevelEnding, NO_LEVEL);
+        for (Street street : streets) {
+            int startNode = topology.getStartNode(street.getStreetID());
+            int endNode = topology.getEndNode(street.getStreetID());
+            int level = Math.max(lastLevelEnding[startNode],
+                    Math.max(lastLevelStarting[endNode], lastLevelEnding[endNode])) + 1;
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(street);
+            streetLevels[street.getStreetID()] = level;
+            lastLevelStarting[startNode] = Math.max(lastLevelStarting[startNode], level);
+            lastLevelEnding[endNode] = Math.max(lastLevelEnding[endNode], level);
+        }
+    }
+
+    /**
+     * Returns the levels of the schedule in the order they have to be updated.
+     * @return the levels of the schedule
+     */
+    List<List<Street>> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Returns the number of levels of the schedule.
+     * @return the number of levels
+     */
+    int getNumberOfLevels() {
+        return levels.size();
+    }
+
+    /**
+     * Returns the level of the street with the given ID.
+     * @param streetID the ID of the street
+     * @return the index of the level the street is placed in
+     */
+    int getLevel(int streetID) {
+        return streetLevels[streetID];
+    }
+}
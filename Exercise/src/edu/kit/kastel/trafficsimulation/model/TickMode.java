@@ -0,0 +1,49 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+/**
+ * The different modes a street network can compute one tick of the simulation in.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public enum TickMode {
+    /**
+     * The streets are updated one after another in the order of their IDs.
+     */
+    SEQUENTIAL,
+    /**
+     * The streets are updated on multiple cores. Streets that can influence each other within one tick are still
+     * updated in the order of their IDs, so the results are exactly the same as in the sequential mode.
+     */
+    PARALLEL,
+    /**
+     * Every tick is computed in two phases. In the first phase every street moves its cars, and a car that reaches
+     * the end of its street while the end node is green is only prepared to be handed off. In the second phase every
+     * node hands off the prepared cars of its incoming streets, in the order of its incoming streets, onto its
+     * outgoing streets. The handed off cars leave their old streets only after all nodes handed off their cars, so a
+     * car that enters a street still sees the car that leaves this street in the same tick. The first phase only
+     * changes the cars of one street, the second phase only adds cars to the outgoing streets of one node, and the
+     * removal only changes one street, so the phases don't depend on the order of the streets and nodes and run on
+     * multiple cores.
+     * <p>
+     * Compared to the sequential mode the results differ, because in the sequential mode a street sees the turns of
+     * the streets with lower IDs within the same tick:
+     * <ul>
+     *     <li>In the sequential mode a car that turns leaves its street before the cars behind it drive, so they can
+     *     already close the gap in the same tick. Here the cars behind it still keep the save distance to it, because
+     *     it leaves in the second phase.</li>
+     *     <li>In the sequential mode a car that turns onto a street with a higher ID enters it before the cars of that
+     *     street drive, and checks the save distance and drives its remaining meters against their old positions.
+     *     Here every car enters after the cars of the new street drove, so it always sees their new positions.</li>
+     *     <li>If several cars want to turn onto the same street, the sequential mode handles them in the order of the
+     *     street IDs, while here the end node handles them in the order of its incoming streets. Both orders are the
+     *     same, because the incoming streets of a node are ordered by their IDs.</li>
+     * </ul>
+     * The speed of the cars, the turning rules, the save distance and the traffic lights are the same in both modes.
+     * <p>
+     * A network that is split into shards always computes its ticks in this mode, because the shards exchange the
+     * cars that cross their boundaries between the two phases. So the results of the shards have to be compared with
+     * this mode in one process.
+     */
+    TWO_PHASE
+}
@@ -0,0 +1,154 @@
+package edu.kit.kastel.trafficsimulation.model;
+
+import java.util.Arrays;
+
+/**
+ * Counters and timers of the ticks of a street network. The ticks are always counted, the wall time of the phases of
+ * a tick is only measured while timing is enabled, so disabled timers cost one branch per phase. The statistics are
+ * only changed by the thread that updates the network, other threads read approximate values while it runs.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class TickStatistics {
+
+    private static final long NOT_TIMED = 0;
+
+    private final long[] phaseNanos;
+    private boolean timed;
+    private long ticks;
+    private long timedTicks;
+    private long skippedTicks;
+
+    /**
+     * Creates new statistics with timing disabled.
+     */
+    public TickStatistics() {
+        this.phaseNanos = new long[Phase.values().length];
+        this.timed = false;
+        this.ticks = 0;
+        this.timedTicks = 0;
+        this.skippedTicks = 0;
+    }
+
+    /**
+     * Returns whether the phases of the ticks are timed.
+     * @return true if timing is enabled, otherwise false
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+
+    /**
+     * Enables or disables timing the phases of the ticks.
+     * @param timed true to enable timing, false to disable it
+     */
+    public void setTimed(boolean timed) {
+        this.timed = timed;
+    }
+
+    /**
+     * Returns the number of ticks that were updated one by one.
+     * @return the number of updated ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of ticks that were updated while timing was enabled, the wall times of the phases are
+     * measured over these ticks only.
+     * @return the number of timed ticks
+     */
+    public long getTimedTicks() {
+        return timedTicks;
+    }
+
+    /**
+     * Returns the average wall time of the given phase of a timed tick.
+     * @param phase the phase of a tick
+     * @return the wall time in nanoseconds, or zero if no tick was timed
+     */
+    public long getNanosPerTick(Phase phase) {
+        return timedTicks == 0 ? 0 : phaseNanos[phase.ordinal()] / timedTicks;
+    }
+
+    /**
+     * Returns the number of ticks that were skipped, because the cars only cruised.
+     * @return the number of skipped ticks
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * Returns the total wall time of the given phase of all timed ticks.
+     * @param phase the phase of a tick
+     * @return the wall time in nanoseconds
+     */
+    public long getNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Sets all counters and timers to zero.
+     */
+    public void reset() {
+        Arrays.fill(phaseNanos, 0);
+        ticks = 0;
+        timedTicks = 0;
+        skippedTicks = 0;
+    }
+
+    /**
+     * Starts timing the first phase of a tick.
+     * @return the start time of the phase
+     */
+    long startPhase() {
+        return timed ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Ends timing the given phase, the next phase starts right away.
+     * @param phase the phase that ends
+     * @param start the start time of the phase
+     * @return the start time of the next phase
+     */
+    long endPhase(Phase phase, long start) {
+        if (!timed) {
+            return NOT_TIMED;
+        }
+        long end = System.nanoTime();
+        phaseNanos[phase.ordinal()] += end - start;
+        return end;
+    }
+
+    void countTick() {
+        ticks++;
+        if (timed) {
+            timedTicks++;
+        }
+    }
+
+    void countSkippedTicks(int numberOfTicks) {
+        skippedTicks += numberOfTicks;
+    }
+
+    /**
+     * The phases of a tick.
+     */
+    public enum Phase {
+        /**
+         * The streets move their cars.
+         */
+        STREETS,
+        /**
+         * The nodes hand off cars in the two phase tick mode and the clock advances.
+         */
+        NODES,
+        /**
+         * The move state of all cars is reset.
+         */
+        RESET
+    }
+}
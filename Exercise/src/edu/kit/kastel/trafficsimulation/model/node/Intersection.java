@@ -1,9 +1,14 @@
 package edu.kit.kastel.trafficsimulation.model.node;
 
+import edu.kit.kastel.trafficsimulation.model.Clock;
+import edu.kit.kastel.trafficsimulation.model.NetworkTopology;
+
+import java.nio.ByteBuffer;
 
 /**
  * A class representing an intersection in a traffic simulation, which extends the abstract Node class.
- * An intersection has a traffic light, a current green street, and can be updated.
+ * An intersection has a traffic light that switches green to its incoming streets in their order. The current green
+ * street is computed from the clock of the network, so the intersection doesn't have to be updated.
  *
  * @author uyxib
  * @version 1.0
@@ -11,26 +16,119 @@ package edu.kit.kastel.trafficsimulation.model.node;
 public class Intersection extends Node {
 
     private final TrafficLight trafficLight;
+    /**
+     * the green street of the first green phase at the last call of {@link #resetChanged()}
+     */
+    private int unchangedGreenStreet;
+
+    /**
+     * Creates a new Intersection object for the node with the given index, with the green phase duration of the
+     * topology.
+     * @param topology the topology of the network
+     * @param node the index of the intersection in the topology
+     * @param clock the clock of the network
+     */
+    public Intersection(NetworkTopology topology, int node, Clock clock) {
+        super(topology, node);
+        trafficLight = new TrafficLight(topology.getGreenPhaseDuration(node), clock);
+        unchangedGreenStreet = currentGreenStreet;
+    }
+
+    /**
+     * Writes the current green street and the remaining green time of the traffic light to the given output.
+     * @param output the output to write the state to
+     */
+    @Override
+    public void saveState(ByteBuffer output) {
+        output.putInt(getCurrentGreenStreet());
+        output.putInt(trafficLight.getRemainingGreenTime());
+    }
 
     /**
-     * Creates a new Intersection object with the specified node ID and green phase duration.
-     * @param nodeID the ID of the intersection
-     * @param greenPhaseDuration the duration of the green phase for the traffic light
+     * Reads the current green street and the remaining green time of the traffic light from the given input. The
+     * current green phase becomes the first green phase of the traffic light.
+     * @param input the input to read the state from
      */
-    public Intersection(int nodeID, int greenPhaseDuration) {
-        super(nodeID);
-        trafficLight = new TrafficLight(greenPhaseDuration);
+    @Override
+    public void restoreState(ByteBuffer input) {
+        currentGreenStreet = input.getInt();
+        trafficLight.setRemainingGreenTime(input.getInt());
     }
 
     /**
-     * Updates the intersection by updating its traffic light and changing the current green street if necessary.
+     * Reads a state that was written by {@link #saveState(ByteBuffer)} and checks whether its green street is one of
+     * the incoming streets of the intersection. The remaining green time is limited by the traffic light anyway.
+     * @param input the input to read the state from
+     * @return true if the state can be restored into this intersection, otherwise false
      */
     @Override
-    public void update() {
-        trafficLight.update();
-        if (trafficLight.isGreenPhaseOver()) {
-            changeCurrentGreenStreet();
+    public boolean isValidState(ByteBuffer input) {
+        int greenStreet = input.getInt();
+        input.getInt();
+        return greenStreet >= START_STREET && greenStreet < getNumberOfIncomingStreets();
+    }
+
+    /**
+     * Returns whether the green street of the first green phase or the green phases of the traffic light changed
+     * since the last call of {@link #resetChanged()}. Green phases that are over by the clock aren't a change.
+     * @return true if the state of the intersection changed, otherwise false
+     */
+    @Override
+    public boolean hasChanged() {
+        return currentGreenStreet != unchangedGreenStreet || trafficLight.hasChanged();
+    }
+
+    /**
+     * Forgets the changes of the green street and the traffic light so far.
+     */
+    @Override
+    public void resetChanged() {
+        unchangedGreenStreet = currentGreenStreet;
+        trafficLight.resetChanged();
+    }
+
+    /**
+     * Returns the current green street. It's computed from the green street at the start of the first green phase of
+     * the traffic light and the number of green phases that are over since then.
+     * @return the index of the current green street in the incoming streets
+     */
+    @Override
+    public int getCurrentGreenStreet() {
+        if (!isIncomingStreet(currentGreenStreet)) {
+            return currentGreenStreet;
         }
+        return (int) ((currentGreenStreet + trafficLight.getGreenPhasesOver()) % getNumberOfIncomingStreets());
+    }
+
+    /**
+     * Sets the current green street, the remaining green time of the traffic light stays the same.
+     * @param currentGreenStreet the index of the new current green street
+     */
+    @Override
+    public void setCurrentGreenStreet(int currentGreenStreet) {
+        int remainingGreenTime = trafficLight.getRemainingGreenTime();
+        this.currentGreenStreet = currentGreenStreet;
+        trafficLight.setRemainingGreenTime(remainingGreenTime);
+    }
+
+    /**
+     * Returns the tick at which the traffic light switches green for the given incoming street the next time. The
+     * traffic light switches to the incoming streets in their order, one street per green phase.
+     * @param streetID the ID of the incoming street
+     * @return the tick at which the street gets green, or {@link Clock#NEVER} if it never does
+     */
+    @Override
+    public long getNextGreenTick(int streetID) {
+        int greenStreet = getCurrentGreenStreet();
+        int incomingStreets = getNumberOfIncomingStreets();
+        int street = START_STREET;
+        while (street < incomingStreets && getIncomingStreet(street) != streetID) {
+            street++;
+        }
+        if (!isIncomingStreet(greenStreet) || street == incomingStreets) {
+            return Clock.NEVER;
+        }
+        return trafficLight.getEndOfGreenPhases(Math.floorMod(street - greenStreet - 1, incomingStreets) + 1);
     }
 
     /**
@@ -40,18 +138,11 @@ public class Intersection extends Node {
      */
     @Override
     public boolean hasStreetGreen(int streetID) {
-        return incomingStreets.size() - 1 >= currentGreenStreet
-                && getIncomingStreets().get(currentGreenStreet).getStreetID() == streetID;
+        int greenStreet = getCurrentGreenStreet();
+        return isIncomingStreet(greenStreet) && getIncomingStreet(greenStreet) == streetID;
     }
 
-    /**
-     * Changes the current green street to the next street in the list, wrapping around if necessary.
-     */
-    private void changeCurrentGreenStreet() {
-        if (currentGreenStreet < incomingStreets.size() - 1) {
-            currentGreenStreet++;
-        } else if (currentGreenStreet == incomingStreets.size() - 1) {
-            currentGreenStreet = START_STREET;
-        }
+    private boolean isIncomingStreet(int street) {
+        return street >= START_STREET && street < getNumberOfIncomingStreets();
     }
 }
@@ -1,21 +1,20 @@
 package edu.kit.kastel.trafficsimulation.model.node;
 
-import edu.kit.kastel.trafficsimulation.exception.SimulationException;
-import edu.kit.kastel.trafficsimulation.io.ExceptionMessages;
-import edu.kit.kastel.trafficsimulation.model.Updatable;
-import edu.kit.kastel.trafficsimulation.model.street.Street;
+import edu.kit.kastel.trafficsimulation.model.Clock;
+import edu.kit.kastel.trafficsimulation.model.NetworkTopology;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 /**
- * An abstract class representing a node in a transportation network that implements the Updatable interface.
- * A node has an ID, incoming streets, and outgoing streets.
+ * An abstract class representing a node in a transportation network.
+ * A node has an ID, incoming streets, and outgoing streets. They are read from the topology of the network, which is
+ * shared by all networks built on it, so a node only keeps the state of its traffic light. Its state only depends on
+ * the clock of the network, so nodes aren't updated tick by tick.
  *
  * @author uyxib
  * @version 1.0
  */
-public abstract class Node implements Updatable {
+public abstract class Node {
 
     /**
      * The maximum number of streets a node can have.
@@ -34,34 +33,38 @@ public abstract class Node implements Updatable {
      * The starting street index for a node.
      */
     public static final int START_STREET = 0;
+    /**
+     * The number of ints that are written for every node by {@link #saveState(ByteBuffer)}.
+     */
+    public static final int STATE_VALUES = 2;
+    /**
+     * The remaining green time that is written for a node without a traffic light.
+     */
+    protected static final int NO_REMAINING_GREEN_TIME = 0;
 
     /**
      * the id of the current street that is green
      */
     protected int currentGreenStreet;
     /**
-     * the id of the node
+     * the topology the ID and the streets of the node are read from
      */
-    protected int nodeID;
+    protected final NetworkTopology topology;
     /**
-     * list with all incoming Streets on the node (min 1 - max 4)
+     * the index of the node in the topology
      */
-    protected List<Street> incomingStreets;
-    /**
-     * list with all outgoing Streets on the node (min 1 - max 4)
-     */
-    protected List<Street> outgoingStreets;
+    protected final int node;
 
 
     /**
-     * Creates a new Node object with the specified ID and empty lists of incoming and outgoing streets.
+     * Creates a new Node object for the node with the given index in the topology.
      *
-     * @param nodeID the ID of the node
+     * @param topology the topology of the network
+     * @param node the index of the node in the topology
      */
-    protected Node(int nodeID) {
-        this.nodeID = nodeID;
-        this.incomingStreets = new ArrayList<>();
-        this.outgoingStreets = new ArrayList<>();
+    protected Node(NetworkTopology topology, int node) {
+        this.topology = topology;
+        this.node = node;
         currentGreenStreet = START_STREET;
     }
 
@@ -74,15 +77,59 @@ public abstract class Node implements Updatable {
 
 
     /**
-     * Validates the corresponding streets for this node, ensuring that it has between 1 and 4 streets.
-     *
-     * @throws SimulationException if the number of streets is invalid
-     * @param streets the list of streets to validate
+     * Writes the state of the node that changes while the simulation runs to the given output: the current green
+     * street and the remaining green time of its traffic light.
+     * @param output the output to write the state to
+     */
+    public void saveState(ByteBuffer output) {
+        output.putInt(currentGreenStreet);
+        output.putInt(NO_REMAINING_GREEN_TIME);
+    }
+
+    /**
+     * Reads the state of the node that was written by {@link #saveState(ByteBuffer)}.
+     * @param input the input to read the state from
+     */
+    public void restoreState(ByteBuffer input) {
+        currentGreenStreet = input.getInt();
+        input.getInt();
+    }
+
+    /**
+     * Reads a state that was written by {@link #saveState(ByteBuffer)} and checks whether it can be restored into
+     * this node. A node without a traffic light only accepts its own green street.
+     * @param input the input to read the state from
+     * @return true if the state can be restored into this node, otherwise false
      */
-    public void validateCorrespondingStreets(List<Street> streets) {
-        if (streets.size() < MINIMUM_STREETS_SIZE || streets.size() > MAXIMUM_STREETS_SIZE) {
-            throw new SimulationException(ExceptionMessages.INVALID_NUMBER_OF_STREETS.format(nodeID));
-        }
+    public boolean isValidState(ByteBuffer input) {
+        int greenStreet = input.getInt();
+        input.getInt();
+        return greenStreet == currentGreenStreet;
+    }
+
+    /**
+     * Returns whether the state of the node changed since the last call of {@link #resetChanged()}. A node without
+     * a traffic light never changes.
+     * @return true if the state of the node changed, otherwise false
+     */
+    public boolean hasChanged() {
+        return false;
+    }
+
+    /**
+     * Forgets the changes of the state of the node so far.
+     */
+    public void resetChanged() {
+    }
+
+    /**
+     * Returns the tick at which the node switches green for the given incoming street the next time. A node without
+     * traffic light never switches.
+     * @param streetID the ID of the incoming street
+     * @return the tick at which the street gets green, or {@link Clock#NEVER} if it never does
+     */
+    public long getNextGreenTick(int streetID) {
+        return Clock.NEVER;
     }
 
     /**
@@ -90,25 +137,24 @@ public abstract class Node implements Updatable {
      * @return the ID of the node
      */
     public int getNodeID() {
-        return nodeID;
+        return topology.getNodeID(node);
     }
 
     /**
-     * Returns the incoming streets of this node.
-     * @return the incoming streets of the node
+     * Returns the number of incoming streets of this node.
+     * @return the number of incoming streets (min 1 - max 4)
      */
-
-    public List<Street> getIncomingStreets() {
-        return incomingStreets;
+    public int getNumberOfIncomingStreets() {
+        return topology.getNumberOfIncomingStreets(node);
     }
 
     /**
-     * Returns the outgoing streets of this node.
-     * @return the outgoing streets of the node
+     * Returns the ID of the incoming street at the given position, the incoming streets are ordered by their IDs.
+     * @param position the position of the street among the incoming streets
+     * @return the ID of the incoming street
      */
-
-    public List<Street> getOutgoingStreets() {
-        return outgoingStreets;
+    public int getIncomingStreet(int position) {
+        return topology.getIncomingStreet(node, position);
     }
 
     /**
@@ -1,5 +1,7 @@
 package edu.kit.kastel.trafficsimulation.model.node;
 
+import edu.kit.kastel.trafficsimulation.model.NetworkTopology;
+
 /**
  * The Roundabout class represents a node that is also a roundabout. It extends the Node class and implements
  * the hasStreetGreen() method to always return true because every car can drive all the time through the node.
@@ -15,21 +17,15 @@ public class Roundabout extends Node {
     public static final int ALL_STREETS_GREEN = -1;
 
     /**
-     * Constructs a Roundabout object with the specified node ID and sets all the streets as green.
-     * @param nodeID the ID of the roundabout node
+     * Constructs a Roundabout object for the node with the given index and sets all the streets as green.
+     * @param topology the topology of the network
+     * @param node the index of the roundabout node in the topology
      */
-    public Roundabout(int nodeID) {
-        super(nodeID);
+    public Roundabout(NetworkTopology topology, int node) {
+        super(topology, node);
         currentGreenStreet = ALL_STREETS_GREEN;
     }
 
-    /**
-     * Does nothing as Roundabouts do not need to update.
-     */
-    @Override
-    public void update() {
-    }
-
     /**
      * Returns true as all streets on a Roundabout are always green.
      * @param streetID the ID of the street
@@ -1,52 +1,89 @@
 package edu.kit.kastel.trafficsimulation.model.node;
 
-import edu.kit.kastel.trafficsimulation.model.Updatable;
+import edu.kit.kastel.trafficsimulation.model.Clock;
 
 /**
- * A class representing a traffic light that can be updated.
+ * A class representing a traffic light with green phases of a fixed duration. The traffic light isn't updated, its
+ * state is computed from the tick of the clock of the network and the tick its first green phase started at.
  * @author uyxib
  * @version 1.0
  */
-public class TrafficLight implements Updatable {
+public class TrafficLight {
+
+    private static final int MINIMUM_REMAINING_GREEN_TIME = 1;
 
-    private int remainingGreenTime;
     private final int greenPhaseDuration;
+    private final Clock clock;
+    /**
+     * the tick the first green phase started at, every further green phase starts a green phase duration later
+     */
+    private long startTick;
+    /**
+     * the start tick at the last call of {@link #resetChanged()}, the green phases only change if the start tick does
+     */
+    private long unchangedStartTick;
 
     /**
-     * Creates a new TrafficLight object with the specified green phase duration. By initialisation the remaining Green
-     * Time is equals the greenPhaseDuration
+     * Creates a new TrafficLight object with the specified green phase duration. Its first green phase starts at the
+     * current tick of the clock, so the remaining green time equals the green phase duration.
      * @param greenPhaseDuration the duration of the green phase for the traffic light.
+     * @param clock the clock of the network
      */
-
-    public TrafficLight(int greenPhaseDuration) {
-        this.remainingGreenTime = greenPhaseDuration;
+    public TrafficLight(int greenPhaseDuration, Clock clock) {
         this.greenPhaseDuration = greenPhaseDuration;
+        this.clock = clock;
+        this.startTick = clock.getTick();
+        this.unchangedStartTick = startTick;
+    }
+
+    /**
+     * Returns how many green phases are over since the first green phase started.
+     * @return the number of green phases that are over
+     */
+    public long getGreenPhasesOver() {
+        return Math.floorDiv(clock.getTick() - startTick, greenPhaseDuration);
     }
 
     /**
-     * Checks if the green phase of the traffic light is over.
-     * If it is over, resets the remaining green time and returns true; otherwise, returns false.
-     * @return true if the green phase of the traffic light is over; otherwise, false
+     * Returns the remaining time of the current green phase.
+     * @return the remaining green time
      */
-    public boolean isGreenPhaseOver() {
-        if (remainingGreenTime == 0) {
-            resetRemainingGreenTime();
-            return true;
-        }
-        return false;
+    public int getRemainingGreenTime() {
+        return greenPhaseDuration - (int) Math.floorMod(clock.getTick() - startTick, (long) greenPhaseDuration);
     }
 
     /**
-     * Updates the traffic light by decreasing the remaining green time if it is greater than zero.
+     * Sets the remaining time of the current green phase, so the current green phase is the first one. A remaining
+     * green time outside of a green phase is limited to it.
+     * @param remainingGreenTime the new remaining green time
      */
-    @Override
-    public void update() {
-        if (remainingGreenTime > 0) {
-            remainingGreenTime--;
-        }
+    public void setRemainingGreenTime(int remainingGreenTime) {
+        int remaining = Math.min(Math.max(remainingGreenTime, MINIMUM_REMAINING_GREEN_TIME), greenPhaseDuration);
+        startTick = clock.getTick() - greenPhaseDuration + remaining;
     }
 
-    private void resetRemainingGreenTime() {
-        remainingGreenTime = greenPhaseDuration;
+    /**
+     * Returns the tick at which the given number of green phases are over, counting the current one as the first.
+     * @param phases the number of green phases, at least one
+     * @return the tick at which the green phases are over
+     */
+    public long getEndOfGreenPhases(int phases) {
+        return clock.getTick() + getRemainingGreenTime() + (long) (phases - 1) * greenPhaseDuration;
+    }
+
+    /**
+     * Returns whether the green phases were moved since the last call of {@link #resetChanged()}. The remaining green
+     * time counts down with the clock, which alone isn't a change, because the clock is advanced on restore too.
+     * @return true if the start tick of the green phases changed, otherwise false
+     */
+    public boolean hasChanged() {
+        return startTick != unchangedStartTick;
+    }
+
+    /**
+     * Forgets the changes of the green phases so far.
+     */
+    public void resetChanged() {
+        unchangedStartTick = startTick;
     }
 }
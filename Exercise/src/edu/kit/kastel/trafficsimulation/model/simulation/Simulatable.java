@@ -17,6 +17,19 @@ public interface Simulatable extends Executable {
      */
     String showCar(int objectToShow);
 
+    /**
+     * Displays the details of several specified objects, one line per object.
+     * @param objectsToShow the indices of the objects to display.
+     * @return a String containing the details of the specified objects.
+     */
+    String showCars(int[] objectsToShow);
+
+    /**
+     * Displays the details of all objects, one line per object.
+     * @return a String containing the details of all objects.
+     */
+    String showAllCars();
+
     /**
      * Reads data from a file.
      * @param filePath the path of the file to read.
@@ -2,7 +2,12 @@ package edu.kit.kastel.trafficsimulation.model.simulation;
 
 import edu.kit.kastel.trafficsimulation.io.ExecutionState;
 import edu.kit.kastel.trafficsimulation.io.Messages;
+import edu.kit.kastel.trafficsimulation.io.SnapshotFile;
 import edu.kit.kastel.trafficsimulation.model.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.model.CarEventSink;
+import edu.kit.kastel.trafficsimulation.model.TickMode;
+import edu.kit.kastel.trafficsimulation.model.TickStatistics;
+import edu.kit.kastel.trafficsimulation.model.street.StreetStatistics;
 
 /**
  * The {@code Simulation} class represents a simulation of a street network.
@@ -62,6 +67,25 @@ public class Simulation implements Simulatable {
         return this.streetNetwork.getCurrentCar(carID);
     }
 
+    /**
+     * Returns the current cars with the specified IDs, one line per car.
+     * @param carIDs the IDs of the cars to show
+     * @return the current cars with the specified IDs
+     */
+    @Override
+    public String showCars(int[] carIDs) {
+        return this.streetNetwork.getCurrentCars(carIDs);
+    }
+
+    /**
+     * Returns all current cars, one line per car.
+     * @return all current cars
+     */
+    @Override
+    public String showAllCars() {
+        return this.streetNetwork.getAllCurrentCars();
+    }
+
     /**
      * Reads files from the specified path, initializes the street network,
      * and starts the simulation.
@@ -76,6 +100,65 @@ public class Simulation implements Simulatable {
         return Messages.READY.format();
     }
 
+    /**
+     * Returns the mode the ticks of the street network are computed in.
+     * @return the tick mode of the street network
+     */
+    public TickMode getTickMode() {
+        return streetNetwork.getTickMode();
+    }
+
+    /**
+     * Sets the mode the ticks of the street network are computed in.
+     * @param tickMode the new tick mode of the street network
+     * @return a message indicating that the simulation is ready
+     */
+    public String setTickMode(TickMode tickMode) {
+        streetNetwork.setTickMode(tickMode);
+        return Messages.READY.format();
+    }
+
+    /**
+     * Saves the current state of the street network to a snapshot file.
+     * @param filePath the path of the snapshot file
+     * @return a message indicating that the simulation is ready
+     */
+    public String saveState(String filePath) {
+        SnapshotFile.write(streetNetwork, filePath);
+        return Messages.READY.format();
+    }
+
+    /**
+     * Restores the state of the street network from a snapshot file that was saved from the same street network.
+     * @param filePath the path of the snapshot file
+     * @return a message indicating that the simulation is ready
+     */
+    public String restoreState(String filePath) {
+        SnapshotFile.read(streetNetwork, filePath);
+        return Messages.READY.format();
+    }
+
+    /**
+     * Saves the changes of the street network since the last snapshot or delta to a delta snapshot file.
+     * @param filePath the path of the delta snapshot file
+     * @return a message indicating that the simulation is ready
+     */
+    public String saveDelta(String filePath) {
+        SnapshotFile.writeDelta(streetNetwork, filePath);
+        return Messages.READY.format();
+    }
+
+    /**
+     * Applies the changes of a delta snapshot file to the street network, that is at the snapshot or delta the delta
+     * is based on.
+     * @param filePath the path of the delta snapshot file
+     * @return a message indicating that the simulation is ready
+     */
+    public String restoreDelta(String filePath) {
+        SnapshotFile.readDelta(streetNetwork, filePath);
+        return Messages.READY.format();
+    }
+
     /**
      * Simulates the street network for the specified number of ticks.
      * @param numberOfTicks the number of ticks to simulate
@@ -83,10 +166,82 @@ public class Simulation implements Simulatable {
      */
     @Override
     public String simulate(int numberOfTicks) {
-        for (int i = 0; i < numberOfTicks; i++) {
-            streetNetwork.update();
+        streetNetwork.update(numberOfTicks);
+        return Messages.READY.format();
+    }
+
+    /**
+     * Returns the statistics of the simulation: the number of ticks, what happened to the cars and, if the ticks are
+     * timed, the average wall time of the phases of a tick.
+     * @return the statistics, one line per group of values
+     */
+    public String showStatistics() {
+        TickStatistics tickStatistics = streetNetwork.getTickStatistics();
+        StreetStatistics streetStatistics = streetNetwork.getStreetStatistics();
+        String statistics = Messages.STATISTICS_TICKS.format(tickStatistics.getTicks(),
+                tickStatistics.getSkippedTicks())
+                + System.lineSeparator() + Messages.STATISTICS_CARS.format(streetStatistics.getMovedCars(),
+                streetStatistics.getTurnedCars(), streetStatistics.getOvertakes(), streetStatistics.getStoppedCars(),
+                streetStatistics.getBlockedCars());
+        if (!tickStatistics.isTimed() || tickStatistics.getTimedTicks() == 0) {
+            return statistics;
         }
+        return statistics + System.lineSeparator() + Messages.STATISTICS_TIMES.format(
+                tickStatistics.getNanosPerTick(TickStatistics.Phase.STREETS),
+                tickStatistics.getNanosPerTick(TickStatistics.Phase.NODES),
+                tickStatistics.getNanosPerTick(TickStatistics.Phase.RESET));
+    }
+
+    /**
+     * Returns the sink the changes of the cars are reported to.
+     * @return the event sink, or null if the changes aren't reported
+     */
+    public CarEventSink getEventSink() {
+        return streetNetwork.getEventSink();
+    }
+
+    /**
+     * Sets the sink the changes of the cars are reported to from the next tick on.
+     * @param eventSink the event sink, or null to stop reporting the changes
+     * @return the message that the simulation is ready
+     */
+    public String setEventSink(CarEventSink eventSink) {
+        streetNetwork.setEventSink(eventSink);
         return Messages.READY.format();
     }
 
+    /**
+     * Returns the counters and timers of the ticks of the street network.
+     * @return the tick statistics
+     */
+    public TickStatistics getTickStatistics() {
+        return streetNetwork.getTickStatistics();
+    }
+
+    /**
+     * Returns the sum of the counters of all streets of the street network.
+     * @return the street statistics
+     */
+    public StreetStatistics getStreetStatistics() {
+        return streetNetwork.getStreetStatistics();
+    }
+
+    /**
+     * Enables or disables timing the phases of the ticks.
+     * @param timed true to enable timing, false to disable it
+     * @return a message indicating that the simulation is ready
+     */
+    public String setStatisticsTimed(boolean timed) {
+        streetNetwork.getTickStatistics().setTimed(timed);
+        return Messages.READY.format();
+    }
+
+    /**
+     * Sets all statistics of the street network to zero.
+     * @return a message indicating that the simulation is ready
+     */
+    public String resetStatistics() {
+        streetNetwork.resetStatistics();
+        return Messages.READY.format();
+    }
 }
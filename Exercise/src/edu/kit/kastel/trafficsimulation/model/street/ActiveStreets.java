@@ -0,0 +1,190 @@
+package edu.kit.kastel.trafficsimulation.model.street;
+
+import edu.kit.kastel.trafficsimulation.model.Clock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The set of streets of a street network that have to be updated in the next tick, identified by their IDs.
+ * A street is inactive if it's empty or if its cars are stopped in front of a red light, because updating it wouldn't
+ * change anything. It becomes active again when a car turns onto it or when its end node switches green for it.
+ * Streets can be activated by different threads at the same time, so the IDs are held as bits in atomic words.
+ * A street that waits in front of a red light is registered for the tick its end node switches green for it. The
+ * registered streets are held in a wheel with one slot per tick, which is reused after {@value WAKE_UP_SLOTS} ticks,
+ * so a street can only wait for fewer ticks. The nodes switch after at most a few dozen ticks.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public class ActiveStreets {
+
+    /**
+     * The ID that is returned if there's no further active street.
+     */
+    public static final int NO_STREET = -1;
+
+    private static final int ADDRESS_BITS = 6;
+    private static final long ALL_BITS = -1L;
+    private static final int WAKE_UP_SLOTS = 64;
+    private static final int WAKE_UP_SLOT_MASK = WAKE_UP_SLOTS - 1;
+
+    private final AtomicLongArray words;
+    private final int numberOfStreets;
+    private final Clock clock;
+    /**
+     * the streets that are activated at a tick, in the slot of the tick modulo the number of slots
+     */
+    private final AtomicLongArray[] wakeUps;
+    /**
+     * the number of registrations in every slot, a street can be registered several times
+     */
+    private final AtomicIntegerArray wakeUpCounts;
+    /**
+     * the last tick whose registered streets are activated
+     */
+    private long wakeUpTick;
+
+    /**
+     * Creates a new empty set of active streets for the given number of streets.
+     * @param numberOfStreets the number of streets of the network
+     * @param clock the clock of the network
+     */
+    public ActiveStreets(int numberOfStreets, Clock clock) {
+        this.words = new AtomicLongArray((numberOfStreets + Long.SIZE - 1) >>> ADDRESS_BITS);
+        this.numberOfStreets = numberOfStreets;
+        this.clock = clock;
+        this.wakeUps = new AtomicLongArray[WAKE_UP_SLOTS];
+        for (int i = 0; i < WAKE_UP_SLOTS; i++) {
+            wakeUps[i] = new AtomicLongArray(words.length());
+        }
+        this.wakeUpCounts = new AtomicIntegerArray(WAKE_UP_SLOTS);
+        this.wakeUpTick = clock.getTick();
+    }
+
+    /**
+     * Activates the street with the given ID.
+     * @param streetID the ID of the street
+     */
+    public void activate(int streetID) {
+        setBit(words, streetID);
+    }
+
+    /**
+     * Activates all streets.
+     */
+    public void activateAll() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, ALL_BITS);
+        }
+        if (numberOfStreets % Long.SIZE != 0) {
+            words.set(words.length() - 1, ALL_BITS >>> -numberOfStreets);
+        }
+    }
+
+    /**
+     * Deactivates the street with the given ID.
+     * @param streetID the ID of the street
+     */
+    public void deactivate(int streetID) {
+        int index = streetID >>> ADDRESS_BITS;
+        long mask = 1L << streetID;
+        long word = words.get(index);
+        while ((word & mask) != 0 && !words.compareAndSet(index, word, word & ~mask)) {
+            word = words.get(index);
+        }
+    }
+
+    /**
+     * Deactivates the street with the given ID until the given tick. The street is activated again as soon as the
+     * clock reaches the tick. If the tick is too far in the future to be registered, the street stays active.
+     * @param streetID the ID of the street
+     * @param tick the tick to activate the street at, or {@link Clock#NEVER} to deactivate it without activating it
+     *             again
+     */
+    public void deactivateUntil(int streetID, long tick) {
+        if (tick == Clock.NEVER) {
+            deactivate(streetID);
+        } else if (tick > clock.getTick() && tick - clock.getTick() < WAKE_UP_SLOTS) {
+            int slot = (int) tick & WAKE_UP_SLOT_MASK;
+            setBit(wakeUps[slot], streetID);
+            wakeUpCounts.incrementAndGet(slot);
+            deactivate(streetID);
+        }
+    }
+
+    /**
+     * Activates the streets that are registered for the ticks up to the current tick of the clock. This is called
+     * whenever the clock is advanced.
+     */
+    public void wakeUp() {
+        long tick = Math.max(wakeUpTick + 1, clock.getTick() - WAKE_UP_SLOTS + 1);
+        while (tick <= clock.getTick()) {
+            int slot = (int) tick & WAKE_UP_SLOT_MASK;
+            if (wakeUpCounts.get(slot) > 0) {
+                for (int i = 0; i < words.length(); i++) {
+                    long wakeUpWord = wakeUps[slot].getAndSet(i, 0);
+                    if (wakeUpWord != 0) {
+                        words.getAndAccumulate(i, wakeUpWord, (word, mask) -> word | mask);
+                    }
+                }
+                wakeUpCounts.set(slot, 0);
+            }
+            tick++;
+        }
+        wakeUpTick = clock.getTick();
+    }
+
+    /**
+     * Returns after how many ticks the first registered street is activated.
+     * @param maxTicks the highest number of ticks to check
+     * @return the number of ticks until a street is activated, or the given number if none is activated until then
+     */
+    public int getTicksUntilWakeUp(int maxTicks) {
+        for (int ticks = 1; ticks < Math.min(maxTicks, WAKE_UP_SLOTS); ticks++) {
+            if (wakeUpCounts.get((int) (clock.getTick() + ticks) & WAKE_UP_SLOT_MASK) > 0) {
+                return ticks;
+            }
+        }
+        return maxTicks;
+    }
+
+    /**
+     * Returns whether the street with the given ID is active.
+     * @param streetID the ID of the street
+     * @return true if the street is active, otherwise false
+     */
+    public boolean isActive(int streetID) {
+        return (words.get(streetID >>> ADDRESS_BITS) & 1L << streetID) != 0;
+    }
+
+    /**
+     * Returns the ID of the first active street with an ID greater than or equal to the given ID.
+     * @param streetID the ID to start searching from
+     * @return the ID of the next active street, or {@link #NO_STREET} if there's none
+     */
+    public int nextActive(int streetID) {
+        if (streetID >= numberOfStreets) {
+            return NO_STREET;
+        }
+        int index = streetID >>> ADDRESS_BITS;
+        long word = words.get(index) & (ALL_BITS << streetID);
+        while (word == 0 && index < words.length() - 1) {
+            index++;
+            word = words.get(index);
+        }
+        if (word == 0) {
+            return NO_STREET;
+        }
+        return (index << ADDRESS_BITS) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static void setBit(AtomicLongArray bits, int streetID) {
+        int index = streetID >>> ADDRESS_BITS;
+        long mask = 1L << streetID;
+        long word = bits.get(index);
+        while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask)) {
+            word = bits.get(index);
+        }
+    }
+}
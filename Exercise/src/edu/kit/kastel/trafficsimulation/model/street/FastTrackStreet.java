@@ -1,8 +1,11 @@
 package edu.kit.kastel.trafficsimulation.model.street;
 
 import edu.kit.kastel.trafficsimulation.model.Car;
+import edu.kit.kastel.trafficsimulation.model.NetworkTopology;
 import edu.kit.kastel.trafficsimulation.model.node.Node;
 
+import java.util.List;
+
 /**
  * A FastTrackStreet class that extends the Street class and implements the Overtakeable interface.
  * It represents a street where vehicles can overtake each other. This class inherits the attributes
@@ -23,17 +26,15 @@ public class FastTrackStreet extends Street implements Overtakeable {
 
     /**
      * Constructs a FastTrackStreet object with the specified parameters.
-     * @param intStartNode the start node of the street
-     * @param intEndNode the end node of the street
-     * @param length the length of the street in meters
-     * @param speedLimit the speed limit of the street in kilometers per hour
+     * @param topology the topology of the network
      * @param streetID the ID of the street
-     * @param startNode the start node object of the street
-     * @param endNode the end node object of the street
+     * @param nodes the nodes of the network, indexed like the nodes of the topology
+     * @param streets the streets of the network in the order of their IDs
+     * @param activeStreets the set of active streets of the network
      */
-    public FastTrackStreet(int intStartNode, int intEndNode, int length, int speedLimit, int streetID,
-                           Node startNode, Node endNode) {
-        super(intStartNode, intEndNode, length, speedLimit, streetID, startNode, endNode);
+    public FastTrackStreet(NetworkTopology topology, int streetID, List<Node> nodes, List<Street> streets,
+                           ActiveStreets activeStreets) {
+        super(topology, streetID, nodes, streets, activeStreets);
     }
 
 
@@ -42,6 +43,7 @@ public class FastTrackStreet extends Street implements Overtakeable {
         if (car.getRemainingMeters() < OVERTAKE) {
             return false;
         }
+        int length = getLength();
         int currentCarIndex = cars.indexOf(car);
         int metersToGo  = length - car.getCurrentPosition();
         int distanceFirstCar = calculateDistance(currentCarIndex, cars);
@@ -53,11 +55,10 @@ public class FastTrackStreet extends Street implements Overtakeable {
             return false;
         } else {
             if (distanceSecondCar == Street.NO_CAR_IN_FRONT || distanceSecondCar >= OVERTAKE) {
-                car.setCurrentPosition(car.getCurrentPosition() + OVERTAKE);
-                car.setRemainingMeters(car.getRemainingMeters() - OVERTAKE);
-                cars.remove(currentCarIndex);
-                cars.add(currentCarIndex - CAR_INT_FRONT, car);
-                car.drive(calculateDistance(cars.indexOf(car), cars), length, car.getRemainingMeters());
+                car.overtake(OVERTAKE);
+                cars.moveForward(currentCarIndex);
+                statistics.countOvertake();
+                car.drive(calculateDistance(currentCarIndex - CAR_INT_FRONT, cars), length, car.getRemainingMeters());
                 return true;
             }
         }
@@ -66,11 +67,14 @@ public class FastTrackStreet extends Street implements Overtakeable {
 
     @Override
     public void update() {
+        int length = getLength();
+        int speedLimit = getSpeedLimit();
         boolean hasOvertaken = false;
         int i = 0;
         while (i < cars.size()) {
             Car currentCar = cars.get(i);
             if (!currentCar.isMoved()) {
+                int speedBefore = currentCar.getCurrentSpeed();
                 currentCar.accelerate(speedLimit);
                 currentCar.drive(calculateDistance(i, cars), length, currentCar.getCurrentSpeed());
                 if (!overtakeVehicle(currentCar)) {
@@ -81,11 +85,35 @@ public class FastTrackStreet extends Street implements Overtakeable {
                     i++;
                     hasOvertaken = true;
                 }
-                currentCar.resetSpeedInTraffic(hasOvertaken);
+                resetSpeedInTraffic(currentCar, hasOvertaken);
+                trackChange(currentCar, speedBefore);
             } else {
                 i++;
             }
 
         }
     }
+
+    @Override
+    public void moveCars() {
+        int length = getLength();
+        int speedLimit = getSpeedLimit();
+        boolean hasOvertaken = false;
+        for (int i = 0; i < cars.size(); i++) {
+            Car currentCar = cars.get(i);
+            if (!currentCar.isMoved()) {
+                int speedBefore = currentCar.getCurrentSpeed();
+                currentCar.accelerate(speedLimit);
+                currentCar.drive(calculateDistance(i, cars), length, currentCar.getCurrentSpeed());
+                if (overtakeVehicle(currentCar)) {
+                    hasOvertaken = true;
+                    resetSpeedInTraffic(currentCar, true);
+                    trackChange(currentCar, speedBefore);
+                } else if (!prepareHandOff(currentCar, hasOvertaken, speedBefore)) {
+                    resetSpeedInTraffic(currentCar, hasOvertaken);
+                    trackChange(currentCar, speedBefore);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package edu.kit.kastel.trafficsimulation.model.street;
+
+import edu.kit.kastel.trafficsimulation.model.Car;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lane of cars on a street. The first car of the lane is the car in front (nearest to the end of the street), the
+ * last car is the car at the back. The cars are stored in an array-backed ring buffer, so accessing a car by its
+ * index, removing the first car and appending a car at the back all take constant time.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public class Lane implements Iterable<Car> {
+
+    private static final int MINIMUM_CAPACITY = 1;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int NOT_FOUND = -1;
+
+    private Car[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * Creates a new empty lane that can hold the given number of cars without growing.
+     * @param capacity the number of cars the lane can hold before it has to grow
+     */
+    public Lane(int capacity) {
+        this.elements = new Car[Math.max(capacity, MINIMUM_CAPACITY)];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of cars on the lane.
+     * @return the number of cars on the lane
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether there's no car on the lane.
+     * @return true if there's no car on the lane, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the car at the given index, counted from the front of the lane.
+     * @throws IndexOutOfBoundsException if the index is not in the range of the lane
+     * @param index the index of the car
+     * @return the car at the given index
+     */
+    public Car get(int index) {
+        validateIndex(index);
+        return elements[physicalIndex(index)];
+    }
+
+    /**
+     * Returns the car at the back of the lane.
+     * @throws NoSuchElementException if the lane is empty
+     * @return the car at the back of the lane
+     */
+    public Car getLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elements[physicalIndex(size - 1)];
+    }
+
+    /**
+     * Appends the given car at the back of the lane.
+     * @param car the car to append
+     */
+    public void addLast(Car car) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[physicalIndex(size)] = car;
+        size++;
+    }
+
+    /**
+     * Removes all cars from the lane.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            elements[physicalIndex(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Removes the car at the given index. Removing the car in front of the lane takes constant time.
+     * @throws IndexOutOfBoundsException if the index is not in the range of the lane
+     * @param index the index of the car to remove
+     * @return the removed car
+     */
+    public Car remove(int index) {
+        validateIndex(index);
+        Car removedCar = elements[physicalIndex(index)];
+        if (index == 0) {
+            elements[head] = null;
+            head = physicalIndex(1);
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[physicalIndex(i)] = elements[physicalIndex(i + 1)];
+            }
+            elements[physicalIndex(size - 1)] = null;
+        }
+        size--;
+        return removedCar;
+    }
+
+    /**
+     * Removes the given car from the lane. The lane is searched from the front, so removing the car in front of the
+     * lane takes constant time.
+     * @param car the car to remove
+     * @return true if the car was on the lane and is removed, otherwise false
+     */
+    public boolean remove(Car car) {
+        int index = indexOf(car);
+        if (index == NOT_FOUND) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Returns the index of the given car, counted from the front of the lane.
+     * @param car the car to search for
+     * @return the index of the car or -1 if the car is not on the lane
+     */
+    public int indexOf(Car car) {
+        for (int i = 0; i < size; i++) {
+            if (elements[physicalIndex(i)] == car) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Moves the car at the given index one place to the front, so it swaps its place with the car in front of it.
+     * @throws IndexOutOfBoundsException if there's no car at the index or in front of it
+     * @param index the index of the car that moves to the front
+     */
+    public void moveForward(int index) {
+        validateIndex(index);
+        validateIndex(index - 1);
+        int current = physicalIndex(index);
+        int front = physicalIndex(index - 1);
+        Car car = elements[current];
+        elements[current] = elements[front];
+        elements[front] = car;
+    }
+
+    /**
+     * Returns an iterator over the cars from the front to the back of the lane.
+     * @return an iterator over the cars of the lane
+     */
+    @Override
+    public Iterator<Car> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Car next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elements[physicalIndex(next++)];
+            }
+        };
+    }
+
+    private int physicalIndex(int index) {
+        int physicalIndex = head + index;
+        return physicalIndex < elements.length ? physicalIndex : physicalIndex - elements.length;
+    }
+
+    private void validateIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    private void grow() {
+        Car[] newElements = new Car[elements.length * GROWTH_FACTOR];
+        for (int i = 0; i < size; i++) {
+            newElements[i] = elements[physicalIndex(i)];
+        }
+        elements = newElements;
+        head = 0;
+    }
+}
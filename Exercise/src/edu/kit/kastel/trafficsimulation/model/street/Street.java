@@ -1,14 +1,19 @@
 package edu.kit.kastel.trafficsimulation.model.street;
 
 import edu.kit.kastel.trafficsimulation.model.Car;
+import edu.kit.kastel.trafficsimulation.model.NetworkTopology;
 import edu.kit.kastel.trafficsimulation.model.Updatable;
 import edu.kit.kastel.trafficsimulation.model.node.Node;
-import java.util.LinkedList;
+
+import java.nio.ByteBuffer;
+import java.util.List;
 
 /**
  * A class representing a street that implements Updatable interfaces.
  * Cars are driving on the streets. They always have to keep the save distance of 10.
  * so every street can have only length / 10 + 1 car on the street.
+ * The nodes, the length and the speed limit of the street are read from the topology of the network, which is shared
+ * by all networks built on it, so a street only keeps its cars.
  *
  * @author uyxib
  * @version 1.0
@@ -24,77 +29,220 @@ public class Street implements Updatable {
      */
     public static final int NO_CAR_IN_FRONT = -1;
     /**
-     * The ID of the starting node of the street.
+     * The topology the nodes, the length and the speed limit of the street are read from.
      */
-    protected int intStartNode;
+    protected final NetworkTopology topology;
     /**
-     * The ID of the ending node of the street.
+     * The nodes of the network, indexed like the nodes of the topology.
      */
-    protected int intEndNode;
+    private final List<Node> nodes;
     /**
-     * The starting node of the street.
+     * The streets of the network in the order of their IDs.
      */
-    protected final Node startNode;
+    private final List<Street> streets;
     /**
-     * The ending node of the street.
+     * The ID of the street.
      */
-    protected final Node endNode;
+    protected final int streetID;
     /**
-     * *The length of the street.
+     * The lane with the cars currently on the street.
      */
-    protected int length;
+    protected final Lane cars;
     /**
-     * The speed limit of the street.
+     * The car at the end of the street that waits to be handed off to the end node in the two phase tick mode.
      */
-    protected int speedLimit;
+    private Car handOffCar;
     /**
-     * The ID of the street.
+     * Whether the hand off car turned onto its new street in the second phase and has to be removed from this street.
      */
-    protected final int streetID;
+    private boolean handOffTurned;
     /**
-     * A linked list of cars currently on the street.
+     * Whether a car on the street has overtaken before the hand off car was prepared in this tick.
      */
-    protected LinkedList<Car> cars = new LinkedList<>();
-
+    private boolean handOffOvertaken;
+    /**
+     * The speed of the hand off car before it was moved in this tick.
+     */
+    private int handOffSpeedBefore;
+    /**
+     * Whether a car on the street or the order of the cars changed since the last checkpoint.
+     */
+    private boolean changed;
+    /**
+     * Whether a car on the street or the order of the cars changed since the street was checked for being idle.
+     */
+    private boolean changedInTick;
+    /**
+     * The set of active streets of the network, the street adds itself when it has to be updated again.
+     */
+    private final ActiveStreets activeStreets;
+    /**
+     * The counters of what happened to the cars on the street.
+     */
+    protected final StreetStatistics statistics;
 
     /**
      * Constructs a new street object with the given parameters.
-     * @param intStartNode The start node ID of the street.
-     * @param intendNode The end node ID of the street.
-     * @param length The length of the street in meters.
-     * @param speedLimit The speed limit of the street in meters per second.
+     * @param topology The topology of the network.
      * @param streetID The ID of the street.
-     * @param startNode The start node of the street.
-     * @param endNode The end node of the street.
+     * @param nodes The nodes of the network, indexed like the nodes of the topology.
+     * @param streets The streets of the network in the order of their IDs, the street turns its cars onto them.
+     * @param activeStreets The set of active streets of the network.
      **/
-    public Street(int intStartNode, int intendNode, int length, int speedLimit, int streetID,
-                  Node startNode, Node endNode) {
-        this.intStartNode = intStartNode;
-        this.intEndNode = intendNode;
-        this.length = length;
-        this.speedLimit = speedLimit;
+    public Street(NetworkTopology topology, int streetID, List<Node> nodes, List<Street> streets,
+                  ActiveStreets activeStreets) {
+        this.topology = topology;
         this.streetID = streetID;
-        this.startNode = startNode;
-        this.endNode = endNode;
+        this.nodes = nodes;
+        this.streets = streets;
+        this.cars = new Lane(topology.getLength(streetID) / SAVE_DISTANCE + 1);
+        this.changed = false;
+        this.changedInTick = false;
+        this.activeStreets = activeStreets;
+        this.statistics = new StreetStatistics();
+    }
+
+    /**
+     * Adds the street to the active streets, so it's updated in the next tick.
+     */
+    public void activate() {
+        activeStreets.activate(streetID);
+    }
+
+    /**
+     * Deactivates the street after it was updated, if updating it again wouldn't change it. That's the case if there
+     * are no cars on the street, or if nothing changed since the last check and the end node is red for the street:
+     * the cars are stopped and would be stopped again. If the end node switches green for the street or a car turns
+     * onto it, it's activated again.
+     */
+    public void deactivateIfIdle() {
+        if (cars.isEmpty()) {
+            activeStreets.deactivate(streetID);
+        } else if (!changedInTick && !getEndNode().hasStreetGreen(streetID)) {
+            activeStreets.deactivateUntil(streetID, getEndNode().getNextGreenTick(streetID));
+        }
+        changedInTick = false;
+    }
+
+    /**
+     * Returns whether the street is active, so it's updated in the next tick.
+     * @return true if the street is active, otherwise false
+     */
+    public boolean isActive() {
+        return activeStreets.isActive(streetID);
+    }
+
+    /**
+     * Returns for how many ticks all cars on the street only drive forward at a constant speed. That's the case as
+     * long as every car drives at its top speed, doesn't reach the end of the street and doesn't get closer to the
+     * car in front than the save distance.
+     * @param maxTicks the highest number of ticks to check
+     * @return the number of ticks, at most the given number, or zero if a car changes its speed in the next tick
+     */
+    public int getCruisingTicks(int maxTicks) {
+        int length = getLength();
+        int speedLimit = getSpeedLimit();
+        int ticks = maxTicks;
+        int i = 0;
+        while (i < cars.size() && ticks > 0) {
+            Car car = cars.get(i);
+            int speed = car.getCurrentSpeed();
+            if (!car.isAtTopSpeed(speedLimit)) {
+                return 0;
+            }
+            ticks = Math.min(ticks, (length - car.getCurrentPosition() - 1) / speed);
+            if (i > 0) {
+                int frontSpeed = cars.get(i - 1).getCurrentSpeed();
+                int distance = calculateDistance(i, cars);
+                if (distance + frontSpeed - speed < SAVE_DISTANCE) {
+                    return 0;
+                }
+                if (speed > frontSpeed) {
+                    ticks = Math.min(ticks, (distance - SAVE_DISTANCE) / (speed - frontSpeed));
+                }
+            }
+            i++;
+        }
+        return ticks;
+    }
+
+    /**
+     * Moves all cars on the street forward at their constant speed for the given number of ticks at once. The
+     * result is the same as updating the street tick by tick, if the cars cruise for at least this number of ticks.
+     * @param ticks the number of ticks to move the cars, at most {@link #getCruisingTicks(int)}
+     */
+    public void cruise(int ticks) {
+        for (Car car : cars) {
+            car.setCurrentPosition(car.getCurrentPosition() + ticks * car.getCurrentSpeed());
+        }
+        if (!cars.isEmpty()) {
+            statistics.countMovedCars((long) cars.size() * ticks);
+            markChanged();
+        }
+    }
+
+    /**
+     * Returns whether a car on the street or the order of the cars changed since the last call of
+     * {@link #resetChanged()}.
+     * @return true if the street changed, otherwise false
+     */
+    public boolean hasChanged() {
+        return changed;
+    }
+
+    /**
+     * Forgets the changes of the street so far.
+     */
+    public void resetChanged() {
+        changed = false;
+    }
+
+    /**
+     * Writes the order of the cars on the street to the given output: the number of cars and the slot of every car
+     * from the front to the back of the street.
+     * @param output the output to write the order of the cars to
+     */
+    public void saveState(ByteBuffer output) {
+        output.putInt(cars.size());
+        for (Car car : cars) {
+            output.putInt(car.getSlot());
+        }
+    }
+
+    /**
+     * Reads the order of the cars on the street that was written by {@link #saveState(ByteBuffer)} and replaces the
+     * cars on the street with them.
+     * @param input the input to read the order of the cars from
+     * @param carsBySlot all cars of the street network ordered by their slot
+     */
+    public void restoreState(ByteBuffer input, List<Car> carsBySlot) {
+        cars.clear();
+        int numberOfCars = input.getInt();
+        for (int i = 0; i < numberOfCars; i++) {
+            cars.addLast(carsBySlot.get(input.getInt()));
+        }
     }
 
     /**
      * Updates the street and its cars according to their current status.
      * Moves each car forward and turns it to the new street if it reaches the end of the current street.
-     * Resets move parameters for all cars on the street.
      */
     @Override
     public void update() {
+        int length = getLength();
+        int speedLimit = getSpeedLimit();
         int i = 0;
         while (i < cars.size()) {
             Car currentCar = cars.get(i);
             if (!currentCar.isMoved()) {
+                int speedBefore = currentCar.getCurrentSpeed();
                 currentCar.accelerate(speedLimit);
                 currentCar.drive(calculateDistance(i, cars), length, currentCar.getCurrentSpeed());
                 if (!turnCar(currentCar)) {
                     i++;
                 }
-                currentCar.resetSpeedInTraffic(false);
+                resetSpeedInTraffic(currentCar, false);
+                trackChange(currentCar, speedBefore);
             } else {
                 i++;
             }
@@ -102,6 +250,125 @@ public class Street implements Updatable {
         }
     }
 
+    /**
+     * The first phase of a tick in the two phase tick mode. Moves each car forward like {@link #update()}, but a car
+     * that reaches the end of the street while the end node is green doesn't turn yet. It's prepared as hand off car
+     * and turns in the second phase, when the end node hands off the cars of all its incoming streets.
+     * So the first phase only changes the cars of this street and can run for all streets in any order.
+     */
+    public void moveCars() {
+        int length = getLength();
+        int speedLimit = getSpeedLimit();
+        for (int i = 0; i < cars.size(); i++) {
+            Car currentCar = cars.get(i);
+            if (!currentCar.isMoved()) {
+                int speedBefore = currentCar.getCurrentSpeed();
+                currentCar.accelerate(speedLimit);
+                currentCar.drive(calculateDistance(i, cars), length, currentCar.getCurrentSpeed());
+                if (!prepareHandOff(currentCar, false, speedBefore)) {
+                    resetSpeedInTraffic(currentCar, false);
+                    trackChange(currentCar, speedBefore);
+                }
+            }
+        }
+    }
+
+    /**
+     * The second phase of a tick in the two phase tick mode. Turns the hand off car of the first phase onto its new
+     * street, if possible. Only the end node of this street hands off cars onto its outgoing streets, so the second
+     * phase can run for all nodes in any order. The car is added to its new street, but stays on this street until
+     * {@link #removeHandedOffCar()}, because the start node of this street may add a car to it at the same time. Until
+     * then the start node sees the car at the end of this street, where it was after the first phase.
+     */
+    public void commitHandOff() {
+        if (handOffCar == null) {
+            return;
+        }
+        Car car = handOffCar;
+        handOffTurned = enterNewStreet(car);
+        resetSpeedInTraffic(car, handOffOvertaken);
+        trackChange(car, handOffSpeedBefore);
+    }
+
+    /**
+     * Finishes the second phase of a tick in the two phase tick mode after all nodes handed off their cars. Removes
+     * the car that turned onto its new street in {@link #commitHandOff()} from this street.
+     */
+    public void removeHandedOffCar() {
+        if (handOffTurned) {
+            cars.remove(handOffCar);
+            handOffTurned = false;
+        }
+        handOffCar = null;
+    }
+
+    /**
+     * Appends a car at the back of the street that was handed off onto it by its start node in another shard of the
+     * network, in the second phase of the tick. The car already drove its remaining meters on this street.
+     * @param car the car that turned onto this street
+     */
+    public void receiveCar(Car car) {
+        cars.addLast(car);
+        markChanged();
+        activate();
+    }
+
+    /**
+     * Returns the position of the last car on the street. The street must not be empty.
+     * @return the position of the last car
+     */
+    public int getLastCarPosition() {
+        return getPosition(cars.getLast());
+    }
+
+    /**
+     * Prepares the given car as hand off car in the two phase tick mode, if it's at the end of the street and the
+     * end node is green.
+     * @param car current Car that may want to turn onto another street
+     * @param hasOvertaken true if a car on the street has overtaken in this tick so far, otherwise false
+     * @param speedBefore the speed of the car before it was moved in this tick
+     * @return true if the car is prepared as hand off car, otherwise false
+     */
+    protected boolean prepareHandOff(Car car, boolean hasOvertaken, int speedBefore) {
+        if (!canLeaveStreet(car)) {
+            return false;
+        }
+        handOffCar = car;
+        handOffOvertaken = hasOvertaken;
+        handOffSpeedBefore = speedBefore;
+        return true;
+    }
+
+    /**
+     * Marks the street as changed, if the given car changed its position or speed in the current tick.
+     * @param car the car that was moved
+     * @param speedBefore the speed of the car before it was moved
+     */
+    protected void trackChange(Car car, int speedBefore) {
+        if (car.isDriven()) {
+            statistics.countMovedCars(1);
+            markChanged();
+        } else if (car.getCurrentSpeed() != speedBefore) {
+            markChanged();
+        }
+    }
+
+    /**
+     * Stops the given car if it couldn't drive in the current tick and counts it as stopped car.
+     * @param car the car that was moved
+     * @param hasOvertaken true if a car on the street has overtaken in this tick so far, otherwise false
+     */
+    protected void resetSpeedInTraffic(Car car, boolean hasOvertaken) {
+        if (car.resetSpeedInTraffic(hasOvertaken)) {
+            statistics.countStoppedCar();
+        }
+    }
+
+    private void markChanged() {
+        changed = true;
+        changedInTick = true;
+    }
+
     /**
      * The turnCar method turns the given car onto a new street, if possible.
      * If the car is not at the end of the current street or if the traffic light at the end node is not green,
@@ -113,32 +380,65 @@ public class Street implements Updatable {
      * @return true if the car was able to turn onto the new street, and false otherwise.
      */
     protected boolean turnCar(Car car) {
+        if (!canLeaveStreet(car)) {
+            return false;
+        }
+        return turnOntoNewStreet(car);
+    }
 
-        if (car.getCurrentPosition() != length) {
+    /**
+     * Returns whether the given car is at the end of the street and the end node is green for the street. A car that
+     * reached the end in this tick while the end node is red is counted as blocked car.
+     */
+    private boolean canLeaveStreet(Car car) {
+        if (car.getCurrentPosition() != getLength()) {
             return false;
         }
-        if (!endNode.hasStreetGreen(streetID)) {
+        if (getEndNode().hasStreetGreen(streetID)) {
+            return true;
+        }
+        if (car.isDriven()) {
+            statistics.countBlockedCar();
+        }
+        return false;
+    }
+
+    private boolean turnOntoNewStreet(Car car) {
+        if (!enterNewStreet(car)) {
             return false;
         }
+        cars.remove(car);
+        return true;
+    }
+
+    /**
+     * Adds the given car to its new street and drives its remaining meters there, if there's space at the beginning
+     * of the new street. The car isn't removed from this street.
+     * @param car the car at the end of this street
+     * @return true if the car entered its new street, otherwise false
+     */
+    private boolean enterNewStreet(Car car) {
         Street newOutgoingStreet = getNewStreet(car);
         if (!car.turn(newOutgoingStreet)) {
             return false;
         }
-        cars.remove(car);
         newOutgoingStreet.getCars().addLast(car);
-        car.drive(calculateDistance(newOutgoingStreet.cars.size() - 1, newOutgoingStreet.getCars()),
+        statistics.countTurnedCar();
+        markChanged();
+        newOutgoingStreet.markChanged();
+        newOutgoingStreet.activate();
+        car.drive(newOutgoingStreet.calculateDistance(newOutgoingStreet.cars.size() - 1, newOutgoingStreet.cars),
                 newOutgoingStreet.getLength(), car.getRemainingMeters());
         car.update();
         return true;
     }
 
     /**
-     * Resets the move parameters for all cars on the street.
+     * Returns the counters of what happened to the cars on the street.
+     * @return the statistics of the street
      */
-    public void resetCarMoves() {
-        for (Car car : cars) {
-            car.resetMoveParameters();
-        }
+    public StreetStatistics getStatistics() {
+        return statistics;
     }
 
     /**
@@ -146,7 +446,7 @@ public class Street implements Updatable {
      * @return The start node ID of the street.
      */
     public int getIntStartNode() {
-        return intStartNode;
+        return topology.getNodeID(topology.getStartNode(streetID));
     }
 
 
@@ -155,7 +455,23 @@ public class Street implements Updatable {
      * @return The end node ID of the street.
      */
     public int getIntEndNode() {
-        return intEndNode;
+        return topology.getNodeID(topology.getEndNode(streetID));
+    }
+
+    /**
+     * Returns the start node of the street.
+     * @return The start node of the street.
+     */
+    public Node getStartNode() {
+        return nodes.get(topology.getStartNode(streetID));
+    }
+
+    /**
+     * Returns the end node of the street.
+     * @return The end node of the street.
+     */
+    public Node getEndNode() {
+        return nodes.get(topology.getEndNode(streetID));
     }
 
     /**
@@ -163,7 +479,15 @@ public class Street implements Updatable {
      * @return the length of this street
      */
     public int getLength() {
-        return length;
+        return topology.getLength(streetID);
+    }
+
+    /**
+     * Returns the speed limit of this street.
+     * @return the speed limit of this street
+     */
+    protected int getSpeedLimit() {
+        return topology.getSpeedLimit(streetID);
     }
 
     /**
@@ -175,10 +499,10 @@ public class Street implements Updatable {
     }
 
     /**
-     * Returns the list of cars currently on this street.
-     * @return the list of cars currently on this street
+     * Returns the lane of cars currently on this street.
+     * @return the lane of cars currently on this street
      */
-    public LinkedList<Car> getCars() {
+    public Lane getCars() {
         return cars;
     }
 
@@ -186,19 +510,29 @@ public class Street implements Updatable {
      * Calculates and returns the distance between the car at the specified index and the car in front of it.
      * If there is no car in front of it, returns a constant value indicating that there is no car in front.
      * @param index the index of the car for which to calculate the distance to the car in front
-     * @param cars the LinkedList of Car objects representing the list of cars currently on this street
+     * @param cars the lane of Car objects currently on this street
      * @return the distance between the car at the specified index and the car in front of it,
      * or a constant value indicating that there is no car in front
      */
-    protected int calculateDistance(int index, LinkedList<Car> cars) {
+    protected int calculateDistance(int index, Lane cars) {
         if (index > 0) {
-            return (cars.get(index - 1).getCurrentPosition()
+            return (getPosition(cars.get(index - 1))
                     - cars.get(index).getCurrentPosition());
         } else {
             return NO_CAR_IN_FRONT;
         }
     }
 
+    /**
+     * Returns the position of the given car on this street. The hand off car of the two phase tick mode is at the end
+     * of the street until it's removed, even if it's already turned onto its new street.
+     * @param car a car on this street
+     * @return the position of the car
+     */
+    private int getPosition(Car car) {
+        return car == handOffCar ? getLength() : car.getCurrentPosition();
+    }
+
     /**
      * Returns the next street for the specified car based on its desired street.
      * If the desired street is not valid, returns the starting street.
@@ -206,10 +540,11 @@ public class Street implements Updatable {
      * @return the next street for the specified car based on its desired street
      */
     private Street getNewStreet(Car car) {
-        if (endNode.getOutgoingStreets().size() - 1 >= car.getDesiredStreet()) {
-            return  endNode.getOutgoingStreets().get(car.getDesiredStreet());
+        int endNode = topology.getEndNode(streetID);
+        if (topology.getNumberOfOutgoingStreets(endNode) - 1 >= car.getDesiredStreet()) {
+            return streets.get(topology.getOutgoingStreet(endNode, car.getDesiredStreet()));
         } else {
-            return endNode.getOutgoingStreets().get(Node.START_STREET);
+            return streets.get(topology.getOutgoingStreet(endNode, Node.START_STREET));
         }
     }
 }
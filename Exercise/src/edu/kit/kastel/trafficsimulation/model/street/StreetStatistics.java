@@ -0,0 +1,108 @@
+package edu.kit.kastel.trafficsimulation.model.street;
+
+/**
+ * Counters of what happened to the cars on one street. Every street has its own counters and only the thread that
+ * updates the street counts, so counting needs neither synchronization nor allocation. The counters of the whole
+ * network are summed up only when they are requested.
+ *
+ * @author uyxib
+ * @version 1.0
+ */
+public final class StreetStatistics {
+
+    private long movedCars;
+    private long turnedCars;
+    private long overtakes;
+    private long stoppedCars;
+    private long blockedCars;
+
+    /**
+     * Creates new counters that are all zero.
+     */
+    public StreetStatistics() {
+        reset();
+    }
+
+    /**
+     * Adds the counters of the given statistics to these counters.
+     * @param statistics the statistics to add
+     */
+    public void add(StreetStatistics statistics) {
+        movedCars += statistics.movedCars;
+        turnedCars += statistics.turnedCars;
+        overtakes += statistics.overtakes;
+        stoppedCars += statistics.stoppedCars;
+        blockedCars += statistics.blockedCars;
+    }
+
+    /**
+     * Sets all counters to zero.
+     */
+    public void reset() {
+        movedCars = 0;
+        turnedCars = 0;
+        overtakes = 0;
+        stoppedCars = 0;
+        blockedCars = 0;
+    }
+
+    /**
+     * Returns how often a car changed its position in a tick.
+     * @return the number of car moves
+     */
+    public long getMovedCars() {
+        return movedCars;
+    }
+
+    /**
+     * Returns how often a car turned onto a new street.
+     * @return the number of turns
+     */
+    public long getTurnedCars() {
+        return turnedCars;
+    }
+
+    /**
+     * Returns how often a car overtook on a fast track street.
+     * @return the number of overtakes
+     */
+    public long getOvertakes() {
+        return overtakes;
+    }
+
+    /**
+     * Returns how often a driving car was stopped in traffic, because it couldn't move in a tick.
+     * @return the number of stopped cars
+     */
+    public long getStoppedCars() {
+        return stoppedCars;
+    }
+
+    /**
+     * Returns how often a car reached the end of its street while the end node was red for it.
+     * @return the number of cars blocked at red lights
+     */
+    public long getBlockedCars() {
+        return blockedCars;
+    }
+
+    void countMovedCars(long cars) {
+        movedCars += cars;
+    }
+
+    void countTurnedCar() {
+        turnedCars++;
+    }
+
+    void countOvertake() {
+        overtakes++;
+    }
+
+    void countStoppedCar() {
+        stoppedCars++;
+    }
+
+    void countBlockedCar() {
+        blockedCars++;
+    }
+}